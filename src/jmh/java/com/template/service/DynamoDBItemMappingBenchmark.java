@@ -0,0 +1,66 @@
+package com.template.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.metrics.PipelineMetrics;
+import com.template.model.domain.MessageTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversion between {@link MessageTemplate} and its DynamoDB item, without any client calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DynamoDBItemMappingBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int paragraphs;
+
+    @Param({"0", "50", "500"})
+    private int parameters;
+
+    private DynamoDBService dynamoDBService;
+    private MessageTemplate template;
+    private Map<String, AttributeValue> item;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Instrumented as in the application, so the benchmarks include the timer overhead
+        PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry());
+        ObjectMapper objectMapper = new ObjectMapper();
+        dynamoDBService = new DynamoDBService(null, null, objectMapper, metrics);
+        byte[] json = SyntheticCmsDocuments.generate(objectMapper, paragraphs, parameters);
+        template = new TemplateTransformer(metrics).transform(new ByteArrayInputStream(json));
+        item = dynamoDBService.buildItem(template);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> buildItem() {
+        return dynamoDBService.buildItem(template);
+    }
+
+    @Benchmark
+    public MessageTemplate mapToTemplate() {
+        return dynamoDBService.mapToTemplate(item);
+    }
+}
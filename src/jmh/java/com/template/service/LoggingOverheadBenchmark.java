@@ -0,0 +1,183 @@
+package com.template.service;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.metrics.PipelineMetrics;
+import com.template.model.aws.S3EventNotification;
+import com.template.model.cms.CmsResponse;
+import com.template.model.domain.MessageTemplate;
+import com.template.model.domain.WriteOutcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-message logging cost of the listener pipeline.
+ * {@code legacy} replays the statements logged for one message before the logging cleanup
+ * (full payload at INFO, object dumps at DEBUG with com.template at DEBUG);
+ * {@code structured} replays the current statements with the prod levels.
+ * Output is formatted and written to a discarding stream so only the logging work is measured;
+ * with the async appender the cost is what the listener thread pays before handing the event off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoggingOverheadBenchmark {
+    private static final String PATTERN =
+            "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %-5level [%thread] %logger{36} [%X] - %msg%n";
+
+    @Param({"sync", "async"})
+    private String appender;
+
+    private LoggerContext context;
+    private Logger legacy;
+    private Logger structured;
+
+    private String payload;
+    private S3EventNotification event;
+    private CmsResponse cmsResponse;
+    private MessageTemplate template;
+    private String bucket;
+    private String key;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        byte[] json = SyntheticCmsDocuments.generate(objectMapper, 100, 10);
+        cmsResponse = objectMapper.readValue(json, CmsResponse.class);
+        template = new TemplateTransformer(new PipelineMetrics(new SimpleMeterRegistry()))
+                .transform(new ByteArrayInputStream(json));
+
+        bucket = "s3-bucket";
+        key = "templates/" + template.getId() + ".json";
+        payload = "{\"Records\":[{\"eventVersion\":\"2.1\",\"eventSource\":\"aws:s3\",\"awsRegion\":\"eu-west-1\","
+                + "\"eventTime\":\"2025-01-01T00:00:00.000Z\",\"eventName\":\"ObjectCreated:Put\","
+                + "\"s3\":{\"s3SchemaVersion\":\"1.0\",\"bucket\":{\"name\":\"" + bucket + "\"},"
+                + "\"object\":{\"key\":\"" + key + "\",\"size\":" + json.length + ","
+                + "\"eTag\":\"0123456789abcdef0123456789abcdef\",\"sequencer\":\"0062E99A88DC407460\"}}}]}";
+        event = objectMapper.readValue(payload, S3EventNotification.class);
+
+        context = new LoggerContext();
+        context.start();
+        Appender<ILoggingEvent> output = output();
+        legacy = logger("legacy", Level.DEBUG, output);
+        structured = logger("structured", Level.INFO, output);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void legacy() {
+        legacy.info("Received SQS message: {}", payload);
+        legacy.debug("Attempting to parse S3 event notification");
+        legacy.debug("Successfully parsed S3 event notification: {}", event);
+        legacy.debug("Processing record: {}", event.getRecords().get(0));
+        legacy.info("Processing S3 template - Bucket: {}, Key: {}", bucket, key);
+        legacy.debug("Downloading template from S3");
+        legacy.debug("Successfully downloaded template: {}", cmsResponse);
+        legacy.debug("Transforming template");
+        legacy.debug("Template transformed: {}", template);
+        legacy.debug("Saving template to DynamoDB");
+        legacy.info("Saving template with ID: {}", template.getId());
+        legacy.info("Successfully saved template with ID: {}", template.getId());
+        legacy.info("Template save finished with outcome: {}", WriteOutcome.WRITTEN);
+        legacy.info("Successfully processed template from bucket: {}, key: {}", bucket, key);
+        legacy.info("Message successfully processed and acknowledged");
+    }
+
+    @Benchmark
+    public void structured() {
+        long start = System.nanoTime();
+        structured.debug("Received SQS message");
+        if (structured.isDebugEnabled()) {
+            structured.debug("SQS message payload: {}", payload);
+        }
+        structured.debug("Parsed S3 event notification with {} records", event.getRecords().size());
+        structured.debug("Processing record: {}", event.getRecords().get(0));
+        MDC.put("bucket", bucket);
+        MDC.put("key", key);
+        try {
+            structured.debug("Processing S3 template");
+            structured.debug("Downloading template from S3");
+            structured.debug("Transforming template");
+            MDC.put("templateId", template.getId());
+            structured.debug("Saving template to DynamoDB");
+            structured.debug("Saving template with ID: {}", template.getId());
+            structured.debug("Successfully saved template with ID: {}", template.getId());
+            if (structured.isInfoEnabled()) {
+                structured.info("Processed template bucket={} key={} templateId={} outcome={} durationMs={}",
+                        bucket, key, template.getId(), WriteOutcome.WRITTEN,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } finally {
+            MDC.remove("bucket");
+            MDC.remove("key");
+            MDC.remove("templateId");
+        }
+        structured.debug("Message successfully processed and acknowledged");
+    }
+
+    private Appender<ILoggingEvent> output() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> stream = new OutputStreamAppender<>();
+        stream.setContext(context);
+        stream.setEncoder(encoder);
+        stream.setOutputStream(OutputStream.nullOutputStream());
+        stream.start();
+        if ("sync".equals(appender)) {
+            return stream;
+        }
+
+        // Same settings as the prod profile in logback-spring.xml
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.setIncludeCallerData(false);
+        async.addAppender(stream);
+        async.start();
+        return async;
+    }
+
+    private Logger logger(String name, Level level, Appender<ILoggingEvent> output) {
+        Logger logger = context.getLogger("com.template.service." + name);
+        logger.setLevel(level);
+        logger.setAdditive(false);
+        logger.addAppender(output);
+        return logger;
+    }
+}
@@ -0,0 +1,154 @@
+package com.template.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.model.cms.Document;
+import com.template.model.cms.Node;
+import com.template.model.cms.NodeType;
+import lombok.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the typed rich-text model ({@link NodeType}, {@link com.template.model.cms.NodeData}, shared
+ * empty lists) with the previous model, which bound node data to {@code Map<String, Object>} and kept the
+ * node type as a string. Each model binds the same body document and is walked the way the transformer
+ * walks it. Run with {@code -prof gc} to compare {@code gc.alloc.rate.norm} per document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RichTextModelBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int paragraphs;
+
+    @Param({"0", "50"})
+    private int parameters;
+
+    private ObjectMapper objectMapper;
+    private byte[] body;
+    private Document typed;
+    private MapDocument untyped;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Same leniency as the Spring Boot auto-configured mapper used by the listeners
+        objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        byte[] json = SyntheticCmsDocuments.generate(objectMapper, paragraphs, parameters);
+        body = objectMapper.writeValueAsBytes(objectMapper.readTree(json).at("/items/0/fields/body"));
+        typed = objectMapper.readValue(body, Document.class);
+        untyped = objectMapper.readValue(body, MapDocument.class);
+    }
+
+    @Benchmark
+    public Document bindTyped() throws IOException {
+        return objectMapper.readValue(body, Document.class);
+    }
+
+    @Benchmark
+    public MapDocument bindMap() throws IOException {
+        return objectMapper.readValue(body, MapDocument.class);
+    }
+
+    @Benchmark
+    public int walkTyped() {
+        int found = 0;
+        for (Node paragraph : typed.getContent()) {
+            for (Node node : paragraph.getContent()) {
+                switch (node.getNodeType()) {
+                    case TEXT -> found += node.getValue().length();
+                    case EMBEDDED_ENTRY_INLINE -> found += node.getData().targetId() != null ? 1 : 0;
+                    default -> {
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int walkMap() {
+        int found = 0;
+        for (MapNode paragraph : untyped.getContent()) {
+            for (MapNode node : paragraph.getContent()) {
+                switch (node.getNodeType()) {
+                    case "text" -> found += node.getValue().length();
+                    case "embedded-entry-inline" -> found += targetId(node) != null ? 1 : 0;
+                    default -> {
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int bindAndWalkTyped() throws IOException {
+        typed = objectMapper.readValue(body, Document.class);
+        return walkTyped();
+    }
+
+    @Benchmark
+    public int bindAndWalkMap() throws IOException {
+        untyped = objectMapper.readValue(body, MapDocument.class);
+        return walkMap();
+    }
+
+    /**
+     * Parameter ID lookup of the previous transformer
+     */
+    private static String targetId(MapNode node) {
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> target = (Map<String, Object>) node.getData().get("target");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> sys = (Map<String, Object>) target.get("sys");
+            return (String) sys.get("id");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * The previous Document model
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class MapDocument {
+        private Map<String, Object> data;
+        private List<MapNode> content;
+        private String nodeType;
+    }
+
+    /**
+     * The previous Node model
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class MapNode {
+        private Map<String, Object> data;
+        private List<MapNode> content;
+        private String nodeType;
+        private String value;
+        private List<String> marks;
+    }
+}
@@ -0,0 +1,122 @@
+package com.template.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Generates CMS responses shaped like the Contentful documents the pipeline receives,
+ * with a configurable number of body paragraphs and distinct parameters.
+ */
+final class SyntheticCmsDocuments {
+    private static final String TRAFFIC_TYPE_ID = "traffic-type-1";
+
+    private SyntheticCmsDocuments() {
+    }
+
+    /**
+     * @param paragraphs Number of paragraphs in the body
+     * @param parameters Number of distinct parameters, referenced round-robin from the paragraphs
+     * @return Serialized CMS response
+     */
+    static byte[] generate(ObjectMapper mapper, int paragraphs, int parameters) {
+        ObjectNode root = mapper.createObjectNode();
+        root.putObject("sys").put("type", "Array");
+        root.put("total", 1);
+        root.put("skip", 0);
+        root.put("limit", 1000);
+
+        ObjectNode template = root.putArray("items").addObject();
+        sys(template, "template-1", "message-template");
+        ObjectNode fields = template.putObject("fields");
+        fields.put("key", "SYNTHETIC_" + paragraphs + "_" + parameters);
+        fields.put("name", "Synthetic template");
+        fields.putObject("trafficType").putObject("sys")
+                .put("type", "Link")
+                .put("linkType", "Entry")
+                .put("id", TRAFFIC_TYPE_ID);
+
+        ArrayNode subject = document(fields.putObject("subject"));
+        ArrayNode line = paragraph(subject);
+        text(line, "Notice ");
+        if (parameters > 0) {
+            parameterReference(line, 0);
+        }
+
+        ArrayNode body = document(fields.putObject("body"));
+        for (int i = 0; i < paragraphs; i++) {
+            line = paragraph(body);
+            text(line, "Paragraph " + i + " of the synthetic template body, ");
+            if (parameters > 0) {
+                parameterReference(line, i % parameters);
+                text(line, " applies.");
+            }
+        }
+
+        ArrayNode includes = root.putObject("includes").putArray("Entry");
+        for (int i = 0; i < parameters; i++) {
+            include(includes, parameterId(i), "parameter", "PARAM_" + i, "Parameter " + i);
+        }
+        include(includes, TRAFFIC_TYPE_ID, "traffic-type", "LONG_DISTANCE", "Kaukoliikenne");
+
+        try {
+            return mapper.writeValueAsBytes(root);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize synthetic CMS document", e);
+        }
+    }
+
+    private static String parameterId(int index) {
+        return "param-" + index;
+    }
+
+    private static void sys(ObjectNode entry, String id, String contentType) {
+        ObjectNode sys = entry.putObject("sys");
+        sys.put("id", id);
+        sys.put("type", "Entry");
+        sys.put("createdAt", "2025-01-01T00:00:00.000Z");
+        sys.put("updatedAt", "2025-01-01T00:00:00.001Z");
+        sys.put("revision", 1);
+        sys.putObject("contentType").putObject("sys")
+                .put("type", "Link")
+                .put("linkType", "ContentType")
+                .put("id", contentType);
+    }
+
+    private static void include(ArrayNode includes, String id, String contentType, String key, String name) {
+        ObjectNode entry = includes.addObject();
+        sys(entry, id, contentType);
+        entry.putObject("fields").put("key", key).put("name", name);
+    }
+
+    private static ArrayNode document(ObjectNode document) {
+        document.putObject("data");
+        document.put("nodeType", "document");
+        return document.putArray("content");
+    }
+
+    private static ArrayNode paragraph(ArrayNode document) {
+        ObjectNode paragraph = document.addObject();
+        paragraph.putObject("data");
+        paragraph.put("nodeType", "paragraph");
+        return paragraph.putArray("content");
+    }
+
+    private static void text(ArrayNode paragraph, String value) {
+        ObjectNode node = paragraph.addObject();
+        node.putObject("data");
+        node.putArray("marks");
+        node.put("value", value);
+        node.put("nodeType", "text");
+    }
+
+    private static void parameterReference(ArrayNode paragraph, int index) {
+        ObjectNode node = paragraph.addObject();
+        node.putObject("data").putObject("target").putObject("sys")
+                .put("id", parameterId(index))
+                .put("type", "Link")
+                .put("linkType", "Entry");
+        node.putArray("content");
+        node.put("nodeType", "embedded-entry-inline");
+    }
+}
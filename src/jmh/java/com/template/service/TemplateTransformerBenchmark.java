@@ -0,0 +1,77 @@
+package com.template.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.metrics.PipelineMetrics;
+import com.template.model.cms.CmsResponse;
+import com.template.model.domain.MessageTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures JSON binding of {@link CmsResponse} and both transformation paths of {@link TemplateTransformer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TemplateTransformerBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int paragraphs;
+
+    @Param({"0", "50", "500"})
+    private int parameters;
+
+    private ObjectMapper objectMapper;
+    private TemplateTransformer transformer;
+    private byte[] json;
+    private CmsResponse response;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Instrumented as in the application, so the benchmarks include the timer overhead
+        PipelineMetrics metrics = new PipelineMetrics(new SimpleMeterRegistry());
+        // Same leniency as the Spring Boot auto-configured mapper used by the listeners
+        objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        transformer = new TemplateTransformer(metrics);
+        json = SyntheticCmsDocuments.generate(objectMapper, paragraphs, parameters);
+        response = objectMapper.readValue(json, CmsResponse.class);
+    }
+
+    @Benchmark
+    public CmsResponse bindCmsResponse() throws IOException {
+        return objectMapper.readValue(json, CmsResponse.class);
+    }
+
+    @Benchmark
+    public MessageTemplate transformBound() {
+        return transformer.transform(response);
+    }
+
+    @Benchmark
+    public MessageTemplate bindAndTransform() throws IOException {
+        return transformer.transform(objectMapper.readValue(json, CmsResponse.class));
+    }
+
+    @Benchmark
+    public MessageTemplate transformStreaming() throws IOException {
+        return transformer.transform(new ByteArrayInputStream(json));
+    }
+}
@@ -0,0 +1,89 @@
+package com.template.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache with a fixed time to live per entry, backed by Caffeine.
+ * Reads take no global lock; once full, entries are evicted by Caffeine's
+ * recency and frequency based policy.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class BoundedTtlCache<K, V> {
+    private final Cache<K, V> entries;
+
+    public BoundedTtlCache(int maxSize, long ttl, TimeUnit unit) {
+        this(Caffeine.newBuilder(), maxSize, ttl, unit);
+    }
+
+    /**
+     * Runs evictions on the calling thread against the given clock, so tests see them immediately
+     */
+    BoundedTtlCache(int maxSize, long ttl, TimeUnit unit, LongSupplier nanoClock) {
+        this(Caffeine.newBuilder().ticker(nanoClock::getAsLong).executor(Runnable::run), maxSize, ttl, unit);
+    }
+
+    private BoundedTtlCache(Caffeine<Object, Object> builder, int maxSize, long ttl, TimeUnit unit) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.entries = builder
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl, unit)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached value, or null if it is absent or expired
+     *
+     * @param key The cache key
+     * @return The cached value or null
+     */
+    public V get(K key) {
+        return entries.getIfPresent(key);
+    }
+
+    /**
+     * Returns the cached value like {@link #get}, without counting a hit or miss
+     *
+     * @param key The cache key
+     * @return The cached value or null
+     */
+    public V peek(K key) {
+        return entries.asMap().get(key);
+    }
+
+    /**
+     * Stores a value, evicting another entry when the cache is full
+     *
+     * @param key The cache key
+     * @param value The value to cache
+     */
+    public void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    public void invalidate(K key) {
+        entries.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    public int size() {
+        entries.cleanUp();
+        return (int) entries.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        com.github.benmanes.caffeine.cache.stats.CacheStats stats = entries.stats();
+        return new CacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(), size());
+    }
+}
@@ -0,0 +1,132 @@
+package com.template.config;
+
+import org.springframework.core.env.Environment;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.conditions.TokenBucketExceptionCostFunction;
+import software.amazon.awssdk.core.retry.conditions.TokenBucketRetryCondition;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * HTTP and retry settings of one AWS SDK client.
+ * Each setting is read from {@code aws.http.<client>.<name>} (or {@code aws.retry.<client>.<name>})
+ * and falls back to the shared {@code aws.http.<name>} (or {@code aws.retry.<name>}) value.
+ */
+record AwsClientSettings(
+        int maxConnections,
+        Duration connectionTimeout,
+        Duration socketTimeout,
+        Duration connectionAcquisitionTimeout,
+        Duration connectionTimeToLive,
+        Duration connectionMaxIdleTime,
+        boolean tcpKeepAlive,
+        AsyncClient asyncClient,
+        Duration apiCallTimeout,
+        Duration apiCallAttemptTimeout,
+        RetryMode retryMode,
+        int maxAttempts,
+        int retryTokenBucketSize,
+        int retryCost) {
+
+    // The CRT client only enables TCP keep-alive with explicit probe timings
+    private static final Duration CRT_KEEP_ALIVE_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration CRT_KEEP_ALIVE_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * HTTP implementation of the async clients; the SDK only offers Apache for the sync ones
+     */
+    enum AsyncClient { NETTY, CRT }
+
+    static AwsClientSettings resolve(Environment environment, String client) {
+        Lookup http = new Lookup(environment, "aws.http", client);
+        Lookup retry = new Lookup(environment, "aws.retry", client);
+        return new AwsClientSettings(
+                http.get("max-connections", Integer.class, 50),
+                http.get("connection-timeout", Duration.class, Duration.ofSeconds(2)),
+                http.get("socket-timeout", Duration.class, Duration.ofSeconds(30)),
+                http.get("connection-acquisition-timeout", Duration.class, Duration.ofSeconds(10)),
+                http.get("connection-time-to-live", Duration.class, Duration.ofMinutes(1)),
+                http.get("connection-max-idle-time", Duration.class, Duration.ofMinutes(1)),
+                http.get("tcp-keep-alive", Boolean.class, true),
+                AsyncClient.valueOf(http.get("async-client", String.class, "netty").toUpperCase(Locale.ROOT)),
+                http.get("api-call-timeout", Duration.class, Duration.ofSeconds(30)),
+                http.get("api-call-attempt-timeout", Duration.class, Duration.ofSeconds(10)),
+                RetryMode.valueOf(retry.get("mode", String.class, "adaptive").toUpperCase(Locale.ROOT)),
+                retry.get("max-attempts", Integer.class, 3),
+                retry.get("token-bucket-size", Integer.class, 500),
+                retry.get("retry-cost", Integer.class, 5));
+    }
+
+    SdkHttpClient.Builder<?> httpClientBuilder() {
+        return ApacheHttpClient.builder()
+                .maxConnections(maxConnections)
+                .connectionTimeout(connectionTimeout)
+                .socketTimeout(socketTimeout)
+                .connectionAcquisitionTimeout(connectionAcquisitionTimeout)
+                .connectionTimeToLive(connectionTimeToLive)
+                .connectionMaxIdleTime(connectionMaxIdleTime)
+                .tcpKeepAlive(tcpKeepAlive);
+    }
+
+    SdkAsyncHttpClient.Builder<?> asyncHttpClientBuilder() {
+        if (asyncClient == AsyncClient.CRT) {
+            AwsCrtAsyncHttpClient.Builder builder = AwsCrtAsyncHttpClient.builder()
+                    .maxConcurrency(maxConnections)
+                    .connectionTimeout(connectionTimeout)
+                    .connectionMaxIdleTime(connectionMaxIdleTime);
+            if (tcpKeepAlive) {
+                builder.tcpKeepAliveConfiguration(keepAlive -> keepAlive
+                        .keepAliveInterval(CRT_KEEP_ALIVE_INTERVAL)
+                        .keepAliveTimeout(CRT_KEEP_ALIVE_TIMEOUT));
+            }
+            return builder;
+        }
+        return NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(maxConnections)
+                .connectionTimeout(connectionTimeout)
+                .readTimeout(socketTimeout)
+                .writeTimeout(socketTimeout)
+                .connectionAcquisitionTimeout(connectionAcquisitionTimeout)
+                .connectionTimeToLive(connectionTimeToLive)
+                .connectionMaxIdleTime(connectionMaxIdleTime)
+                .tcpKeepAlive(tcpKeepAlive);
+    }
+
+    /**
+     * API call timeouts and the retry policy. Retries draw from a token bucket, so a failing
+     * service exhausts the retry budget instead of multiplying the load on it; in adaptive mode
+     * throttling responses additionally slow down the client-side request rate.
+     */
+    ClientOverrideConfiguration overrideConfiguration() {
+        RetryPolicy retryPolicy = RetryPolicy.builder(retryMode)
+                .numRetries(Math.max(0, maxAttempts - 1))
+                .retryCapacityCondition(TokenBucketRetryCondition.builder()
+                        .tokenBucketSize(retryTokenBucketSize)
+                        .exceptionCostFunction(TokenBucketExceptionCostFunction.builder()
+                                .throttlingExceptionCost(retryCost)
+                                .defaultExceptionCost(retryCost)
+                                .build())
+                        .build())
+                .build();
+        return ClientOverrideConfiguration.builder()
+                .apiCallTimeout(apiCallTimeout)
+                .apiCallAttemptTimeout(apiCallAttemptTimeout)
+                .retryPolicy(retryPolicy)
+                .build();
+    }
+
+    private record Lookup(Environment environment, String prefix, String client) {
+        <T> T get(String name, Class<T> type, T defaultValue) {
+            T shared = environment.getProperty(prefix + "." + name, type, defaultValue);
+            return environment.getProperty(prefix + "." + client + "." + name, type, shared);
+        }
+    }
+}
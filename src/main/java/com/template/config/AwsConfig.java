@@ -1,18 +1,39 @@
 package com.template.config;
 
+import io.awspring.cloud.autoconfigure.core.AwsClientCustomizer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.sqs.SqsAsyncClientBuilder;
 import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
 import java.net.URI;
 
+/**
+ * AWS SDK clients with tuned HTTP connection pools, API call timeouts and retry policies
+ * (see {@link AwsClientSettings}). With {@code aws.http.shared-pool.enabled} the sync clients share
+ * one Apache connection pool and the async clients, including the listener's SqsAsyncClient, share
+ * one async pool; otherwise every client owns a pool sized by its own settings.
+ */
 @Configuration
 public class AwsConfig {
+    private static final String SHARED_POOL = "shared-pool";
 
     @Value("${spring.cloud.aws.credentials.access-key}")
     private String accessKey;
@@ -26,34 +47,119 @@ public class AwsConfig {
     @Value("${spring.cloud.aws.region.static}")
     private String region;
 
+    private final Environment environment;
+
+    public AwsConfig(Environment environment) {
+        this.environment = environment;
+    }
+
     @Bean
-    public S3Client s3Client() {
-        return S3Client.builder()
-            .endpointOverride(URI.create(s3Endpoint))
-            .credentialsProvider(StaticCredentialsProvider.create(
-                AwsBasicCredentials.create(accessKey, secretKey)))
-            .region(Region.of(region))
+    @ConditionalOnProperty(name = "aws.http.shared-pool.enabled", havingValue = "true")
+    public SdkHttpClient sharedHttpClient() {
+        return AwsClientSettings.resolve(environment, SHARED_POOL).httpClientBuilder().build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "aws.http.shared-pool.enabled", havingValue = "true")
+    public SdkAsyncHttpClient sharedAsyncHttpClient() {
+        return AwsClientSettings.resolve(environment, SHARED_POOL).asyncHttpClientBuilder().build();
+    }
+
+    @Bean
+    public S3Client s3Client(ObjectProvider<SdkHttpClient> sharedHttpClient) {
+        return sync(S3Client.builder(), "s3", sharedHttpClient)
             .forcePathStyle(true) // Required for LocalStack
             .build();
     }
 
     @Bean
-    public SqsClient sqsClient() {
-        return SqsClient.builder()
-            .endpointOverride(URI.create(s3Endpoint))
-            .credentialsProvider(StaticCredentialsProvider.create(
-                AwsBasicCredentials.create(accessKey, secretKey)))
-            .region(Region.of(region))
+    public S3AsyncClient s3AsyncClient(ObjectProvider<SdkAsyncHttpClient> sharedAsyncHttpClient) {
+        return async(S3AsyncClient.builder(), "s3", sharedAsyncHttpClient)
+            .forcePathStyle(true) // Required for LocalStack
             .build();
     }
 
     @Bean
-    public DynamoDbClient dynamoDbClient() {
-        return DynamoDbClient.builder()
+    public SqsClient sqsClient(ObjectProvider<SdkHttpClient> sharedHttpClient) {
+        return sync(SqsClient.builder(), "sqs", sharedHttpClient).build();
+    }
+
+    /**
+     * Applies the sqs settings to the SqsAsyncClient auto-configured by Spring Cloud AWS for the listener
+     */
+    @Bean
+    public AwsClientCustomizer<SqsAsyncClientBuilder> sqsAsyncClientCustomizer(
+            ObjectProvider<SdkAsyncHttpClient> sharedAsyncHttpClient) {
+        AwsClientSettings settings = AwsClientSettings.resolve(environment, "sqs");
+        SdkAsyncHttpClient shared = sharedAsyncHttpClient.getIfAvailable();
+        return new AwsClientCustomizer<>() {
+            @Override
+            public ClientOverrideConfiguration overrideConfiguration() {
+                return settings.overrideConfiguration();
+            }
+
+            @Override
+            public SdkAsyncHttpClient asyncHttpClient() {
+                return shared;
+            }
+
+            @Override
+            public SdkAsyncHttpClient.Builder<?> asyncHttpClientBuilder() {
+                return shared == null ? settings.asyncHttpClientBuilder() : null;
+            }
+        };
+    }
+
+    @Bean
+    public DynamoDbClient dynamoDbClient(ObjectProvider<SdkHttpClient> sharedHttpClient) {
+        return sync(DynamoDbClient.builder(), "dynamodb", sharedHttpClient).build();
+    }
+
+    @Bean
+    public DynamoDbAsyncClient dynamoDbAsyncClient(ObjectProvider<SdkAsyncHttpClient> sharedAsyncHttpClient) {
+        return async(DynamoDbAsyncClient.builder(), "dynamodb", sharedAsyncHttpClient).build();
+    }
+
+    /**
+     * Stream reader for cross-node cache invalidation; uses the dynamodb client settings
+     */
+    @Bean
+    @ConditionalOnProperty(name = "aws.dynamodb.streams.enabled", havingValue = "true")
+    public DynamoDbStreamsClient dynamoDbStreamsClient(ObjectProvider<SdkHttpClient> sharedHttpClient) {
+        return sync(DynamoDbStreamsClient.builder(), "dynamodb", sharedHttpClient).build();
+    }
+
+    private <B extends AwsClientBuilder<B, ?> & AwsSyncClientBuilder<B, ?>> B sync(
+            B builder, String client, ObjectProvider<SdkHttpClient> sharedHttpClient) {
+        AwsClientSettings settings = AwsClientSettings.resolve(environment, client);
+        SdkHttpClient shared = sharedHttpClient.getIfAvailable();
+        if (shared != null) {
+            // Not closed with the client; the shared pool is closed with its bean
+            builder.httpClient(shared);
+        } else {
+            builder.httpClientBuilder(settings.httpClientBuilder());
+        }
+        return configure(builder, settings);
+    }
+
+    private <B extends AwsClientBuilder<B, ?> & AwsAsyncClientBuilder<B, ?>> B async(
+            B builder, String client, ObjectProvider<SdkAsyncHttpClient> sharedAsyncHttpClient) {
+        AwsClientSettings settings = AwsClientSettings.resolve(environment, client);
+        SdkAsyncHttpClient shared = sharedAsyncHttpClient.getIfAvailable();
+        if (shared != null) {
+            builder.httpClient(shared);
+        } else {
+            builder.httpClientBuilder(settings.asyncHttpClientBuilder());
+        }
+        return configure(builder, settings);
+    }
+
+    private <B extends AwsClientBuilder<B, ?>> B configure(B builder, AwsClientSettings settings) {
+        return builder
             .endpointOverride(URI.create(s3Endpoint))
             .credentialsProvider(StaticCredentialsProvider.create(
                 AwsBasicCredentials.create(accessKey, secretKey)))
             .region(Region.of(region))
-            .build();
+            .overrideConfiguration(settings.overrideConfiguration());
     }
-} 
\ No newline at end of file
+}
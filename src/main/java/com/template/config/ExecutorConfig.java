@@ -0,0 +1,43 @@
+package com.template.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${aws.pipeline.executor-threads:16}")
+    private int executorThreads;
+
+    @Value("${aws.pipeline.virtual-threads.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    /**
+     * Shared pool used to process the records of a single S3 notification concurrently
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService recordProcessingExecutor() {
+        return createExecutor("record-worker-");
+    }
+
+    /**
+     * Pool that runs whole listener invocations in the async listener mode.
+     * Kept separate from the record pool so a message never waits on its own pool.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService messageProcessingExecutor() {
+        return createExecutor("message-worker-");
+    }
+
+    private ExecutorService createExecutor(String threadNamePrefix) {
+        if (virtualThreadsEnabled) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+        }
+        return Executors.newFixedThreadPool(executorThreads, new CustomizableThreadFactory(threadNamePrefix));
+    }
+}
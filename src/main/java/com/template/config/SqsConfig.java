@@ -1,5 +1,6 @@
 package com.template.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import io.awspring.cloud.sqs.config.SqsMessageListenerContainerFactory;
@@ -7,17 +8,31 @@ import io.awspring.cloud.sqs.listener.acknowledgement.AcknowledgementOrdering;
 import io.awspring.cloud.sqs.listener.acknowledgement.handler.AcknowledgementMode;
 import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 
+import java.time.Duration;
+
 @Configuration
 public class SqsConfig {
 
+    @Value("${aws.sqs.listener.max-messages-per-poll:10}")
+    private int maxMessagesPerPoll;
+
+    @Value("${aws.sqs.listener.poll-timeout:10s}")
+    private Duration pollTimeout;
+
+    @Value("${aws.sqs.listener.max-concurrent-messages:10}")
+    private int maxConcurrentMessages;
+
     @Bean
     public SqsMessageListenerContainerFactory<Object> defaultSqsListenerContainerFactory(SqsAsyncClient sqsAsyncClient) {
         return SqsMessageListenerContainerFactory
             .builder()
             .configure(options -> options
                 .acknowledgementMode(AcknowledgementMode.MANUAL)
-                .acknowledgementOrdering(AcknowledgementOrdering.ORDERED))
+                .acknowledgementOrdering(AcknowledgementOrdering.ORDERED)
+                .maxMessagesPerPoll(maxMessagesPerPoll)
+                .pollTimeout(pollTimeout)
+                .maxConcurrentMessages(maxConcurrentMessages))
             .sqsAsyncClient(sqsAsyncClient)
             .build();
     }
-}
\ No newline at end of file
+}
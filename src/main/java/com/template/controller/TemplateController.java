@@ -0,0 +1,121 @@
+package com.template.controller;
+
+import com.template.exception.TemplateNotFoundException;
+import com.template.model.domain.ContentHash;
+import com.template.model.domain.MessageTemplate;
+import com.template.service.BatchRenderService;
+import com.template.service.TemplateCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Template API for the senders. Templates are read through {@link TemplateCache}, which loads them
+ * from DynamoDB on a miss. Responses carry a strong ETag derived from the content hash and revision,
+ * or a weak one when a template has no revision, so a client sending it back in {@code If-None-Match} gets {@code 304 Not Modified} without a body;
+ * Spring answers the conditional request when the returned entity carries the ETag. Templates can
+ * also be rendered server-side for a stream of parameter maps.
+ */
+@RestController
+public class TemplateController {
+    private final TemplateCache templateCache;
+    private final BatchRenderService batchRenderService;
+    private final CacheControl cacheControl;
+
+    public TemplateController(TemplateCache templateCache,
+                              BatchRenderService batchRenderService,
+                              @Value("${aws.api.cache-control.max-age:30s}") Duration maxAge) {
+        this.templateCache = templateCache;
+        this.batchRenderService = batchRenderService;
+        this.cacheControl = CacheControl.maxAge(maxAge).mustRevalidate();
+    }
+
+    @GetMapping("/templates/{id}")
+    public ResponseEntity<MessageTemplate> getTemplate(@PathVariable String id) {
+        MessageTemplate template = findTemplate(id);
+        return ResponseEntity.ok()
+                .eTag(eTag(version(template), template.getRevision() != null))
+                .cacheControl(cacheControl)
+                .body(template);
+    }
+
+    @GetMapping("/traffic-types/{key}/templates")
+    public ResponseEntity<List<MessageTemplate>> getTemplatesByTrafficType(@PathVariable String key) {
+        List<MessageTemplate> templates = templateCache.findTemplatesByTrafficType(key);
+        return ResponseEntity.ok()
+                .eTag(eTag(version(templates), templates.stream().allMatch(t -> t.getRevision() != null)))
+                .cacheControl(cacheControl)
+                .body(templates);
+    }
+
+    /**
+     * Renders the template for every NDJSON parameter map in the request body and streams one NDJSON
+     * result per row. The template is resolved before the response starts, so an unknown ID is a 404.
+     */
+    @PostMapping(path = "/templates/{id}/render:batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> renderBatch(@PathVariable String id, InputStream rows) {
+        MessageTemplate template = findTemplate(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> batchRenderService.render(template, rows, out));
+    }
+
+    private MessageTemplate findTemplate(String id) {
+        MessageTemplate template = templateCache.findTemplateById(id);
+        if (template == null) {
+            throw new TemplateNotFoundException("No template with id " + id);
+        }
+        return template;
+    }
+
+    /**
+     * Content hash plus revision: an unconditional (buffered or bulk) write can change the name of a
+     * template without changing its rendered content, but not without a new CMS revision
+     */
+    static String version(MessageTemplate template) {
+        String hash = template.getContentHash() != null ? template.getContentHash() : ContentHash.of(template);
+        return template.getRevision() != null ? hash + "-" + template.getRevision() : hash;
+    }
+
+    /**
+     * SHA-256 over the ID and version of every member, in query order
+     */
+    static String version(List<MessageTemplate> templates) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        for (MessageTemplate template : templates) {
+            digest.update(String.valueOf(template.getId()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(version(template).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Without a revision the content hash misses fields that do not affect rendering, such as the name,
+     * so the representation is only guaranteed equivalent, not byte-identical
+     */
+    private static String eTag(String version, boolean strong) {
+        String quoted = "\"" + version + "\"";
+        return strong ? quoted : "W/" + quoted;
+    }
+}
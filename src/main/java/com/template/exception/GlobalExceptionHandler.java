@@ -29,6 +29,12 @@ public class GlobalExceptionHandler {
         return createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to save template", e);
     }
 
+    @ExceptionHandler(TemplateNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleTemplateNotFoundException(TemplateNotFoundException e) {
+        log.debug("Template not found: {}", e.getMessage());
+        return createErrorResponse(HttpStatus.NOT_FOUND, "Template not found", e);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception e) {
         log.error("Unexpected error", e);
@@ -0,0 +1,7 @@
+package com.template.exception;
+
+public class TemplateNotFoundException extends RuntimeException {
+    public TemplateNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,248 @@
+package com.template.metrics;
+
+import com.template.cache.CacheStats;
+import com.template.model.domain.WriteOutcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation of the template pipeline stages.
+ * Timers publish percentile histograms so p50/p99/p999 can be derived in Prometheus.
+ */
+@Component
+public class PipelineMetrics {
+    public static final String MESSAGE_LATENCY = "pipeline.message.latency";
+    public static final String MESSAGES_FAILED = "pipeline.messages.failed";
+    public static final String DUPLICATES = "pipeline.duplicates";
+    public static final String COALESCED = "pipeline.coalesced";
+    public static final String S3_DOWNLOAD = "pipeline.s3.download";
+    public static final String S3_DOWNLOAD_BYTES = "pipeline.s3.download.bytes";
+    public static final String JSON_PARSE = "pipeline.json.parse";
+    public static final String TRANSFORM = "pipeline.transform";
+    public static final String DYNAMODB_WRITE = "pipeline.dynamodb.write";
+    public static final String DYNAMODB_CONSUMED_CAPACITY = "pipeline.dynamodb.consumed.capacity";
+    public static final String RETRIES = "pipeline.retries";
+    public static final String DYNAMODB_THROTTLED = "pipeline.dynamodb.throttled";
+    public static final String DYNAMODB_WRITE_RATE_LIMIT = "pipeline.dynamodb.write.rate.limit";
+    public static final String CACHE_HITS = "template.cache.hits";
+    public static final String CACHE_MISSES = "template.cache.misses";
+    public static final String CACHE_EVICTIONS = "template.cache.evictions";
+    public static final String CACHE_SIZE = "template.cache.size";
+    public static final String STREAM_POLLS_FAILED = "template.stream.polls.failed";
+
+    private final MeterRegistry registry;
+    private final Timer messageAcknowledged;
+    private final Timer messageFailed;
+    private final Timer batchAcknowledged;
+    private final Timer batchFailed;
+    private final Counter messagesFailed;
+    private final Counter duplicates;
+    private final Counter coalesced;
+    private final Timer s3Download;
+    private final DistributionSummary s3DownloadBytes;
+    private final Timer jsonParse;
+    private final Timer treeTransform;
+    private final Timer streamingTransform;
+    private final Map<WriteOutcome, Timer> writes = new EnumMap<>(WriteOutcome.class);
+    private final Timer writeFailed;
+
+    public PipelineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.messageAcknowledged = timer(MESSAGE_LATENCY, "Time from receiving an SQS message to acknowledging it",
+                "mode", "message", "outcome", "acknowledged");
+        this.messageFailed = timer(MESSAGE_LATENCY, "Time from receiving an SQS message to acknowledging it",
+                "mode", "message", "outcome", "failed");
+        this.batchAcknowledged = timer(MESSAGE_LATENCY, "Time from receiving an SQS message to acknowledging it",
+                "mode", "batch", "outcome", "acknowledged");
+        this.batchFailed = timer(MESSAGE_LATENCY, "Time from receiving an SQS message to acknowledging it",
+                "mode", "batch", "outcome", "failed");
+        this.messagesFailed = Counter.builder(MESSAGES_FAILED)
+                .description("Messages left unacknowledged; redelivered and eventually moved to the DLQ")
+                .register(registry);
+        this.duplicates = Counter.builder(DUPLICATES)
+                .description("S3 object versions skipped because they were already processed")
+                .register(registry);
+        this.coalesced = Counter.builder(COALESCED)
+                .description("S3 object versions skipped because a newer version of the key arrived within the coalescing window")
+                .register(registry);
+        this.s3Download = timer(S3_DOWNLOAD, "Time to download a template object from S3");
+        this.s3DownloadBytes = DistributionSummary.builder(S3_DOWNLOAD_BYTES)
+                .description("Size of downloaded template objects")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.jsonParse = timer(JSON_PARSE, "Time to bind a downloaded template to CmsResponse");
+        this.treeTransform = timer(TRANSFORM, "Time to transform a CMS response into a template", "parser", "tree");
+        this.streamingTransform = timer(TRANSFORM, "Time to transform a CMS response into a template",
+                "parser", "streaming");
+        for (WriteOutcome outcome : WriteOutcome.values()) {
+            writes.put(outcome, timer(DYNAMODB_WRITE, "Time to save a template to DynamoDB",
+                    "outcome", outcome.name().toLowerCase(Locale.ROOT)));
+        }
+        this.writeFailed = timer(DYNAMODB_WRITE, "Time to save a template to DynamoDB", "outcome", "failed");
+    }
+
+    /**
+     * @return Sample to be stopped by one of the record methods
+     */
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Records the receive-to-ack latency of an SQS message, counting it as failed when not acknowledged
+     */
+    public void recordMessage(Timer.Sample sample, boolean acknowledged) {
+        if (acknowledged) {
+            sample.stop(messageAcknowledged);
+        } else {
+            sample.stop(messageFailed);
+            messagesFailed.increment();
+        }
+    }
+
+    /**
+     * Records the receive-to-ack latency of an SQS batch once, however many messages it holds, as
+     * failed when none of them was acknowledged, and counts the messages that failed
+     *
+     * @param acknowledged Messages of the batch that were acknowledged
+     * @param failed Messages of the batch left unacknowledged because processing them failed
+     */
+    public void recordBatch(Timer.Sample sample, int acknowledged, int failed) {
+        sample.stop(acknowledged > 0 ? batchAcknowledged : batchFailed);
+        messagesFailed.increment(failed);
+    }
+
+    public void recordDuplicate() {
+        duplicates.increment();
+    }
+
+    public void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    /**
+     * @param bytes Object size, ignored when unknown (negative)
+     */
+    public void recordS3Download(Timer.Sample sample, long bytes) {
+        sample.stop(s3Download);
+        if (bytes >= 0) {
+            s3DownloadBytes.record(bytes);
+        }
+    }
+
+    public void recordJsonParse(Timer.Sample sample) {
+        sample.stop(jsonParse);
+    }
+
+    /**
+     * @param streaming true for the single-pass parser, whose time includes reading the object stream
+     */
+    public void recordTransform(Timer.Sample sample, boolean streaming) {
+        sample.stop(streaming ? streamingTransform : treeTransform);
+    }
+
+    public void recordWrite(Timer.Sample sample, WriteOutcome outcome) {
+        sample.stop(writes.get(outcome));
+    }
+
+    public void recordWriteFailure(Timer.Sample sample) {
+        sample.stop(writeFailed);
+    }
+
+    /**
+     * @param operation The DynamoDB operation, e.g. PutItem
+     * @param capacityUnits Consumed capacity reported by DynamoDB, ignored when null
+     */
+    public void recordConsumedCapacity(String operation, Double capacityUnits) {
+        if (capacityUnits == null) {
+            return;
+        }
+        DistributionSummary.builder(DYNAMODB_CONSUMED_CAPACITY)
+                .description("Capacity units consumed by DynamoDB writes")
+                .baseUnit("capacity.units")
+                .tag("operation", operation)
+                .register(registry)
+                .record(capacityUnits);
+    }
+
+    /**
+     * @param operation The retried operation, e.g. BatchWriteItem
+     */
+    public void recordRetry(String operation) {
+        registry.counter(RETRIES, "operation", operation).increment();
+    }
+
+    /**
+     * @param operation The throttled operation, e.g. PutItem
+     */
+    public void recordThrottle(String operation) {
+        registry.counter(DYNAMODB_THROTTLED, "operation", operation).increment();
+    }
+
+    /**
+     * @param reason Why a poll of the template table stream failed, e.g. throttled
+     */
+    public void recordStreamPollFailure(String reason) {
+        Counter.builder(STREAM_POLLS_FAILED)
+                .description("Polls of the template table stream that failed; the caches may be stale meanwhile")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * @param rate Current client-side DynamoDB write limit in capacity units per second
+     */
+    public void registerWriteRateLimit(Supplier<Number> rate) {
+        Gauge.builder(DYNAMODB_WRITE_RATE_LIMIT, rate)
+                .description("Client-side limit on DynamoDB write capacity, tuned from throttling responses")
+                .baseUnit("capacity.units.per.second")
+                .register(registry);
+    }
+
+    /**
+     * Publishes the statistics of a cache, read from the owner whenever the registry is scraped
+     *
+     * @param cache Value of the {@code cache} tag, e.g. by-id
+     * @param owner Object holding the cache; meters are dropped once it is garbage collected
+     * @param stats Reads the current statistics from the owner
+     */
+    public <T> void registerCache(String cache, T owner, Function<T, CacheStats> stats) {
+        FunctionCounter.builder(CACHE_HITS, owner, o -> stats.apply(o).getHits())
+                .description("Template cache lookups answered from the cache")
+                .tag("cache", cache)
+                .register(registry);
+        FunctionCounter.builder(CACHE_MISSES, owner, o -> stats.apply(o).getMisses())
+                .description("Template cache lookups that read DynamoDB")
+                .tag("cache", cache)
+                .register(registry);
+        FunctionCounter.builder(CACHE_EVICTIONS, owner, o -> stats.apply(o).getEvictions())
+                .description("Template cache entries removed to stay within the size bound")
+                .tag("cache", cache)
+                .register(registry);
+        Gauge.builder(CACHE_SIZE, owner, o -> stats.apply(o).getSize())
+                .description("Entries currently held by the template cache")
+                .tag("cache", cache)
+                .register(registry);
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
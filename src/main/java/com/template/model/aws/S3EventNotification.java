@@ -1,6 +1,8 @@
 package com.template.model.aws;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -10,6 +12,7 @@ import java.util.List;
 @NoArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class S3EventNotification {
+    @JsonAlias("Records")
     private List<S3EventNotificationRecord> records;
 
     @Data
@@ -40,5 +43,10 @@ public class S3EventNotification {
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class S3ObjectEntity {
         private String key;
+        private Long size;
+        @JsonProperty("eTag")
+        private String eTag;
+        private String versionId;
+        private String sequencer;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.template.model.aws;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+
+/**
+ * Identifies one specific version of an S3 object as reported by an S3 event record
+ */
+@Value
+@Builder
+public class S3ObjectVersion {
+    String bucket;
+    String key;
+    String versionId;
+    String eTag;
+    // Orders events for the same key; not part of the version identity
+    @EqualsAndHashCode.Exclude
+    String sequencer;
+
+    /**
+     * @return true if the record carries an S3 version ID, which never repeats for a key
+     */
+    public boolean isVersioned() {
+        return versionId != null;
+    }
+
+    /**
+     * An ETag alone does not identify a version: in an unversioned bucket, reverting an object to
+     * earlier content reproduces its ETag. The event sequencer does, because every write of a key
+     * gets a new one, while redeliveries of the same event keep it.
+     *
+     * @return true if this version can be recognised when its event is delivered again
+     */
+    public boolean isDeduplicable() {
+        return versionId != null || sequencer != null;
+    }
+
+    /**
+     * @return Version ID, or the event sequencer for unversioned objects, followed by the ETag
+     */
+    public String versionToken() {
+        return (versionId != null ? versionId : "seq:" + sequencer) + "#" + (eTag != null ? eTag : "");
+    }
+
+    /**
+     * @return Key uniquely identifying this object version, used for de-duplication
+     */
+    public String dedupKey() {
+        return bucket + "/" + key + "#" + versionToken();
+    }
+}
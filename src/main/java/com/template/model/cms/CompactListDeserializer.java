@@ -0,0 +1,70 @@
+package com.template.model.cms;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads JSON arrays into lists, returning the shared immutable empty list for empty arrays.
+ * Rich-text documents have an empty content or marks array on almost every node.
+ */
+class CompactListDeserializer extends StdDeserializer<List<Object>> implements ContextualDeserializer {
+    private final JavaType elementType;
+    // Resolved on first use, once per property instead of per element; resolving it while the
+    // element deserializer is being built would recurse for Node, which contains List<Node>
+    private volatile JsonDeserializer<Object> elementDeserializer;
+
+    CompactListDeserializer() {
+        this(null);
+    }
+
+    private CompactListDeserializer(JavaType elementType) {
+        super(List.class);
+        this.elementType = elementType;
+    }
+
+    @Override
+    public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) {
+        JavaType type = property != null ? property.getType() : ctxt.getContextualType();
+        return new CompactListDeserializer(type.getContentType());
+    }
+
+    @Override
+    public List<Object> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.isExpectedStartArrayToken()) {
+            return castToList(ctxt.handleUnexpectedToken(List.class, p));
+        }
+        if (p.nextToken() == JsonToken.END_ARRAY) {
+            return List.of();
+        }
+        JsonDeserializer<Object> deserializer = elementDeserializer;
+        if (deserializer == null) {
+            deserializer = ctxt.findRootValueDeserializer(elementType);
+            elementDeserializer = deserializer;
+        }
+        List<Object> list = new ArrayList<>();
+        do {
+            list.add(p.currentToken() == JsonToken.VALUE_NULL ? null : deserializer.deserialize(p, ctxt));
+        } while (p.nextToken() != JsonToken.END_ARRAY);
+        return list;
+    }
+
+    @Override
+    public Object getEmptyValue(DeserializationContext ctxt) {
+        return List.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> castToList(Object value) {
+        return (List<Object>) value;
+    }
+}
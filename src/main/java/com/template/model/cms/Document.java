@@ -1,17 +1,20 @@
 package com.template.model.cms;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
-import java.util.Map;
 
 @Data
 @NoArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Document {
-    private Map<String, Object> data;
+    private NodeData data;
+    @JsonDeserialize(using = CompactListDeserializer.class)
     private List<Node> content;
-    private String nodeType;
-} 
\ No newline at end of file
+    @JsonFormat(with = JsonFormat.Feature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE)
+    private NodeType nodeType;
+}
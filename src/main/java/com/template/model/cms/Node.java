@@ -1,19 +1,23 @@
 package com.template.model.cms;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
-import java.util.Map;
 
 @Data
 @NoArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Node {
-    private Map<String, Object> data;
+    private NodeData data;
+    @JsonDeserialize(using = CompactListDeserializer.class)
     private List<Node> content;
-    private String nodeType;
+    @JsonFormat(with = JsonFormat.Feature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE)
+    private NodeType nodeType;
     private String value;
+    @JsonDeserialize(using = CompactListDeserializer.class)
     private List<String> marks;
-} 
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.template.model.cms;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * The data of a rich-text node: the linked entry of embedded entries and entry hyperlinks,
+ * or the URI of hyperlinks. Most nodes have empty data, which is read as the shared {@link #EMPTY}.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@JsonDeserialize(using = NodeDataDeserializer.class)
+public class NodeData {
+    public static final NodeData EMPTY = new NodeData(null, null);
+
+    Target target;
+    String uri;
+
+    public static NodeData of(Target target, String uri) {
+        return target == null && uri == null ? EMPTY : new NodeData(target, uri);
+    }
+
+    /**
+     * @return ID of the linked entry, or null if the node links nothing
+     */
+    public String targetId() {
+        return target != null && target.getSys() != null ? target.getSys().getId() : null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.template.model.cms;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads rich-text node data field by field, returning {@link NodeData#EMPTY} for the
+ * empty objects most nodes carry. Unknown fields are skipped.
+ */
+class NodeDataDeserializer extends StdDeserializer<NodeData> {
+
+    NodeDataDeserializer() {
+        super(NodeData.class);
+    }
+
+    @Override
+    public NodeData deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        String name;
+        if (p.isExpectedStartObjectToken()) {
+            name = p.nextFieldName();
+        } else if (p.hasToken(JsonToken.FIELD_NAME)) {
+            name = p.currentName();
+        } else {
+            return (NodeData) ctxt.handleUnexpectedToken(NodeData.class, p);
+        }
+
+        Target target = null;
+        String uri = null;
+        for (; name != null; name = p.nextFieldName()) {
+            JsonToken value = p.nextToken();
+            switch (name) {
+                case "target" -> target = value == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, Target.class);
+                case "uri" -> uri = p.getValueAsString();
+                default -> p.skipChildren();
+            }
+        }
+        return NodeData.of(target, uri);
+    }
+
+    @Override
+    public NodeData getEmptyValue(DeserializationContext ctxt) {
+        return NodeData.EMPTY;
+    }
+}
@@ -0,0 +1,65 @@
+package com.template.model.cms;
+
+import com.fasterxml.jackson.annotation.JsonEnumDefaultValue;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Rich-text node types of a CMS document. Types this pipeline does not know,
+ * e.g. ones added to the CMS later, are read as {@link #UNKNOWN} instead of failing the document;
+ * properties of this type enable READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE for that.
+ */
+public enum NodeType {
+    DOCUMENT("document"),
+    PARAGRAPH("paragraph"),
+    HEADING_1("heading-1"),
+    HEADING_2("heading-2"),
+    HEADING_3("heading-3"),
+    HEADING_4("heading-4"),
+    HEADING_5("heading-5"),
+    HEADING_6("heading-6"),
+    ORDERED_LIST("ordered-list"),
+    UNORDERED_LIST("unordered-list"),
+    LIST_ITEM("list-item"),
+    BLOCKQUOTE("blockquote"),
+    HR("hr"),
+    TABLE("table"),
+    TABLE_ROW("table-row"),
+    TABLE_CELL("table-cell"),
+    TABLE_HEADER_CELL("table-header-cell"),
+    EMBEDDED_ENTRY_BLOCK("embedded-entry-block"),
+    EMBEDDED_ASSET_BLOCK("embedded-asset-block"),
+    EMBEDDED_ENTRY_INLINE("embedded-entry-inline"),
+    HYPERLINK("hyperlink"),
+    ENTRY_HYPERLINK("entry-hyperlink"),
+    ASSET_HYPERLINK("asset-hyperlink"),
+    TEXT("text"),
+    @JsonEnumDefaultValue
+    UNKNOWN("unknown");
+
+    private static final Map<String, NodeType> BY_VALUE = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(NodeType::getValue, Function.identity()));
+
+    private final String value;
+
+    NodeType(String value) {
+        this.value = value;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @param value The nodeType string of the CMS document
+     * @return The matching node type, or UNKNOWN if the type is not known
+     */
+    public static NodeType fromValue(String value) {
+        return value == null ? null : BY_VALUE.getOrDefault(value, UNKNOWN);
+    }
+}
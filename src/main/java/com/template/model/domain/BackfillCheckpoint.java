@@ -0,0 +1,37 @@
+package com.template.model.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of a backfill over one bucket and prefix, persisted so an interrupted run can resume.
+ * Every key up to and including {@code startAfter} has been processed; S3 lists keys in that order.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class BackfillCheckpoint {
+    private String bucket;
+    private String prefix;
+    private String startAfter;
+    private long written;
+    private long skipped;
+    private long failed;
+    @Builder.Default
+    private List<String> failedKeys = new ArrayList<>();
+    private boolean completed;
+    private String updatedAt;
+
+    /**
+     * @return Number of objects processed, whether written, skipped or failed
+     */
+    public long processed() {
+        return written + skipped + failed;
+    }
+}
@@ -0,0 +1,251 @@
+package com.template.model.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Pre-parsed form of a subject or body: literal segments interleaved with
+ * parameter slots. For n slots there are n + 1 literals, rendered as
+ * literal[0] slot[0] literal[1] ... slot[n-1] literal[n]. Each slot is an
+ * index into {@link #getParameters()}, the template's parameter names in
+ * order of first appearance. Instances are immutable.
+ */
+public final class CompiledTemplate {
+    private static final CompiledTemplate EMPTY = new CompiledTemplate(new String[]{""}, new int[0], new String[0]);
+
+    private final String[] literals;
+    private final int[] slots;
+    private final String[] parameters;
+    private final int literalLength;
+
+    private CompiledTemplate(String[] literals, int[] slots, String[] parameters) {
+        this.literals = literals;
+        this.slots = slots;
+        this.parameters = parameters;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static CompiledTemplate empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Recreates a compiled template from its persisted parts
+     *
+     * @throws IllegalArgumentException if the parts are inconsistent
+     */
+    public static CompiledTemplate of(List<String> literals, List<Integer> slots, List<String> parameters) {
+        if (literals.size() != slots.size() + 1) {
+            throw new IllegalArgumentException("Expected " + (slots.size() + 1) + " literals but got " + literals.size());
+        }
+        int[] slotArray = new int[slots.size()];
+        for (int i = 0; i < slotArray.length; i++) {
+            int slot = slots.get(i);
+            if (slot < 0 || slot >= parameters.size()) {
+                throw new IllegalArgumentException("Slot " + slot + " is outside of " + parameters.size() + " parameters");
+            }
+            slotArray[i] = slot;
+        }
+        return new CompiledTemplate(literals.toArray(String[]::new), slotArray, parameters.toArray(String[]::new));
+    }
+
+    /**
+     * Compiles a rendered template string, treating {NAME} as a slot when NAME
+     * is one of the known parameters. Used for items stored before templates
+     * were compiled at transform time.
+     */
+    public static CompiledTemplate parse(String text, Collection<String> knownParameters) {
+        if (text == null || text.isEmpty()) {
+            return EMPTY;
+        }
+
+        Builder builder = builder();
+        int literalStart = 0;
+        int open = text.indexOf('{');
+        while (open >= 0) {
+            int close = text.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            String name = text.substring(open + 1, close);
+            if (knownParameters != null && knownParameters.contains(name)) {
+                builder.appendText(text, literalStart, open);
+                builder.appendParameter(name);
+                literalStart = close + 1;
+                open = text.indexOf('{', literalStart);
+            } else {
+                open = text.indexOf('{', open + 1);
+            }
+        }
+        builder.appendText(text, literalStart, text.length());
+        return builder.buildUntrimmed();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    public String getLiteral(int index) {
+        return literals[index];
+    }
+
+    /**
+     * @return Index into {@link #getParameters()} of the parameter filling the given slot
+     */
+    public int getSlot(int index) {
+        return slots[index];
+    }
+
+    public List<String> getLiterals() {
+        return List.of(literals);
+    }
+
+    public List<Integer> getSlots() {
+        return Arrays.stream(slots).boxed().toList();
+    }
+
+    public List<String> getParameters() {
+        return Collections.unmodifiableList(Arrays.asList(parameters));
+    }
+
+    public String getParameter(int index) {
+        return parameters[index];
+    }
+
+    public int getParameterCount() {
+        return parameters.length;
+    }
+
+    /**
+     * @return Total length of the literal segments, the lower bound of any rendered output
+     */
+    public int getLiteralLength() {
+        return literalLength;
+    }
+
+    /**
+     * @return The template text with {NAME} tokens in place of the slots
+     */
+    public String toSource() {
+        StringBuilder source = new StringBuilder(literalLength + slots.length * 16);
+        source.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            source.append('{').append(parameters[slots[i]]).append('}');
+            source.append(literals[i + 1]);
+        }
+        return source.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompiledTemplate other)) {
+            return false;
+        }
+        return Arrays.equals(literals, other.literals)
+                && Arrays.equals(slots, other.slots)
+                && Arrays.equals(parameters, other.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(Arrays.hashCode(literals), Arrays.hashCode(slots), Arrays.hashCode(parameters));
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledTemplate(" + toSource() + ")";
+    }
+
+    /**
+     * Collects literal text and parameter references while a document is transformed
+     */
+    public static final class Builder {
+        private final List<String> literals = new ArrayList<>();
+        private final List<Integer> slots = new ArrayList<>();
+        private final List<String> parameters = new ArrayList<>();
+        private final StringBuilder current = new StringBuilder();
+
+        private Builder() {
+        }
+
+        public Builder appendText(String text) {
+            current.append(text);
+            return this;
+        }
+
+        private Builder appendText(String text, int start, int end) {
+            current.append(text, start, end);
+            return this;
+        }
+
+        public Builder appendParameter(String name) {
+            int index = parameters.indexOf(name);
+            if (index < 0) {
+                index = parameters.size();
+                parameters.add(name);
+            }
+            literals.add(current.toString());
+            current.setLength(0);
+            slots.add(index);
+            return this;
+        }
+
+        /**
+         * Builds the template with leading and trailing whitespace removed,
+         * matching {@link String#trim()} on the rendered source
+         */
+        public CompiledTemplate build() {
+            if (slots.isEmpty()) {
+                String text = current.toString().trim();
+                return text.isEmpty() ? EMPTY : new CompiledTemplate(new String[]{text}, new int[0], new String[0]);
+            }
+
+            CompiledTemplate untrimmed = buildUntrimmed();
+            String[] trimmed = untrimmed.literals.clone();
+            trimmed[0] = stripLeading(trimmed[0]);
+            trimmed[trimmed.length - 1] = stripTrailing(trimmed[trimmed.length - 1]);
+            return new CompiledTemplate(trimmed, untrimmed.slots, untrimmed.parameters);
+        }
+
+        private CompiledTemplate buildUntrimmed() {
+            String[] literalArray = new String[literals.size() + 1];
+            for (int i = 0; i < literals.size(); i++) {
+                literalArray[i] = literals.get(i);
+            }
+            literalArray[literals.size()] = current.toString();
+            int[] slotArray = slots.stream().mapToInt(Integer::intValue).toArray();
+            return new CompiledTemplate(literalArray, slotArray, parameters.toArray(String[]::new));
+        }
+
+        private static String stripLeading(String value) {
+            int start = 0;
+            while (start < value.length() && value.charAt(start) <= ' ') {
+                start++;
+            }
+            return value.substring(start);
+        }
+
+        private static String stripTrailing(String value) {
+            int end = value.length();
+            while (end > 0 && value.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            return value.substring(0, end);
+        }
+    }
+}
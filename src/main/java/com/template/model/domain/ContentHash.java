@@ -0,0 +1,46 @@
+package com.template.model.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * SHA-256 hash over the rendered parts of a template: subject, body and parameters.
+ * Two templates with the same hash produce the same messages.
+ */
+public final class ContentHash {
+    private static final byte SEPARATOR = 0;
+
+    private ContentHash() {
+    }
+
+    public static String of(String subject, String body, List<String> parameters) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        update(digest, subject);
+        update(digest, body);
+        if (parameters != null) {
+            for (String parameter : parameters) {
+                update(digest, parameter);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static String of(MessageTemplate template) {
+        return of(template.getSubject(), template.getBody(), template.getParameters());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update(SEPARATOR);
+    }
+}
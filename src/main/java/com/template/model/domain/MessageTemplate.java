@@ -1,5 +1,6 @@
 package com.template.model.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Data;
 import lombok.AllArgsConstructor;
@@ -18,4 +19,13 @@ public class MessageTemplate {
     private String subject;
     private String body;
     private List<String> parameters;
+    private Integer revision;
+    private String updatedAt;
+    private String contentHash;
+
+    // Pre-parsed subject and body used by TemplateRenderer
+    @JsonIgnore
+    private CompiledTemplate compiledSubject;
+    @JsonIgnore
+    private CompiledTemplate compiledBody;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.template.model.domain;
+
+/**
+ * Result of a conditional template write
+ */
+public enum WriteOutcome {
+    /** The item was created or replaced */
+    WRITTEN,
+    /** The stored item has a newer revision or identical content, nothing was written */
+    SKIPPED,
+    /** A later save for the same item replaced this one before it was written */
+    SUPERSEDED
+}
@@ -0,0 +1,515 @@
+package com.template.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.exception.TemplateProcessingException;
+import com.template.metrics.PipelineMetrics;
+import com.template.model.aws.S3EventNotification;
+import com.template.model.aws.S3ObjectVersion;
+import com.template.model.cms.CmsResponse;
+import com.template.model.domain.MessageTemplate;
+import com.template.model.domain.WriteOutcome;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Shared S3 event processing for the SQS listener modes.
+ * Subclasses only decide how messages are received and acknowledged.
+ */
+@Slf4j
+public abstract class AbstractS3EventListener {
+    protected final S3Service s3Service;
+    protected final TemplateTransformer templateTransformer;
+    protected final DynamoDBService dynamoDBService;
+    protected final ObjectMapper objectMapper;
+    protected final IdempotencyService idempotencyService;
+    protected final TemplateCache templateCache;
+    protected final PipelineMetrics metrics;
+    private final Executor recordExecutor;
+    private final int recordConcurrency;
+    private final AtomicLong receivedMessages = new AtomicLong();
+
+    @Value("${aws.pipeline.logging.payload-sample-every:1}")
+    private int payloadSampleEvery = 1;
+
+    @Value("${aws.pipeline.coalescing.window:0s}")
+    private Duration coalescingWindow = Duration.ZERO;
+
+    private UpdateCoalescer coalescer;
+
+    protected AbstractS3EventListener(S3Service s3Service,
+                                      TemplateTransformer templateTransformer,
+                                      DynamoDBService dynamoDBService,
+                                      ObjectMapper objectMapper,
+                                      IdempotencyService idempotencyService,
+                                      TemplateCache templateCache,
+                                      PipelineMetrics metrics,
+                                      Executor recordExecutor,
+                                      int recordConcurrency) {
+        this.s3Service = s3Service;
+        this.templateTransformer = templateTransformer;
+        this.dynamoDBService = dynamoDBService;
+        this.objectMapper = objectMapper;
+        this.idempotencyService = idempotencyService;
+        this.templateCache = templateCache;
+        this.metrics = metrics;
+        this.recordExecutor = recordExecutor;
+        this.recordConcurrency = recordConcurrency;
+    }
+
+    /**
+     * Logs the raw SQS payload at DEBUG for one in every
+     * aws.pipeline.logging.payload-sample-every messages; never when set to 0
+     *
+     * @param message The raw SQS message body
+     */
+    protected void logPayload(String message) {
+        if (log.isDebugEnabled() && payloadSampleEvery > 0
+                && receivedMessages.getAndIncrement() % payloadSampleEvery == 0) {
+            log.debug("SQS message payload: {}", message);
+        }
+    }
+
+    /**
+     * @return The coalescer for updates of the same key, or null when aws.pipeline.coalescing.window is zero
+     */
+    synchronized UpdateCoalescer coalescer() {
+        if (coalescer == null && coalescingWindow.isPositive()) {
+            coalescer = new UpdateCoalescer(coalescingWindow, superseded -> {
+                metrics.recordCoalesced();
+                log.debug("Superseded by a newer update bucket={} key={} versionId={}",
+                        superseded.getBucket(), superseded.getKey(), superseded.getVersionId());
+            });
+        }
+        return coalescer;
+    }
+
+    /**
+     * Parses an S3 event notification and processes every record it contains
+     *
+     * @param message The raw SQS message body
+     * @throws Exception if the notification cannot be parsed or any record fails
+     */
+    protected void processMessage(String message) throws Exception {
+        log.debug("Attempting to parse S3 event notification");
+        S3EventNotification event = objectMapper.readValue(message, S3EventNotification.class);
+        log.debug("Parsed S3 event notification with {} records",
+                event.getRecords() == null ? 0 : event.getRecords().size());
+
+        // Add null check for records
+        if (event.getRecords() == null) {
+            log.error("No records found in S3 event notification");
+            S3ObjectVersion version = parseFirstRecord(message);
+            if (version != null) {
+                processS3Object(version);
+            }
+        } else {
+            processRecords(event.getRecords());
+        }
+    }
+
+    /**
+     * @return true if a coalescing window is configured
+     */
+    protected boolean isCoalescing() {
+        return coalescer() != null;
+    }
+
+    /**
+     * Hands every record of a notification to the coalescer without waiting for its window.
+     * Callers handling several messages at once arrive all of them before joining, so their
+     * windows overlap and updates of the same key within a batch are coalesced; waiting for
+     * each message in turn would close every window before the next message arrives.
+     *
+     * @param message The raw SQS message body
+     * @return Future completing once every record, or the update that superseded it, has been processed
+     */
+    protected CompletableFuture<Void> processMessageCoalesced(String message) {
+        UpdateCoalescer updates = coalescer();
+        List<S3ObjectVersion> versions = new ArrayList<>();
+        try {
+            S3EventNotification event = objectMapper.readValue(message, S3EventNotification.class);
+            if (event.getRecords() == null) {
+                log.error("No records found in S3 event notification");
+                S3ObjectVersion version = parseFirstRecord(message);
+                if (version != null) {
+                    versions.add(version);
+                }
+            } else {
+                event.getRecords().forEach(record -> versions.add(toObjectVersion(record)));
+            }
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return CompletableFuture.allOf(versions.stream()
+                .map(version -> updates.runAsync(version, recordExecutor,
+                        latest -> CompletableFuture.runAsync(() -> processS3Object(latest, this::processLatestVersion),
+                                recordExecutor)))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Reads the first record from the raw message when it does not bind to the notification model
+     *
+     * @return The referenced object version, or null if the message has no S3 record
+     */
+    private S3ObjectVersion parseFirstRecord(String message) throws Exception {
+        // Try parsing the raw message to get the S3 details
+        JsonNode jsonNode = objectMapper.readTree(message);
+        JsonNode records = jsonNode.get("Records");
+        if (records != null && records.isArray() && records.size() > 0) {
+            JsonNode s3Node = records.get(0).get("s3");
+            if (s3Node != null) {
+                JsonNode objectNode = s3Node.get("object");
+                return S3ObjectVersion.builder()
+                        .bucket(s3Node.get("bucket").get("name").asText())
+                        .key(objectNode.get("key").asText())
+                        .versionId(objectNode.hasNonNull("versionId") ? objectNode.get("versionId").asText() : null)
+                        .eTag(objectNode.hasNonNull("eTag") ? objectNode.get("eTag").asText() : null)
+                        .build();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Processes the records of one notification, running at most
+     * {@code recordConcurrency} of them at a time on the record executor.
+     * Fails if any record fails so the message is not acknowledged.
+     *
+     * @param records The records of a single S3 event notification
+     */
+    private void processRecords(List<S3EventNotification.S3EventNotificationRecord> records) throws InterruptedException {
+        if (records.size() <= 1 || recordConcurrency <= 1) {
+            for (S3EventNotification.S3EventNotificationRecord record : records) {
+                log.debug("Processing record: {}", record);
+                processRecord(record);
+            }
+            return;
+        }
+
+        Semaphore permits = new Semaphore(recordConcurrency);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(records.size());
+
+        for (S3EventNotification.S3EventNotificationRecord record : records) {
+            permits.acquire();
+            if (failure.get() != null) {
+                permits.release();
+                break;
+            }
+            log.debug("Processing record: {}", record);
+            futures.add(CompletableFuture.runAsync(() -> processRecord(record), recordExecutor)
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            failure.compareAndSet(null, e);
+                        }
+                        permits.release();
+                    }));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #processMessage(String)} that chains
+     * download, transform and save for every record of the notification
+     *
+     * @param message The raw SQS message body
+     * @return Future completing once every record has been saved
+     */
+    protected CompletableFuture<Void> processMessageAsync(String message) {
+        S3EventNotification event;
+        try {
+            event = objectMapper.readValue(message, S3EventNotification.class);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if (event.getRecords() == null) {
+            log.error("No records found in S3 event notification");
+            S3ObjectVersion version;
+            try {
+                version = parseFirstRecord(message);
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            if (version == null) {
+                log.warn("S3 event notification has no S3 record, acknowledging it");
+                return CompletableFuture.completedFuture(null);
+            }
+            return processVersionAsync(version);
+        }
+
+        return processRecordsAsync(event.getRecords());
+    }
+
+    /**
+     * Non-blocking variant of {@link #processRecords}: records are started in windows of
+     * {@code recordConcurrency}, each window once the previous one has completed, so a
+     * notification never has more records in flight than the blocking path. No further
+     * windows are started once a record has failed.
+     *
+     * @param records The records of a single S3 event notification
+     * @return Future completing once every record has been processed
+     */
+    private CompletableFuture<Void> processRecordsAsync(List<S3EventNotification.S3EventNotificationRecord> records) {
+        int windowSize = Math.max(recordConcurrency, 1);
+        CompletableFuture<Void> processed = CompletableFuture.completedFuture(null);
+        for (int from = 0; from < records.size(); from += windowSize) {
+            List<S3EventNotification.S3EventNotificationRecord> window =
+                    records.subList(from, Math.min(from + windowSize, records.size()));
+            processed = processed.thenCompose(ignored -> CompletableFuture.allOf(window.stream()
+                    .map(this::processRecordAsync)
+                    .toArray(CompletableFuture[]::new)));
+        }
+        return processed;
+    }
+
+    private CompletableFuture<Void> processRecordAsync(S3EventNotification.S3EventNotificationRecord record) {
+        return processVersionAsync(toObjectVersion(record));
+    }
+
+    private CompletableFuture<Void> processVersionAsync(S3ObjectVersion version) {
+        UpdateCoalescer updates = coalescer();
+        return updates == null
+                ? processObjectVersionAsync(version)
+                : updates.runAsync(version, recordExecutor, this::processObjectVersionAsync);
+    }
+
+    private CompletableFuture<Void> processObjectVersionAsync(S3ObjectVersion version) {
+        String bucket = version.getBucket();
+        String key = version.getKey();
+
+        return idempotencyService.isDuplicateAsync(version).thenCompose(duplicate -> {
+            if (duplicate) {
+                metrics.recordDuplicate();
+                log.info("Skipping already processed S3 object bucket={} key={}", bucket, key);
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            log.debug("Processing S3 template asynchronously bucket={} key={}", bucket, key);
+            long start = System.nanoTime();
+            if (templateTransformer.isBulkEnabled()) {
+                // Off the SDK response thread, which must not wait for the fork-join pool
+                return s3Service.downloadTemplateAsync(bucket, key)
+                        .thenApplyAsync(templateTransformer::transformAll, recordExecutor)
+                        .thenCompose(templates -> dynamoDBService.saveTemplatesAsync(templates)
+                                .thenAccept(outcomes -> {
+                                    invalidateCache(templates, outcomes);
+                                    logProcessed(bucket, key, outcomes, start);
+                                }))
+                        .thenCompose(ignored -> idempotencyService.markProcessedAsync(version));
+            }
+            AtomicReference<MessageTemplate> processed = new AtomicReference<>();
+            AtomicReference<WriteOutcome> saved = new AtomicReference<>();
+
+            return s3Service.downloadTemplateAsync(bucket, key)
+                    .thenApply(templateTransformer::transform)
+                    .thenCompose(domainTemplate -> {
+                        if (domainTemplate == null) {
+                            log.warn("No template was transformed bucket={} key={}, skipping save", bucket, key);
+                            return CompletableFuture.<Void>completedFuture(null);
+                        }
+                        processed.set(domainTemplate);
+                        return dynamoDBService.saveTemplateAsync(domainTemplate)
+                                .thenAccept(outcome -> {
+                                    saved.set(outcome);
+                                    invalidateCache(domainTemplate, outcome);
+                                });
+                    })
+                    .thenCompose(ignored -> idempotencyService.markProcessedAsync(version))
+                    .thenRun(() -> logProcessed(bucket, key, processed.get(), saved.get(), start));
+        });
+    }
+
+    private void processRecord(S3EventNotification.S3EventNotificationRecord record) {
+        S3ObjectVersion version = toObjectVersion(record);
+        try {
+            processObjectVersion(version);
+        } catch (Exception e) {
+            // Logged once by the listener that owns the message
+            throw new RuntimeException("Failed to process S3 event for key " + version.getKey(), e);
+        }
+    }
+
+    private S3ObjectVersion toObjectVersion(S3EventNotification.S3EventNotificationRecord record) {
+        S3EventNotification.S3ObjectEntity object = record.getS3().getObject();
+        return S3ObjectVersion.builder()
+                .bucket(record.getS3().getBucket().getName())
+                .key(URLDecoder.decode(object.getKey(), StandardCharsets.UTF_8))
+                .versionId(object.getVersionId())
+                .eTag(object.getETag())
+                .sequencer(object.getSequencer())
+                .build();
+    }
+
+    private void processS3Object(S3ObjectVersion version) {
+        processS3Object(version, this::processObjectVersion);
+    }
+
+    private void processS3Object(S3ObjectVersion version, Consumer<S3ObjectVersion> processor) {
+        try {
+            processor.accept(version);
+        } catch (Exception e) {
+            // Logged once by the listener that owns the message
+            throw new RuntimeException("Failed to process S3 object for key " + version.getKey(), e);
+        }
+    }
+
+    /**
+     * Processes an S3 object version, coalesced with other updates of its key when a
+     * coalescing window is configured
+     *
+     * @param version The S3 object version referenced by the event
+     */
+    private void processObjectVersion(S3ObjectVersion version) {
+        UpdateCoalescer updates = coalescer();
+        if (updates == null) {
+            processLatestVersion(version);
+            return;
+        }
+        try {
+            updates.run(version, this::processLatestVersion);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TemplateProcessingException("Interrupted while coalescing updates of key " + version.getKey(), e);
+        }
+    }
+
+    /**
+     * Processes an S3 object version unless it was already processed before
+     * 
+     * @param version The S3 object version referenced by the event
+     */
+    private void processLatestVersion(S3ObjectVersion version) {
+        MDC.put("bucket", version.getBucket());
+        MDC.put("key", version.getKey());
+        try {
+            if (idempotencyService.isDuplicate(version)) {
+                metrics.recordDuplicate();
+                log.info("Skipping already processed S3 object bucket={} key={}",
+                        version.getBucket(), version.getKey());
+                return;
+            }
+            processS3Template(version.getBucket(), version.getKey());
+            idempotencyService.markProcessed(version);
+        } finally {
+            MDC.remove("bucket");
+            MDC.remove("key");
+            MDC.remove("templateId");
+        }
+    }
+
+    /**
+     * Common method to process S3 template from bucket and key
+     * 
+     * @param bucket S3 bucket name
+     * @param key S3 object key
+     */
+    private void processS3Template(String bucket, String key) {
+        log.debug("Processing S3 template");
+        long start = System.nanoTime();
+        if (templateTransformer.isBulkEnabled()) {
+            processS3Templates(bucket, key, start);
+            return;
+        }
+        
+        MessageTemplate domainTemplate;
+        if (templateTransformer.isStreamingEnabled()) {
+            log.debug("Downloading and transforming template in a single pass");
+            domainTemplate = s3Service.downloadTemplate(bucket, key, templateTransformer::transform);
+        } else {
+            log.debug("Downloading template from S3");
+            CmsResponse cmsResponse = s3Service.downloadTemplate(bucket, key);
+
+            log.debug("Transforming template");
+            domainTemplate = templateTransformer.transform(cmsResponse);
+        }
+        
+        if (domainTemplate == null) {
+            log.warn("No template was transformed bucket={} key={}, skipping save", bucket, key);
+            return;
+        }
+
+        MDC.put("templateId", domainTemplate.getId());
+        log.debug("Saving template to DynamoDB");
+        WriteOutcome outcome = dynamoDBService.saveTemplate(domainTemplate);
+        invalidateCache(domainTemplate, outcome);
+        logProcessed(bucket, key, domainTemplate, outcome, start);
+    }
+
+    /**
+     * Processes every template of a multi-item CMS export as one batch
+     */
+    private void processS3Templates(String bucket, String key, long start) {
+        log.debug("Downloading CMS export from S3");
+        List<MessageTemplate> templates = templateTransformer.transformAll(s3Service.downloadTemplate(bucket, key));
+        if (templates.isEmpty()) {
+            log.warn("No templates were transformed bucket={} key={}, skipping save", bucket, key);
+            return;
+        }
+        List<WriteOutcome> outcomes = dynamoDBService.saveTemplates(templates);
+        invalidateCache(templates, outcomes);
+        logProcessed(bucket, key, outcomes, start);
+    }
+
+    /**
+     * Logs one summary line per processed export
+     */
+    private void logProcessed(String bucket, String key, List<WriteOutcome> outcomes, long startNanos) {
+        if (log.isInfoEnabled()) {
+            log.info("Processed templates bucket={} key={} templates={} written={} durationMs={}",
+                    bucket, key, outcomes.size(), outcomes.stream().filter(WriteOutcome.WRITTEN::equals).count(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+    }
+
+    /**
+     * Logs one summary line per processed template instead of the objects themselves
+     */
+    private void logProcessed(String bucket, String key, MessageTemplate template, WriteOutcome outcome, long startNanos) {
+        if (log.isInfoEnabled()) {
+            log.info("Processed template bucket={} key={} templateId={} outcome={} durationMs={}",
+                    bucket, key, template != null ? template.getId() : null, outcome,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+    }
+
+    /**
+     * Drops cached lookups of a template once a new version of it is stored
+     */
+    private void invalidateCache(MessageTemplate template, WriteOutcome outcome) {
+        if (outcome == WriteOutcome.WRITTEN) {
+            templateCache.invalidate(template);
+        }
+    }
+
+    private void invalidateCache(List<MessageTemplate> templates, List<WriteOutcome> outcomes) {
+        for (int i = 0; i < templates.size(); i++) {
+            invalidateCache(templates.get(i), outcomes.get(i));
+        }
+    }
+}
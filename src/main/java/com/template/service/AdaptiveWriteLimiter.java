@@ -0,0 +1,168 @@
+package com.template.service;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side limit on the DynamoDB write capacity consumed per second, tuned AIMD-style.
+ * Writes reserve their estimated capacity up front and wait until the limit allows them;
+ * the estimate follows the ConsumedCapacity DynamoDB reports. A throttling response cuts the
+ * rate by the decrease factor (at most once per adjustment interval), and every interval in which
+ * the writes used most of the allowed capacity without being throttled raises it by the increase step.
+ * The rate therefore settles just below the table's capacity instead of repeatedly overshooting it.
+ */
+@Slf4j
+class AdaptiveWriteLimiter {
+    // Share of the allowed capacity an interval has to use before the rate is raised
+    private static final double INCREASE_UTILISATION = 0.8;
+    // Weight of the latest observation in the capacity-per-item estimate
+    private static final double ESTIMATE_WEIGHT = 0.2;
+
+    private final double minRate;
+    private final double maxRate;
+    private final double increaseStep;
+    private final double decreaseFactor;
+    private final long adjustIntervalNanos;
+    private final long maxThrottleWaitNanos;
+    private final LongSupplier nanoClock;
+
+    private double rate;
+    private double available;
+    private double unitsPerItem = 1.0;
+    private long lastRefill;
+    private long lastAdjustment;
+    private long lastDecrease;
+    private double consumedSinceAdjustment;
+
+    AdaptiveWriteLimiter(double initialRate, double minRate, double maxRate, double increaseStep,
+                         double decreaseFactor, Duration adjustInterval, Duration maxThrottleWait,
+                         LongSupplier nanoClock) {
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increaseStep = increaseStep;
+        this.decreaseFactor = decreaseFactor;
+        this.adjustIntervalNanos = adjustInterval.toNanos();
+        this.maxThrottleWaitNanos = maxThrottleWait.toNanos();
+        this.nanoClock = nanoClock;
+        this.rate = Math.max(minRate, Math.min(maxRate, initialRate));
+        this.available = rate;
+        this.lastRefill = nanoClock.getAsLong();
+        this.lastAdjustment = lastRefill;
+        this.lastDecrease = lastRefill - adjustIntervalNanos;
+    }
+
+    /**
+     * Reserves the estimated capacity of a write
+     *
+     * @param items Number of items the write puts
+     * @return Nanoseconds the caller has to wait before sending the write
+     */
+    synchronized long reserve(int items) {
+        refill(nanoClock.getAsLong());
+        available -= items * unitsPerItem;
+        return available >= 0 ? 0 : (long) (-available / rate * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Blocks until the estimated capacity of a write is available
+     */
+    void acquire(int items) throws InterruptedException {
+        long waitNanos = reserve(items);
+        if (waitNanos > 0) {
+            pause(waitNanos);
+        }
+    }
+
+    /** Visible for tests, so reservations do not wait in real time */
+    void pause(long nanos) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+
+    /**
+     * Records a write DynamoDB accepted
+     *
+     * @param items Number of items written, including ones rejected by a condition
+     * @param capacityUnits Consumed capacity reported by DynamoDB, or null to keep the estimate
+     */
+    synchronized void onSuccess(int items, Double capacityUnits) {
+        double estimated = items * unitsPerItem;
+        double consumed = estimated;
+        if (capacityUnits != null && items > 0) {
+            consumed = capacityUnits;
+            available += estimated - consumed;
+            unitsPerItem += ESTIMATE_WEIGHT * (consumed / items - unitsPerItem);
+        }
+        consumedSinceAdjustment += consumed;
+
+        long now = nanoClock.getAsLong();
+        long elapsed = now - lastAdjustment;
+        if (elapsed >= adjustIntervalNanos) {
+            double allowed = rate * elapsed / TimeUnit.SECONDS.toNanos(1);
+            if (consumedSinceAdjustment >= allowed * INCREASE_UTILISATION && rate < maxRate) {
+                rate = Math.min(maxRate, rate + increaseStep);
+                log.debug("Raised DynamoDB write rate limit to {} capacity units/s", rate);
+            }
+            lastAdjustment = now;
+            consumedSinceAdjustment = 0;
+        }
+    }
+
+    /**
+     * Records a throttled write. Writes that were already in flight when the table started
+     * throttling report it too, so the rate is only cut once per adjustment interval.
+     */
+    synchronized void onThrottle() {
+        long now = nanoClock.getAsLong();
+        refill(now);
+        // Throttled requests consumed nothing; drop any saved-up burst so the retries are paced
+        available = Math.min(available, 0);
+        if (now - lastDecrease >= adjustIntervalNanos) {
+            rate = Math.max(minRate, rate * decreaseFactor);
+            lastDecrease = now;
+            lastAdjustment = now;
+            consumedSinceAdjustment = 0;
+            log.info("DynamoDB throttled writes, lowered write rate limit to {} capacity units/s", rate);
+        }
+    }
+
+    /**
+     * @return Current limit in write capacity units per second
+     */
+    synchronized double rate() {
+        return rate;
+    }
+
+    /**
+     * @return Deadline after which a write that keeps being throttled fails instead of being retried
+     */
+    long throttleDeadline() {
+        return nanoClock.getAsLong() + maxThrottleWaitNanos;
+    }
+
+    boolean isBefore(long deadline) {
+        return nanoClock.getAsLong() - deadline < 0;
+    }
+
+    private void refill(long now) {
+        // At most one second of unused capacity can be saved up for bursts
+        available = Math.min(rate, available + rate * (now - lastRefill) / TimeUnit.SECONDS.toNanos(1));
+        lastRefill = now;
+    }
+
+    /**
+     * @return true for DynamoDB's throttling errors, after the SDK's own retries gave up
+     */
+    static boolean isThrottling(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return cause instanceof ProvisionedThroughputExceededException
+                || cause instanceof RequestLimitExceededException
+                || (cause instanceof AwsServiceException serviceException && serviceException.isThrottlingException());
+    }
+}
@@ -0,0 +1,47 @@
+package com.template.service;
+
+import com.template.model.domain.BackfillCheckpoint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs a backfill at startup when aws.backfill.enabled is set, e.g.
+ * {@code java -jar app.jar --aws.backfill.enabled=true --aws.backfill.prefix=templates/ --aws.sqs.listener.mode=none}.
+ * The application exits when the backfill is done, with status 1 if any object failed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "aws.backfill.enabled", havingValue = "true")
+public class BackfillRunner implements ApplicationRunner {
+    private final BackfillService backfillService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${aws.backfill.bucket:${aws.s3.bucket}}")
+    private String bucket;
+
+    @Value("${aws.backfill.prefix:}")
+    private String prefix;
+
+    @Value("${aws.backfill.exit-on-completion:true}")
+    private boolean exitOnCompletion;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        BackfillCheckpoint result = backfillService.run(bucket, prefix);
+        if (result.getFailed() > 0) {
+            log.warn("Backfill finished with {} failed objects; their keys are listed in the checkpoint file",
+                    result.getFailed());
+        }
+        if (exitOnCompletion) {
+            System.exit(SpringApplication.exit(context, () -> result.getFailed() > 0 ? 1 : 0));
+        }
+    }
+}
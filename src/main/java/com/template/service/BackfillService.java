@@ -0,0 +1,307 @@
+package com.template.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.model.domain.BackfillCheckpoint;
+import com.template.model.domain.MessageTemplate;
+import com.template.model.domain.WriteOutcome;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reprocesses every template object under an S3 prefix without going through SQS,
+ * e.g. after the table was rebuilt or the transformation changed.
+ * Objects are listed page by page and processed on a bounded worker pool; at most
+ * {@code aws.backfill.concurrency} objects are in flight, so listing never runs far ahead.
+ * Progress is logged and checkpointed to a file every progress interval. The checkpoint holds
+ * the last key below which every object is done, so a restarted backfill resumes after it and
+ * only repeats the objects that were in flight, which the conditional writes then skip.
+ * In bulk mode every template of a multi-item export is saved; counts stay per object.
+ */
+@Slf4j
+@Service
+public class BackfillService {
+    // Keeps the checkpoint file small when a whole prefix fails
+    static final int MAX_FAILED_KEYS = 1000;
+
+    private final S3Service s3Service;
+    private final TemplateTransformer templateTransformer;
+    private final DynamoDBService dynamoDBService;
+    private final TemplateCache templateCache;
+    private final ObjectMapper objectMapper;
+    private final int concurrency;
+    private final Duration progressInterval;
+    private final Path checkpointFile;
+
+    public BackfillService(S3Service s3Service,
+                           TemplateTransformer templateTransformer,
+                           DynamoDBService dynamoDBService,
+                           TemplateCache templateCache,
+                           ObjectMapper objectMapper,
+                           @Value("${aws.backfill.concurrency:16}") int concurrency,
+                           @Value("${aws.backfill.progress-interval:10s}") Duration progressInterval,
+                           @Value("${aws.backfill.checkpoint-file:backfill-checkpoint.json}") String checkpointFile) {
+        this.s3Service = s3Service;
+        this.templateTransformer = templateTransformer;
+        this.dynamoDBService = dynamoDBService;
+        this.templateCache = templateCache;
+        this.objectMapper = objectMapper;
+        this.concurrency = concurrency;
+        this.progressInterval = progressInterval;
+        this.checkpointFile = Path.of(checkpointFile);
+    }
+
+    /**
+     * Processes every object under the prefix, resuming from the checkpoint of an
+     * unfinished backfill of the same bucket and prefix
+     *
+     * @param bucket S3 bucket name
+     * @param prefix Key prefix, empty for the whole bucket
+     * @return The final checkpoint, with counts accumulated over resumed runs
+     * @throws IOException if the checkpoint cannot be read or written
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    public BackfillCheckpoint run(String bucket, String prefix) throws IOException, InterruptedException {
+        Progress progress = new Progress(loadCheckpoint(bucket, prefix));
+        String startAfter = progress.checkpoint.getStartAfter();
+        log.info("Starting backfill bucket={} prefix={} startAfter={} concurrency={}",
+                bucket, prefix, startAfter, concurrency);
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency,
+                new CustomizableThreadFactory("backfill-worker-"));
+        Semaphore permits = new Semaphore(concurrency);
+        try {
+            for (S3Object object : s3Service.listTemplates(bucket, prefix, startAfter)) {
+                if (object.key().endsWith("/")) {
+                    // Folder placeholder created by the console
+                    continue;
+                }
+                acquire(permits, 1, progress);
+                long sequence = progress.start(object.key());
+                workers.execute(() -> {
+                    try {
+                        process(bucket, object.key(), sequence, progress);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+            acquire(permits, concurrency, progress);
+            progress.complete();
+        } finally {
+            // Objects still in flight after a failure finish in the background; the checkpoint stays before them
+            workers.shutdown();
+            saveCheckpoint(progress.snapshot());
+        }
+
+        BackfillCheckpoint result = progress.snapshot();
+        log.info("Backfill finished bucket={} prefix={} written={} skipped={} failed={} durationMs={} ratePerSecond={}",
+                bucket, prefix, result.getWritten(), result.getSkipped(), result.getFailed(),
+                progress.elapsedMillis(), String.format("%.1f", progress.ratePerSecond()));
+        return result;
+    }
+
+    /**
+     * Waits for worker permits, reporting progress every interval while waiting
+     */
+    private void acquire(Semaphore permits, int count, Progress progress) throws InterruptedException, IOException {
+        while (!permits.tryAcquire(count, progressInterval.toMillis(), TimeUnit.MILLISECONDS)) {
+            report(progress);
+        }
+        if (progress.isReportDue(progressInterval)) {
+            report(progress);
+        }
+    }
+
+    private void report(Progress progress) throws IOException {
+        progress.reported();
+        BackfillCheckpoint checkpoint = progress.snapshot();
+        log.info("Backfill progress listed={} written={} skipped={} failed={} inFlight={} ratePerSecond={} checkpoint={}",
+                progress.listed(), checkpoint.getWritten(), checkpoint.getSkipped(), checkpoint.getFailed(),
+                progress.inFlight(), String.format("%.1f", progress.ratePerSecond()), checkpoint.getStartAfter());
+        saveCheckpoint(checkpoint);
+    }
+
+    private void process(String bucket, String key, long sequence, Progress progress) {
+        MDC.put("bucket", bucket);
+        MDC.put("key", key);
+        try {
+            if (templateTransformer.isBulkEnabled()) {
+                progress.finish(sequence, key, processExport(bucket, key));
+                return;
+            }
+            MessageTemplate template = templateTransformer.isStreamingEnabled()
+                    ? s3Service.downloadTemplate(bucket, key, templateTransformer::transform)
+                    : templateTransformer.transform(s3Service.downloadTemplate(bucket, key));
+            if (template == null) {
+                log.warn("No template was transformed bucket={} key={}, skipping save", bucket, key);
+                progress.finish(sequence, key, WriteOutcome.SKIPPED);
+                return;
+            }
+            WriteOutcome outcome = dynamoDBService.saveTemplate(template);
+            if (outcome == WriteOutcome.WRITTEN) {
+                templateCache.invalidate(template);
+            }
+            progress.finish(sequence, key, outcome);
+        } catch (Exception e) {
+            log.warn("Backfill failed for bucket={} key={}", bucket, key, e);
+            progress.finish(sequence, key, null);
+        } finally {
+            MDC.remove("bucket");
+            MDC.remove("key");
+        }
+    }
+
+    /**
+     * Saves every template of a multi-item CMS export, as the listener does in bulk mode
+     *
+     * @return WRITTEN if any template of the export was written, SKIPPED otherwise
+     */
+    private WriteOutcome processExport(String bucket, String key) {
+        List<MessageTemplate> templates = templateTransformer.transformAll(s3Service.downloadTemplate(bucket, key));
+        if (templates.isEmpty()) {
+            log.warn("No templates were transformed bucket={} key={}, skipping save", bucket, key);
+            return WriteOutcome.SKIPPED;
+        }
+        List<WriteOutcome> outcomes = dynamoDBService.saveTemplates(templates);
+        boolean written = false;
+        for (int i = 0; i < templates.size(); i++) {
+            if (outcomes.get(i) == WriteOutcome.WRITTEN) {
+                templateCache.invalidate(templates.get(i));
+                written = true;
+            }
+        }
+        return written ? WriteOutcome.WRITTEN : WriteOutcome.SKIPPED;
+    }
+
+    private BackfillCheckpoint loadCheckpoint(String bucket, String prefix) throws IOException {
+        if (Files.exists(checkpointFile)) {
+            BackfillCheckpoint checkpoint = objectMapper.readValue(checkpointFile.toFile(), BackfillCheckpoint.class);
+            if (Objects.equals(checkpoint.getBucket(), bucket) && Objects.equals(checkpoint.getPrefix(), prefix)
+                    && !checkpoint.isCompleted()) {
+                log.info("Resuming backfill from checkpoint {} after key {}", checkpointFile, checkpoint.getStartAfter());
+                return checkpoint;
+            }
+        }
+        return BackfillCheckpoint.builder().bucket(bucket).prefix(prefix).build();
+    }
+
+    /**
+     * Replaces the checkpoint file atomically, so a crash never leaves a partial checkpoint
+     */
+    private void saveCheckpoint(BackfillCheckpoint checkpoint) throws IOException {
+        Path directory = checkpointFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, checkpointFile.getFileName().toString(), ".tmp");
+        try {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), checkpoint);
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Counts and the resume position of a running backfill. Objects are numbered in listing
+     * order; the checkpoint only advances past an object once it and every object listed
+     * before it have finished, however the workers interleave.
+     */
+    static final class Progress {
+        private final BackfillCheckpoint checkpoint;
+        private final long processedBefore;
+        private final long startNanos = System.nanoTime();
+        private final TreeMap<Long, String> inFlight = new TreeMap<>();
+        private final TreeMap<Long, String> finished = new TreeMap<>();
+        private long nextSequence;
+        private long lastReportNanos = startNanos;
+
+        Progress(BackfillCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+            this.processedBefore = checkpoint.processed();
+        }
+
+        synchronized long start(String key) {
+            inFlight.put(nextSequence, key);
+            return nextSequence++;
+        }
+
+        /**
+         * @param outcome The write outcome, or null if processing failed
+         */
+        synchronized void finish(long sequence, String key, WriteOutcome outcome) {
+            if (outcome == null) {
+                checkpoint.setFailed(checkpoint.getFailed() + 1);
+                if (checkpoint.getFailedKeys().size() < MAX_FAILED_KEYS) {
+                    checkpoint.getFailedKeys().add(key);
+                }
+            } else if (outcome == WriteOutcome.WRITTEN) {
+                checkpoint.setWritten(checkpoint.getWritten() + 1);
+            } else {
+                checkpoint.setSkipped(checkpoint.getSkipped() + 1);
+            }
+
+            inFlight.remove(sequence);
+            finished.put(sequence, key);
+            SortedMap<Long, String> done = inFlight.isEmpty() ? finished : finished.headMap(inFlight.firstKey());
+            if (!done.isEmpty()) {
+                checkpoint.setStartAfter(done.get(done.lastKey()));
+                done.clear();
+            }
+        }
+
+        synchronized void complete() {
+            checkpoint.setCompleted(true);
+        }
+
+        synchronized BackfillCheckpoint snapshot() {
+            return checkpoint.toBuilder()
+                    .failedKeys(new ArrayList<>(checkpoint.getFailedKeys()))
+                    .updatedAt(Instant.now().toString())
+                    .build();
+        }
+
+        synchronized long listed() {
+            return nextSequence;
+        }
+
+        synchronized int inFlight() {
+            return inFlight.size();
+        }
+
+        synchronized boolean isReportDue(Duration interval) {
+            return System.nanoTime() - lastReportNanos >= interval.toNanos();
+        }
+
+        synchronized void reported() {
+            lastReportNanos = System.nanoTime();
+        }
+
+        long elapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+
+        synchronized double ratePerSecond() {
+            long elapsed = System.nanoTime() - startNanos;
+            return elapsed == 0 ? 0 : (checkpoint.processed() - processedBefore) * 1e9 / elapsed;
+        }
+    }
+}
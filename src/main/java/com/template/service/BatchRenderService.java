@@ -0,0 +1,182 @@
+package com.template.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.template.model.domain.CompiledTemplate;
+import com.template.model.domain.MessageTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders one template for every row of an NDJSON stream of parameter maps and writes one NDJSON
+ * result per row. Rows are read, rendered and written one at a time, and the output is flushed
+ * whenever no further input is buffered, so memory stays flat and a slow reader throttles the
+ * writer through the blocking streams. A row that is not a JSON object or lacks one of the
+ * template's parameters produces an error line and the stream continues.
+ */
+@Slf4j
+@Service
+public class BatchRenderService {
+    private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader rowReader;
+    private final TemplateRenderer renderer;
+
+    public BatchRenderService(ObjectMapper objectMapper, TemplateRenderer renderer) {
+        this.objectMapper = objectMapper;
+        this.rowReader = objectMapper.readerFor(ROW_TYPE);
+        this.renderer = renderer;
+    }
+
+    /**
+     * Renders the template for every non-blank input line. Rows are numbered from 1 and each
+     * output line is either {@code {"row":n,"subject":...,"body":...}} or
+     * {@code {"row":n,"error":...}}, with {@code "missing"} listing absent parameters.
+     *
+     * @param template The template, resolved once for the whole stream
+     * @param rows     NDJSON parameter maps
+     * @param out      Receives the NDJSON results; not closed
+     * @return Counts of processed and failed rows
+     * @throws IOException if reading the rows or writing the results fails
+     */
+    public Summary render(MessageTemplate template, InputStream rows, OutputStream out) throws IOException {
+        List<String> parameters = template.getParameters() != null ? template.getParameters() : List.of();
+        CompiledTemplate subject = compiled(template.getCompiledSubject(), template.getSubject(), parameters);
+        CompiledTemplate body = compiled(template.getCompiledBody(), template.getBody(), parameters);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(rows, StandardCharsets.UTF_8));
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        RowWriter writer = new RowWriter(generator);
+
+        long row = 0;
+        long failed = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            if (!renderRow(line, row, parameters, subject, body, writer)) {
+                failed++;
+            }
+            // Send what has been rendered before blocking on the next rows
+            if (!reader.ready()) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+
+        log.debug("Rendered batch templateId={} rows={} failed={}", template.getId(), row, failed);
+        return new Summary(row, failed);
+    }
+
+    private boolean renderRow(String line, long row, List<String> parameters, CompiledTemplate subject,
+                              CompiledTemplate body, RowWriter writer) throws IOException {
+        Map<String, Object> values;
+        try {
+            values = rowReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            writer.error(row, "Row is not a JSON object: " + e.getOriginalMessage(), null);
+            return false;
+        }
+        if (values == null) {
+            writer.error(row, "Row is not a JSON object", null);
+            return false;
+        }
+
+        List<String> missing = null;
+        for (String parameter : parameters) {
+            if (values.get(parameter) == null) {
+                if (missing == null) {
+                    missing = new ArrayList<>();
+                }
+                missing.add(parameter);
+            }
+        }
+        if (missing != null) {
+            writer.error(row, "Missing parameters", missing);
+            return false;
+        }
+
+        writer.rendered(row, subject, renderer.bind(subject, values), body, renderer.bind(body, values));
+        return true;
+    }
+
+    private static CompiledTemplate compiled(CompiledTemplate compiled, String text, List<String> parameters) {
+        return compiled != null ? compiled : CompiledTemplate.parse(text, parameters);
+    }
+
+    /**
+     * @param rows   Non-blank input rows
+     * @param failed Rows answered with an error line
+     */
+    public record Summary(long rows, long failed) {
+    }
+
+    /**
+     * Writes result lines, rendering into one reused builder and char buffer
+     */
+    private final class RowWriter {
+        private final JsonGenerator generator;
+        private final StringBuilder text = new StringBuilder(256);
+        private char[] chars = new char[256];
+
+        private RowWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        void rendered(long row, CompiledTemplate subject, Object[] subjectValues,
+                      CompiledTemplate body, Object[] bodyValues) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("row", row);
+            writeRendered("subject", subject, subjectValues);
+            writeRendered("body", body, bodyValues);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        void error(long row, String message, List<String> missing) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("row", row);
+            generator.writeStringField("error", message);
+            if (missing != null) {
+                generator.writeArrayFieldStart("missing");
+                for (String parameter : missing) {
+                    generator.writeString(parameter);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        private void writeRendered(String field, CompiledTemplate template, Object[] values) throws IOException {
+            text.setLength(0);
+            renderer.renderTo(template, values, text);
+            int length = text.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            text.getChars(0, length, chars, 0);
+            generator.writeFieldName(field);
+            generator.writeString(chars, 0, length);
+        }
+    }
+}
@@ -1,20 +1,42 @@
 package com.template.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.metrics.PipelineMetrics;
+import com.template.model.domain.CompiledTemplate;
+import com.template.model.domain.ContentHash;
 import com.template.model.domain.MessageTemplate;
 import com.template.model.domain.TrafficType;
+import com.template.model.domain.WriteOutcome;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import com.template.exception.TemplatePersistenceException;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Slf4j
 @Service
@@ -22,102 +44,572 @@ import java.util.stream.Collectors;
 public class DynamoDBService {
     private static final String TABLE_NAME = "dynamodb-table";
     private static final String PK_PREFIX = "TEMPLATE#";
+    private static final String SK_VALUE = "METADATA";
+    // Items written before the deterministic sort key used METADATA#{trafficType}
     private static final String SK_PREFIX = "METADATA#";
+    private static final int MAX_BATCH_GET_KEYS = 100;
+    private static final int BATCH_GET_MAX_ATTEMPTS = 5;
+    private static final Duration BATCH_GET_BACKOFF = Duration.ofMillis(50);
     private static final String GSI_PK_PREFIX = "TRAFFICTYPE#";
+    // Raise when the item layout changes, so reprocessing rewrites items of the same revision in the old layout.
+    // 2: compiledSubject/compiledBody are no longer stored
+    static final int ITEM_SCHEMA_VERSION = 2;
 
     private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
     private final ObjectMapper objectMapper;
+    private final PipelineMetrics metrics;
 
     @Value("${aws.dynamodb.table-name}")
     private String tableName;
 
+    @Value("${aws.dynamodb.write-buffer.enabled:false}")
+    private boolean writeBufferEnabled;
+
+    @Value("${aws.dynamodb.write-buffer.max-delay:50ms}")
+    private Duration writeBufferMaxDelay = Duration.ofMillis(50);
+
+    @Value("${aws.dynamodb.write-buffer.max-attempts:5}")
+    private int writeBufferMaxAttempts = 5;
+
+    @Value("${aws.dynamodb.write-limiter.enabled:false}")
+    private boolean writeLimiterEnabled;
+
+    @Value("${aws.dynamodb.write-limiter.initial-rate:100}")
+    private double writeLimiterInitialRate = 100;
+
+    @Value("${aws.dynamodb.write-limiter.min-rate:5}")
+    private double writeLimiterMinRate = 5;
+
+    @Value("${aws.dynamodb.write-limiter.max-rate:40000}")
+    private double writeLimiterMaxRate = 40000;
+
+    @Value("${aws.dynamodb.write-limiter.increase-step:10}")
+    private double writeLimiterIncreaseStep = 10;
+
+    @Value("${aws.dynamodb.write-limiter.decrease-factor:0.5}")
+    private double writeLimiterDecreaseFactor = 0.5;
+
+    @Value("${aws.dynamodb.write-limiter.adjust-interval:1s}")
+    private Duration writeLimiterAdjustInterval = Duration.ofSeconds(1);
+
+    @Value("${aws.dynamodb.write-limiter.max-throttle-wait:20s}")
+    private Duration writeLimiterMaxThrottleWait = Duration.ofSeconds(20);
+
+    @Value("${aws.dynamodb.query.page-size:100}")
+    private int queryPageSize = 100;
+
+    private final LongAdder skippedWrites = new LongAdder();
+    private TemplateWriteBuffer writeBuffer;
+    private AdaptiveWriteLimiter writeLimiter;
+
     /**
-     * Saves or updates a template in DynamoDB
+     * Saves or updates a template in DynamoDB.
+     * The write is conditional: it is skipped when the stored item has a newer
+     * CMS revision, or the same revision, content hash and item schema version.
+     * When the write buffer is enabled
+     * the save goes through {@link #saveTemplateBuffered} instead.
      * 
      * @param template The template to save
+     * @return WRITTEN if the item was stored, SKIPPED if the condition rejected it
      */
-    public void saveTemplate(MessageTemplate template) {
+    public WriteOutcome saveTemplate(MessageTemplate template) {
+        if (writeBufferEnabled) {
+            try {
+                return saveTemplateBuffered(template).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof TemplatePersistenceException persistenceException) {
+                    throw persistenceException;
+                }
+                throw new TemplatePersistenceException("Failed to save template to DynamoDB", e.getCause());
+            }
+        }
+
+        Timer.Sample sample = metrics.start();
         try {
-            log.info("Saving template with ID: {}", template.getId());
+            log.debug("Saving template with ID: {}", template.getId());
 
-            Map<String, AttributeValue> item = new HashMap<>();
+            PutItemResponse response = putItem(buildConditionalPut(template));
+            metrics.recordConsumedCapacity("PutItem", capacityUnits(response.consumedCapacity()));
 
-            // Primary key attributes
-            item.put("PK", AttributeValue.builder().s(PK_PREFIX + template.getId()).build());
+            log.debug("Successfully saved template with ID: {}", template.getId());
+            metrics.recordWrite(sample, WriteOutcome.WRITTEN);
+            return WriteOutcome.WRITTEN;
 
-            // Handle null traffic type for sort key
-            String skValue = template.getTrafficType() != null ? SK_PREFIX + template.getTrafficType().getKey()
-                    : SK_PREFIX + "DEFAULT";
-            item.put("SK", AttributeValue.builder().s(skValue).build());
+        } catch (ConditionalCheckFailedException e) {
+            logSkippedWrite(template);
+            metrics.recordWrite(sample, WriteOutcome.SKIPPED);
+            return WriteOutcome.SKIPPED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metrics.recordWriteFailure(sample);
+            throw new TemplatePersistenceException("Interrupted while waiting for DynamoDB write capacity", e);
+        } catch (Exception e) {
+            metrics.recordWriteFailure(sample);
+            log.error("Error saving template with ID: {}", template.getId(), e);
+            throw new TemplatePersistenceException("Failed to save template to DynamoDB", e);
+        }
+    }
 
-            // GSI attributes only if traffic type exists
-            if (template.getTrafficType() != null) {
-                item.put("GSI_PK", AttributeValue.builder()
-                        .s(GSI_PK_PREFIX + template.getTrafficType().getKey())
-                        .build());
-                item.put("GSI_SK", AttributeValue.builder()
-                        .s(PK_PREFIX + template.getId())
-                        .build());
+    /**
+     * Saves or updates a template in DynamoDB without blocking the calling thread
+     * 
+     * @param template The template to save
+     * @return Future of the write outcome, or completed exceptionally with
+     *         TemplatePersistenceException if the write fails
+     */
+    public CompletableFuture<WriteOutcome> saveTemplateAsync(MessageTemplate template) {
+        if (writeBufferEnabled) {
+            return saveTemplateBuffered(template);
+        }
 
-                // Traffic type attributes
-                item.put("trafficTypeKey", AttributeValue.builder()
-                        .s(template.getTrafficType().getKey())
-                        .build());
-                item.put("trafficTypeName", AttributeValue.builder()
-                        .s(template.getTrafficType().getName())
-                        .build());
+        log.debug("Saving template asynchronously with ID: {}", template.getId());
+
+        Timer.Sample sample = metrics.start();
+        CompletableFuture<PutItemResponse> putFuture;
+        try {
+            putFuture = putItemAsync(buildConditionalPut(template));
+        } catch (Exception e) {
+            putFuture = CompletableFuture.failedFuture(e);
+        }
+
+        return putFuture.handle((response, e) -> {
+            if (e != null) {
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                if (cause instanceof ConditionalCheckFailedException) {
+                    logSkippedWrite(template);
+                    metrics.recordWrite(sample, WriteOutcome.SKIPPED);
+                    return WriteOutcome.SKIPPED;
+                }
+                metrics.recordWriteFailure(sample);
+                log.error("Error saving template with ID: {}", template.getId(), cause);
+                throw new TemplatePersistenceException("Failed to save template to DynamoDB", cause);
             }
+            metrics.recordConsumedCapacity("PutItem", capacityUnits(response.consumedCapacity()));
+            log.debug("Successfully saved template with ID: {}", template.getId());
+            metrics.recordWrite(sample, WriteOutcome.WRITTEN);
+            return WriteOutcome.WRITTEN;
+        });
+    }
 
-            // Template attributes
-            item.put("id", AttributeValue.builder().s(template.getId()).build());
-            item.put("key", AttributeValue.builder().s(template.getKey()).build());
-            item.put("name", AttributeValue.builder().s(template.getName()).build());
-            item.put("subject", AttributeValue.builder().s(template.getSubject()).build());
-            item.put("body", AttributeValue.builder().s(template.getBody()).build());
-
-            // Parameters as string set
-            if (template.getParameters() != null && !template.getParameters().isEmpty()) {
-                item.put("parameters", AttributeValue.builder()
-                        .ss(template.getParameters())
-                        .build());
+    /**
+     * Queues a template for a batched write. Saves are grouped into
+     * BatchWriteItem calls of up to 25 items; repeated saves of the same item
+     * within the flush window are coalesced, keeping the highest revision.
+     * Batched writes are not conditional, only the in-buffer revision check applies;
+     * {@link #saveTemplates} checks the stored revisions before using it.
+     *
+     * @param template The template to save
+     * @return Future completed once the item is written, or completed exceptionally
+     *         with TemplatePersistenceException if the batch fails
+     */
+    public CompletableFuture<WriteOutcome> saveTemplateBuffered(MessageTemplate template) {
+        Timer.Sample sample = metrics.start();
+        Map<String, AttributeValue> item;
+        try {
+            item = buildItem(template);
+        } catch (Exception e) {
+            metrics.recordWriteFailure(sample);
+            return CompletableFuture.failedFuture(
+                    new TemplatePersistenceException("Failed to save template to DynamoDB", e));
+        }
+        return writeBuffer().submit(template, item).whenComplete((outcome, e) -> {
+            if (e != null) {
+                metrics.recordWriteFailure(sample);
+            } else {
+                metrics.recordWrite(sample, outcome);
             }
+        });
+    }
 
-            PutItemRequest putRequest = PutItemRequest.builder()
-                    .tableName(TABLE_NAME)
-                    .item(item)
+    /**
+     * Saves the templates of one CMS export as BatchWriteItem calls of up to 25 items through
+     * the write buffer, whether or not it is enabled for single saves. BatchWriteItem cannot be
+     * conditional, so the stored revisions are read first with BatchGetItem and templates the
+     * conditional put of {@link #saveTemplate} would reject are skipped. An item written by another
+     * node between that read and the batch write can still be overwritten.
+     *
+     * @param templates The templates to save
+     * @return Outcomes in the order of the templates
+     * @throws TemplatePersistenceException if any batch fails
+     */
+    public List<WriteOutcome> saveTemplates(List<MessageTemplate> templates) {
+        try {
+            return saveTemplatesAsync(templates).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TemplatePersistenceException persistenceException) {
+                throw persistenceException;
+            }
+            throw new TemplatePersistenceException("Failed to save templates to DynamoDB", e.getCause());
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #saveTemplates(List)}
+     *
+     * @param templates The templates to save
+     * @return Future of the outcomes in the order of the templates
+     */
+    public CompletableFuture<List<WriteOutcome>> saveTemplatesAsync(List<MessageTemplate> templates) {
+        log.debug("Saving {} templates in batches", templates.size());
+        return storedVersionsAsync(templates).thenCompose(stored -> {
+            List<CompletableFuture<WriteOutcome>> saves = templates.stream()
+                    .map(template -> isWriteNeeded(template, stored.get(template.getId()))
+                            ? saveTemplateBuffered(template)
+                            : skipStaleWrite(template))
+                    .toList();
+            return CompletableFuture.allOf(saves.toArray(CompletableFuture[]::new))
+                    .thenApply(ignored -> saves.stream().map(CompletableFuture::join).toList());
+        });
+    }
+
+    /**
+     * Same decision as the condition of {@link #buildConditionalPut}, taken against the stored
+     * versioning attributes
+     *
+     * @param stored The stored item's revision, contentHash and schemaVersion, or null if there is none
+     */
+    static boolean isWriteNeeded(MessageTemplate template, Map<String, AttributeValue> stored) {
+        if (stored == null) {
+            return true;
+        }
+        String contentHash = template.getContentHash() != null ? template.getContentHash() : ContentHash.of(template);
+        boolean changed = !stored.containsKey("contentHash") || !contentHash.equals(stored.get("contentHash").s());
+        if (template.getRevision() == null) {
+            return changed;
+        }
+        if (!stored.containsKey("revision")) {
+            return true;
+        }
+        int storedRevision = Integer.parseInt(stored.get("revision").n());
+        if (storedRevision != template.getRevision()) {
+            return storedRevision < template.getRevision();
+        }
+        return changed || !stored.containsKey("schemaVersion")
+                || Integer.parseInt(stored.get("schemaVersion").n()) < ITEM_SCHEMA_VERSION;
+    }
+
+    private CompletableFuture<WriteOutcome> skipStaleWrite(MessageTemplate template) {
+        logSkippedWrite(template);
+        metrics.recordWrite(metrics.start(), WriteOutcome.SKIPPED);
+        return CompletableFuture.completedFuture(WriteOutcome.SKIPPED);
+    }
+
+    /**
+     * Reads the versioning attributes of the stored items with BatchGetItem, 100 keys per request
+     *
+     * @return Stored attributes by template ID; templates without an item are absent
+     */
+    private CompletableFuture<Map<String, Map<String, AttributeValue>>> storedVersionsAsync(
+            List<MessageTemplate> templates) {
+        List<String> ids = templates.stream().map(MessageTemplate::getId).distinct().toList();
+        Projection projection = Projection.of("revision", "contentHash", "schemaVersion");
+        List<CompletableFuture<List<Map<String, AttributeValue>>>> reads = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAX_BATCH_GET_KEYS) {
+            KeysAndAttributes keys = KeysAndAttributes.builder()
+                    .keys(ids.subList(from, Math.min(from + MAX_BATCH_GET_KEYS, ids.size())).stream()
+                            .map(this::templateKey)
+                            .toList())
+                    .projectionExpression(projection.expression())
+                    .expressionAttributeNames(projection.names())
                     .build();
+            reads.add(batchGetAsync(Map.of(TABLE_NAME, keys), new ArrayList<>(), 1));
+        }
 
-            dynamoDbClient.putItem(putRequest);
+        return CompletableFuture.allOf(reads.toArray(CompletableFuture[]::new))
+                .handle((ignored, e) -> {
+                    if (e != null) {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        log.error("Error reading stored revisions of {} templates", ids.size(), cause);
+                        throw cause instanceof TemplatePersistenceException persistenceException
+                                ? persistenceException
+                                : new TemplatePersistenceException("Failed to query templates from DynamoDB", cause);
+                    }
+                    Map<String, Map<String, AttributeValue>> stored = new HashMap<>();
+                    reads.forEach(read -> read.join().forEach(item -> stored.put(stringAttribute(item, "id"), item)));
+                    return stored;
+                });
+    }
 
-            log.info("Successfully saved template with ID: {}", template.getId());
+    /**
+     * Non-blocking variant of {@link #batchGet}: unprocessed keys are retried after a delay
+     * instead of sleeping on the calling thread
+     */
+    private CompletableFuture<List<Map<String, AttributeValue>>> batchGetAsync(
+            Map<String, KeysAndAttributes> pending, List<Map<String, AttributeValue>> items, int attempt) {
+        return dynamoDbAsyncClient.batchGetItem(BatchGetItemRequest.builder().requestItems(pending).build())
+                .thenCompose(response -> {
+                    items.addAll(response.responses().getOrDefault(TABLE_NAME, List.of()));
+                    if (!response.hasUnprocessedKeys() || response.unprocessedKeys().isEmpty()) {
+                        return CompletableFuture.completedFuture(items);
+                    }
+                    if (attempt >= BATCH_GET_MAX_ATTEMPTS) {
+                        return CompletableFuture.failedFuture(new TemplatePersistenceException(
+                                "Template keys were not processed by DynamoDB after " + attempt + " attempts"));
+                    }
+                    metrics.recordRetry("BatchGetItem");
+                    log.warn("Retrying {} unprocessed template keys, attempt {}",
+                            response.unprocessedKeys().get(TABLE_NAME).keys().size(), attempt + 1);
+                    Executor delayed = CompletableFuture.delayedExecutor(
+                            BATCH_GET_BACKOFF.toMillis() << (attempt - 1), TimeUnit.MILLISECONDS);
+                    return CompletableFuture.supplyAsync(
+                                    () -> batchGetAsync(response.unprocessedKeys(), items, attempt + 1), delayed)
+                            .thenCompose(Function.identity());
+                });
+    }
 
-        } catch (Exception e) {
-            log.error("Error saving template with ID: {}", template.getId(), e);
-            throw new TemplatePersistenceException("Failed to save template to DynamoDB", e);
+    private synchronized TemplateWriteBuffer writeBuffer() {
+        if (writeBuffer == null) {
+            writeBuffer = new TemplateWriteBuffer(dynamoDbClient, TABLE_NAME, writeBufferMaxDelay,
+                    writeBufferMaxAttempts, Duration.ofMillis(50), writeLimiter(), metrics);
+        }
+        return writeBuffer;
+    }
+
+    /**
+     * @return The shared write limiter, or null when aws.dynamodb.write-limiter.enabled is off
+     */
+    synchronized AdaptiveWriteLimiter writeLimiter() {
+        if (writeLimiterEnabled && writeLimiter == null) {
+            writeLimiter = new AdaptiveWriteLimiter(writeLimiterInitialRate, writeLimiterMinRate, writeLimiterMaxRate,
+                    writeLimiterIncreaseStep, writeLimiterDecreaseFactor, writeLimiterAdjustInterval,
+                    writeLimiterMaxThrottleWait, System::nanoTime);
+            metrics.registerWriteRateLimit(writeLimiter::rate);
+        }
+        return writeLimiter;
+    }
+
+    /**
+     * Sends a put through the write limiter, if enabled. A throttled put is retried at the
+     * lowered rate until aws.dynamodb.write-limiter.max-throttle-wait has passed instead of
+     * failing the message. The listener thread keeps its container permit while it waits,
+     * so the container polls fewer messages until the table keeps up again.
+     */
+    private PutItemResponse putItem(PutItemRequest request) throws InterruptedException {
+        AdaptiveWriteLimiter limiter = writeLimiter();
+        if (limiter == null) {
+            return dynamoDbClient.putItem(request);
+        }
+
+        long deadline = limiter.throttleDeadline();
+        while (true) {
+            limiter.acquire(1);
+            try {
+                PutItemResponse response = dynamoDbClient.putItem(request);
+                limiter.onSuccess(1, capacityUnits(response.consumedCapacity()));
+                return response;
+            } catch (ConditionalCheckFailedException e) {
+                // Rejected conditional writes consume capacity as well
+                limiter.onSuccess(1, null);
+                throw e;
+            } catch (RuntimeException e) {
+                if (!AdaptiveWriteLimiter.isThrottling(e)) {
+                    throw e;
+                }
+                limiter.onThrottle();
+                metrics.recordThrottle("PutItem");
+                if (!limiter.isBefore(deadline)) {
+                    throw e;
+                }
+                log.debug("PutItem throttled, retrying at the lowered write rate");
+            }
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #putItem}: the put is delayed instead of waiting on the
+     * calling thread, and the message's future only completes once the write went through
+     */
+    private CompletableFuture<PutItemResponse> putItemAsync(PutItemRequest request) {
+        AdaptiveWriteLimiter limiter = writeLimiter();
+        if (limiter == null) {
+            return dynamoDbAsyncClient.putItem(request);
+        }
+        return putItemAsync(request, limiter, limiter.throttleDeadline());
+    }
+
+    private CompletableFuture<PutItemResponse> putItemAsync(PutItemRequest request, AdaptiveWriteLimiter limiter,
+                                                            long deadline) {
+        long waitNanos = limiter.reserve(1);
+        Executor executor = waitNanos > 0
+                ? CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS)
+                : Runnable::run;
+
+        return CompletableFuture.supplyAsync(() -> dynamoDbAsyncClient.putItem(request), executor)
+                .thenCompose(Function.identity())
+                .handle((response, e) -> {
+                    if (e == null) {
+                        limiter.onSuccess(1, capacityUnits(response.consumedCapacity()));
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof ConditionalCheckFailedException) {
+                        limiter.onSuccess(1, null);
+                    } else if (AdaptiveWriteLimiter.isThrottling(cause)) {
+                        limiter.onThrottle();
+                        metrics.recordThrottle("PutItem");
+                        if (limiter.isBefore(deadline)) {
+                            log.debug("PutItem throttled, retrying at the lowered write rate");
+                            return putItemAsync(request, limiter, deadline);
+                        }
+                    }
+                    return CompletableFuture.<PutItemResponse>failedFuture(cause);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    @PreDestroy
+    synchronized void closeWriteBuffer() {
+        if (writeBuffer != null) {
+            writeBuffer.close();
+        }
+    }
+
+    /**
+     * Builds a put ordered by CMS revision: it succeeds for new items, items without a revision and
+     * older revisions. For the same revision it only succeeds when the content hash or the item
+     * schema version differs, so unchanged redeliveries are skipped. A newer revision is always
+     * written, including one that only changes the name, key or traffic type, which the content
+     * hash does not cover. Templates without a revision fall back to comparing the content hash.
+     */
+    PutItemRequest buildConditionalPut(MessageTemplate template) {
+        Map<String, AttributeValue> item = buildItem(template);
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":hash", item.get("contentHash"));
+
+        String changed = "attribute_not_exists(contentHash) OR contentHash <> :hash";
+        String condition;
+        if (template.getRevision() != null) {
+            values.put(":rev", item.get("revision"));
+            values.put(":schema", item.get("schemaVersion"));
+            condition = "attribute_not_exists(PK) OR attribute_not_exists(revision) OR revision < :rev"
+                    + " OR (revision = :rev AND (" + changed
+                    + " OR attribute_not_exists(schemaVersion) OR schemaVersion < :schema))";
+        } else {
+            condition = "attribute_not_exists(PK) OR " + changed;
+        }
+
+        return PutItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .item(item)
+                .conditionExpression(condition)
+                .expressionAttributeValues(values)
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build();
+    }
+
+    private static Double capacityUnits(ConsumedCapacity consumedCapacity) {
+        return consumedCapacity != null ? consumedCapacity.capacityUnits() : null;
+    }
+
+    private void logSkippedWrite(MessageTemplate template) {
+        skippedWrites.increment();
+        log.debug("Skipped write for template with ID: {} - stored revision is newer or the item is unchanged",
+                template.getId());
+    }
+
+    /**
+     * @return Number of writes rejected because of a stale revision or unchanged content
+     */
+    public long getSkippedWriteCount() {
+        return skippedWrites.sum();
+    }
+
+    /**
+     * Builds the DynamoDB item for a template
+     * 
+     * @param template The template to map
+     * @return Attribute map ready to be written to the table
+     */
+    Map<String, AttributeValue> buildItem(MessageTemplate template) {
+        Map<String, AttributeValue> item = new HashMap<>();
+
+        // Primary key attributes
+        item.put("PK", AttributeValue.builder().s(PK_PREFIX + template.getId()).build());
+
+        // One item per template, so it can be read back with GetItem
+        item.put("SK", AttributeValue.builder().s(SK_VALUE).build());
+
+        // GSI attributes only if traffic type exists
+        if (template.getTrafficType() != null) {
+            item.put("GSI_PK", AttributeValue.builder()
+                    .s(GSI_PK_PREFIX + template.getTrafficType().getKey())
+                    .build());
+            item.put("GSI_SK", AttributeValue.builder()
+                    .s(PK_PREFIX + template.getId())
+                    .build());
+
+            // Traffic type attributes
+            item.put("trafficTypeKey", AttributeValue.builder()
+                    .s(template.getTrafficType().getKey())
+                    .build());
+            item.put("trafficTypeName", AttributeValue.builder()
+                    .s(template.getTrafficType().getName())
+                    .build());
         }
+
+        // Template attributes
+        item.put("id", AttributeValue.builder().s(template.getId()).build());
+        item.put("key", AttributeValue.builder().s(template.getKey()).build());
+        item.put("name", AttributeValue.builder().s(template.getName()).build());
+        item.put("subject", AttributeValue.builder().s(template.getSubject()).build());
+        item.put("body", AttributeValue.builder().s(template.getBody()).build());
+
+        // Parameters as string set
+        if (template.getParameters() != null && !template.getParameters().isEmpty()) {
+            item.put("parameters", AttributeValue.builder()
+                    .ss(template.getParameters())
+                    .build());
+        }
+
+        // Versioning attributes used by conditional writes
+        String contentHash = template.getContentHash() != null ? template.getContentHash() : ContentHash.of(template);
+        item.put("contentHash", AttributeValue.builder().s(contentHash).build());
+        if (template.getRevision() != null) {
+            item.put("revision", AttributeValue.builder().n(template.getRevision().toString()).build());
+        }
+        if (template.getUpdatedAt() != null) {
+            item.put("updatedAt", AttributeValue.builder().s(template.getUpdatedAt()).build());
+        }
+        item.put("schemaVersion", AttributeValue.builder().n(Integer.toString(ITEM_SCHEMA_VERSION)).build());
+
+        return item;
     }
 
     /**
-     * Finds a template by ID
+     * Finds a template by ID with a point read on its deterministic key
      * 
      * @param templateId The template ID
      * @return The found template or null if not found
      */
     public MessageTemplate findTemplateById(String templateId) {
+        return findTemplateById(templateId, new String[0]);
+    }
+
+    /**
+     * Finds a template by ID, reading only the given attributes.
+     * The template ID is always included; other fields are null when not requested.
+     * 
+     * @param templateId The template ID
+     * @param attributes Item attributes to read, e.g. "subject", "body", "parameters"; all when empty
+     * @return The found template or null if not found
+     */
+    public MessageTemplate findTemplateById(String templateId, String... attributes) {
         try {
-            QueryRequest queryRequest = QueryRequest.builder()
+            GetItemRequest.Builder request = GetItemRequest.builder()
                     .tableName(TABLE_NAME)
-                    .keyConditionExpression("PK = :pk")
-                    .expressionAttributeValues(Map.of(
-                            ":pk", AttributeValue.builder().s(PK_PREFIX + templateId).build()))
-                    .build();
-
-            QueryResponse response = dynamoDbClient.query(queryRequest);
+                    .key(templateKey(templateId));
+            Projection projection = Projection.of(attributes);
+            if (projection != null) {
+                request.projectionExpression(projection.expression())
+                        .expressionAttributeNames(projection.names());
+            }
 
-            return response.items().stream()
-                    .findFirst()
-                    .map(this::mapToTemplate)
-                    .orElse(null);
+            GetItemResponse response = dynamoDbClient.getItem(request.build());
+            if (response.hasItem() && !response.item().isEmpty()) {
+                return mapToTemplate(response.item());
+            }
+            return null;
 
         } catch (Exception e) {
             log.error("Error finding template with ID: {}", templateId, e);
@@ -126,40 +618,216 @@ public class DynamoDBService {
     }
 
     /**
-     * Finds all templates by traffic type
+     * Finds many templates by ID with BatchGetItem, 100 keys per request.
+     * Unprocessed keys are retried with exponential backoff.
      * 
-     * @param trafficType The traffic type key
-     * @return List of templates for the given traffic type
+     * @param templateIds The template IDs
+     * @param attributes Item attributes to read; all when empty
+     * @return Found templates by ID; IDs without a template are absent
      */
-    public List<MessageTemplate> findTemplatesByTrafficType(String trafficType) {
+    public Map<String, MessageTemplate> findTemplatesByIds(Collection<String> templateIds, String... attributes) {
+        Map<String, MessageTemplate> found = new LinkedHashMap<>();
+        List<String> ids = templateIds.stream().distinct().toList();
+        Projection projection = Projection.of(attributes);
+
         try {
-            QueryRequest queryRequest = QueryRequest.builder()
-                    .tableName(TABLE_NAME)
-                    .indexName("GSI_TrafficType")
-                    .keyConditionExpression("GSI_PK = :pk")
-                    .expressionAttributeValues(Map.of(
-                            ":pk", AttributeValue.builder().s(GSI_PK_PREFIX + trafficType).build()))
-                    .build();
+            for (int from = 0; from < ids.size(); from += MAX_BATCH_GET_KEYS) {
+                List<Map<String, AttributeValue>> keys = ids.subList(from, Math.min(from + MAX_BATCH_GET_KEYS, ids.size()))
+                        .stream()
+                        .map(this::templateKey)
+                        .toList();
+                batchGet(keys, projection).forEach(item -> {
+                    MessageTemplate template = mapToTemplate(item);
+                    found.put(template.getId(), template);
+                });
+            }
+            return found;
+
+        } catch (TemplatePersistenceException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TemplatePersistenceException("Interrupted while reading templates from DynamoDB", e);
+        } catch (Exception e) {
+            log.error("Error finding {} templates by ID", ids.size(), e);
+            throw new TemplatePersistenceException("Failed to query templates from DynamoDB", e);
+        }
+    }
+
+    private List<Map<String, AttributeValue>> batchGet(List<Map<String, AttributeValue>> keys, Projection projection)
+            throws InterruptedException {
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        KeysAndAttributes.Builder request = KeysAndAttributes.builder().keys(keys);
+        if (projection != null) {
+            request.projectionExpression(projection.expression())
+                    .expressionAttributeNames(projection.names());
+        }
+        Map<String, KeysAndAttributes> pending = Map.of(TABLE_NAME, request.build());
+
+        for (int attempt = 1; ; attempt++) {
+            BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(pending)
+                    .build());
+            items.addAll(response.responses().getOrDefault(TABLE_NAME, List.of()));
+
+            if (!response.hasUnprocessedKeys() || response.unprocessedKeys().isEmpty()) {
+                return items;
+            }
+            if (attempt >= BATCH_GET_MAX_ATTEMPTS) {
+                throw new TemplatePersistenceException("Template keys were not processed by DynamoDB after "
+                        + attempt + " attempts");
+            }
+            pending = response.unprocessedKeys();
+            metrics.recordRetry("BatchGetItem");
+            log.warn("Retrying {} unprocessed template keys, attempt {}",
+                    pending.get(TABLE_NAME).keys().size(), attempt + 1);
+            Thread.sleep(BATCH_GET_BACKOFF.toMillis() << (attempt - 1));
+        }
+    }
+
+    /**
+     * Moves every item still stored under the old {@code METADATA#{trafficType}} sort key to the
+     * {@code METADATA} item of its template and deletes it. Until then the old item stays in the
+     * GSI partition of its traffic type, so a template whose traffic type changed since would keep
+     * showing up there. The new item is only written when the template has none yet; otherwise the
+     * legacy item is just deleted. Safe to run again; each run scans the whole table.
+     *
+     * @return Counts of moved and deleted legacy items
+     */
+    public LegacyMigrationResult migrateLegacySortKeys() {
+        int moved = 0;
+        int deleted = 0;
+        Map<String, AttributeValue> startKey = null;
+        try {
+            do {
+                ScanResponse page = dynamoDbClient.scan(ScanRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .filterExpression("begins_with(SK, :legacy)")
+                        .expressionAttributeValues(Map.of(":legacy", AttributeValue.builder().s(SK_PREFIX).build()))
+                        .exclusiveStartKey(startKey)
+                        .build());
+                for (Map<String, AttributeValue> legacy : page.items()) {
+                    if (moveLegacyItem(legacy)) {
+                        moved++;
+                    } else {
+                        deleted++;
+                    }
+                }
+                startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty()
+                        ? page.lastEvaluatedKey() : null;
+            } while (startKey != null);
+        } catch (Exception e) {
+            log.error("Legacy sort key migration stopped after moving {} and deleting {} items", moved, deleted, e);
+            throw new TemplatePersistenceException("Failed to migrate legacy template items", e);
+        }
+        log.info("Legacy sort key migration finished moved={} deleted={}", moved, deleted);
+        return new LegacyMigrationResult(moved, deleted);
+    }
 
-            QueryResponse response = dynamoDbClient.query(queryRequest);
+    /**
+     * Writes the METADATA item and deletes the legacy item in one transaction
+     *
+     * @return true if the item was moved, false if the template already had a METADATA item
+     */
+    private boolean moveLegacyItem(Map<String, AttributeValue> legacy) {
+        Map<String, AttributeValue> legacyKey = Map.of("PK", legacy.get("PK"), "SK", legacy.get("SK"));
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(
+                            TransactWriteItem.builder().put(Put.builder()
+                                    .tableName(TABLE_NAME)
+                                    .item(buildItem(mapToTemplate(legacy)))
+                                    .conditionExpression("attribute_not_exists(PK)")
+                                    .build()).build(),
+                            TransactWriteItem.builder().delete(Delete.builder()
+                                    .tableName(TABLE_NAME)
+                                    .key(legacyKey)
+                                    .build()).build())
+                    .build());
+            return true;
+        } catch (TransactionCanceledException e) {
+            boolean currentItemExists = e.hasCancellationReasons() && !e.cancellationReasons().isEmpty()
+                    && "ConditionalCheckFailed".equals(e.cancellationReasons().get(0).code());
+            if (!currentItemExists) {
+                throw e;
+            }
+            // Written again since the switch; the METADATA item is newer
+            dynamoDbClient.deleteItem(DeleteItemRequest.builder().tableName(TABLE_NAME).key(legacyKey).build());
+            return false;
+        }
+    }
 
-            return response.items().stream()
-                    .map(this::mapToTemplate)
-                    .collect(Collectors.toList());
+    public record LegacyMigrationResult(int moved, int deleted) {
+    }
 
+    private Map<String, AttributeValue> templateKey(String templateId) {
+        return Map.of(
+                "PK", AttributeValue.builder().s(PK_PREFIX + templateId).build(),
+                "SK", AttributeValue.builder().s(SK_VALUE).build());
+    }
+
+    /**
+     * Finds all templates by traffic type, reading every page of the query
+     * 
+     * @param trafficType The traffic type key
+     * @return List of templates for the given traffic type
+     */
+    public List<MessageTemplate> findTemplatesByTrafficType(String trafficType) {
+        try (Stream<MessageTemplate> templates = streamTemplatesByTrafficType(trafficType, queryPageSize, true)) {
+            return templates.collect(Collectors.toList());
         } catch (Exception e) {
             log.error("Error finding templates for traffic type: {}", trafficType, e);
-            throw new TemplatePersistenceException("Failed to query templates from DynamoDB", e);
+            throw e instanceof TemplatePersistenceException persistenceException ? persistenceException
+                    : new TemplatePersistenceException("Failed to query templates from DynamoDB", e);
+        }
+    }
+
+    /**
+     * Streams the templates of a traffic type, requesting pages of the GSI query
+     * only as the stream is consumed. Close the stream when not reading it to the end.
+     * 
+     * @param trafficType The traffic type key
+     * @param pageSize Maximum items per query page
+     * @param readAhead Request the next page while the current one is consumed
+     * @param attributes Item attributes to read; all when empty
+     * @return Lazy stream of templates; query failures surface as TemplatePersistenceException
+     */
+    public Stream<MessageTemplate> streamTemplatesByTrafficType(String trafficType, int pageSize, boolean readAhead,
+                                                                String... attributes) {
+        QueryRequest.Builder queryRequest = QueryRequest.builder()
+                .tableName(TABLE_NAME)
+                .indexName("GSI_TrafficType")
+                .keyConditionExpression("GSI_PK = :pk")
+                .expressionAttributeValues(Map.of(
+                        ":pk", AttributeValue.builder().s(GSI_PK_PREFIX + trafficType).build()))
+                .limit(pageSize);
+        Projection projection = Projection.of(attributes);
+        if (projection != null) {
+            queryRequest.projectionExpression(projection.expression())
+                    .expressionAttributeNames(projection.names());
         }
+
+        QueryPageIterator pages = new QueryPageIterator(dynamoDbClient, dynamoDbAsyncClient,
+                queryRequest.build(), readAhead);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                        new LatestItemPerTemplate(pages), Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .map(this::mapToTemplate)
+                .onClose(pages::close);
     }
 
-    private MessageTemplate mapToTemplate(Map<String, AttributeValue> item) {
+    /**
+     * Maps a DynamoDB item back to a template
+     * 
+     * @param item Attribute map as returned by GetItem, BatchGetItem or Query
+     * @return The mapped template
+     */
+    MessageTemplate mapToTemplate(Map<String, AttributeValue> item) {
         var templateBuilder = MessageTemplate.builder()
-                .id(item.get("id").s())
-                .key(item.get("key").s())
-                .name(item.get("name").s())
-                .subject(item.get("subject").s())
-                .body(item.get("body").s());
+                .id(stringAttribute(item, "id"))
+                .key(stringAttribute(item, "key"))
+                .name(stringAttribute(item, "name"))
+                .subject(stringAttribute(item, "subject"))
+                .body(stringAttribute(item, "body"));
 
         // Add traffic type if it exists
         if (item.containsKey("trafficTypeKey") && item.containsKey("trafficTypeName")) {
@@ -175,6 +843,97 @@ public class DynamoDBService {
             templateBuilder.parameters(item.get("parameters").ss());
         }
 
+        // Add versioning attributes if they exist
+        if (item.containsKey("revision")) {
+            templateBuilder.revision(Integer.valueOf(item.get("revision").n()));
+        }
+        if (item.containsKey("updatedAt")) {
+            templateBuilder.updatedAt(item.get("updatedAt").s());
+        }
+        if (item.containsKey("contentHash")) {
+            templateBuilder.contentHash(item.get("contentHash").s());
+        }
+
+        // Compiled forms are not stored; compiling on read is cheap and the template cache keeps the result.
+        // Projections of subject or body always include parameters, so the slots are found
+        List<String> parameters = item.containsKey("parameters") ? item.get("parameters").ss() : List.of();
+        if (item.containsKey("subject")) {
+            templateBuilder.compiledSubject(CompiledTemplate.parse(item.get("subject").s(), parameters));
+        }
+        if (item.containsKey("body")) {
+            templateBuilder.compiledBody(CompiledTemplate.parse(item.get("body").s(), parameters));
+        }
+
         return templateBuilder.build();
     }
-}
\ No newline at end of file
+
+    private static String stringAttribute(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value != null ? value.s() : null;
+    }
+
+    /**
+     * ProjectionExpression with every attribute behind a name placeholder,
+     * since several attribute names (key, name) are DynamoDB reserved words.
+     * Subject and body bring parameters along, which they are compiled against.
+     */
+    private record Projection(String expression, Map<String, String> names) {
+        static Projection of(String... attributes) {
+            if (attributes == null || attributes.length == 0) {
+                return null;
+            }
+            Map<String, String> names = new LinkedHashMap<>();
+            names.put("#PK", "PK");
+            names.put("#SK", "SK");
+            names.put("#id", "id");
+            for (String attribute : attributes) {
+                names.put("#" + attribute, attribute);
+            }
+            if (names.containsKey("#subject") || names.containsKey("#body")) {
+                names.putIfAbsent("#parameters", "parameters");
+            }
+            return new Projection(String.join(", ", names.keySet()), names);
+        }
+    }
+
+    /**
+     * Drops legacy METADATA#{trafficType} items of templates that also have a METADATA item, until
+     * {@link #migrateLegacySortKeys()} has run. The GSI sorts by TEMPLATE#{id}, so both items of a
+     * template arrive next to each other.
+     */
+    private static final class LatestItemPerTemplate implements Iterator<Map<String, AttributeValue>> {
+        private final Iterator<Map<String, AttributeValue>> items;
+        private Map<String, AttributeValue> pending;
+
+        private LatestItemPerTemplate(Iterator<Map<String, AttributeValue>> items) {
+            this.items = items;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pending != null || items.hasNext();
+        }
+
+        @Override
+        public Map<String, AttributeValue> next() {
+            Map<String, AttributeValue> current = pending != null ? pending : items.next();
+            pending = null;
+            while (items.hasNext()) {
+                Map<String, AttributeValue> candidate = items.next();
+                if (!samePartition(current, candidate)) {
+                    pending = candidate;
+                    break;
+                }
+                if (SK_VALUE.equals(stringAttribute(candidate, "SK"))) {
+                    current = candidate;
+                }
+            }
+            return current;
+        }
+
+        private static boolean samePartition(Map<String, AttributeValue> first, Map<String, AttributeValue> second) {
+            String pk = stringAttribute(first, "PK");
+            return pk != null && pk.equals(stringAttribute(second, "PK"));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.template.service;
+
+import com.template.cache.CacheStats;
+import com.template.cache.BoundedTtlCache;
+import com.template.model.aws.S3ObjectVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers which S3 object versions have already been processed so that
+ * redelivered SQS messages and re-sent notifications can be skipped.
+ * Backed by a bounded in-memory cache and, optionally, marker items in DynamoDB
+ * that are shared between nodes.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    private static final String TABLE_NAME = "dynamodb-table";
+    private static final String PK_PREFIX = "PROCESSED#";
+    private static final String SK_PREFIX = "VERSION#";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final BoundedTtlCache<String, Boolean> processed;
+    private final boolean dynamoDbMarkerEnabled;
+    private final Duration markerTtl;
+
+    public IdempotencyService(DynamoDbClient dynamoDbClient,
+                              DynamoDbAsyncClient dynamoDbAsyncClient,
+                              @Value("${aws.idempotency.cache.max-entries:10000}") int maxEntries,
+                              @Value("${aws.idempotency.cache.ttl:1h}") Duration ttl,
+                              @Value("${aws.idempotency.dynamodb-marker.enabled:false}") boolean dynamoDbMarkerEnabled) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.processed = new BoundedTtlCache<>(maxEntries, ttl.toMillis(), TimeUnit.MILLISECONDS);
+        this.dynamoDbMarkerEnabled = dynamoDbMarkerEnabled;
+        this.markerTtl = ttl;
+    }
+
+    /**
+     * Checks whether this exact object version was already processed
+     * 
+     * @param version The S3 object version from the event record
+     * @return true if the version was processed before and can be skipped
+     */
+    public boolean isDuplicate(S3ObjectVersion version) {
+        if (!version.isDeduplicable()) {
+            return false;
+        }
+        if (processed.get(version.dedupKey()) != null) {
+            return true;
+        }
+        if (!dynamoDbMarkerEnabled) {
+            return false;
+        }
+        try {
+            boolean found = dynamoDbClient.getItem(markerLookup(version)).hasItem();
+            if (found) {
+                processed.put(version.dedupKey(), Boolean.TRUE);
+            }
+            return found;
+        } catch (Exception e) {
+            log.warn("Failed to read idempotency marker for {}, processing anyway", version.dedupKey(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #isDuplicate(S3ObjectVersion)}
+     * 
+     * @param version The S3 object version from the event record
+     * @return Future of true if the version was processed before and can be skipped
+     */
+    public CompletableFuture<Boolean> isDuplicateAsync(S3ObjectVersion version) {
+        if (!version.isDeduplicable()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (processed.get(version.dedupKey()) != null) {
+            return CompletableFuture.completedFuture(true);
+        }
+        if (!dynamoDbMarkerEnabled) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return dynamoDbAsyncClient.getItem(markerLookup(version))
+                .thenApply(GetItemResponse::hasItem)
+                .thenApply(found -> {
+                    if (found) {
+                        processed.put(version.dedupKey(), Boolean.TRUE);
+                    }
+                    return found;
+                })
+                .exceptionally(e -> {
+                    log.warn("Failed to read idempotency marker for {}, processing anyway", version.dedupKey(), e);
+                    return false;
+                });
+    }
+
+    /**
+     * Records that an object version has been fully processed
+     * 
+     * @param version The S3 object version that was processed
+     */
+    public void markProcessed(S3ObjectVersion version) {
+        if (!version.isDeduplicable()) {
+            return;
+        }
+        processed.put(version.dedupKey(), Boolean.TRUE);
+        if (!dynamoDbMarkerEnabled) {
+            return;
+        }
+        try {
+            dynamoDbClient.putItem(markerPut(version));
+        } catch (Exception e) {
+            // The template itself is saved, a missing marker only costs a reprocess on another node
+            log.warn("Failed to write idempotency marker for {}", version.dedupKey(), e);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #markProcessed(S3ObjectVersion)}
+     * 
+     * @param version The S3 object version that was processed
+     * @return Future completing once the marker is recorded
+     */
+    public CompletableFuture<Void> markProcessedAsync(S3ObjectVersion version) {
+        if (!version.isDeduplicable()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        processed.put(version.dedupKey(), Boolean.TRUE);
+        if (!dynamoDbMarkerEnabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return dynamoDbAsyncClient.putItem(markerPut(version))
+                .<Void>thenApply(response -> null)
+                .exceptionally(e -> {
+                    log.warn("Failed to write idempotency marker for {}", version.dedupKey(), e);
+                    return null;
+                });
+    }
+
+    public CacheStats cacheStats() {
+        return processed.stats();
+    }
+
+    private GetItemRequest markerLookup(S3ObjectVersion version) {
+        return GetItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(markerKey(version))
+                .projectionExpression("PK")
+                .build();
+    }
+
+    private PutItemRequest markerPut(S3ObjectVersion version) {
+        Map<String, AttributeValue> item = new HashMap<>(markerKey(version));
+        item.put("expiresAt", AttributeValue.builder()
+                .n(Long.toString(Instant.now().plus(markerTtl).getEpochSecond()))
+                .build());
+        return PutItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .item(item)
+                .build();
+    }
+
+    private Map<String, AttributeValue> markerKey(S3ObjectVersion version) {
+        return Map.of(
+                "PK", AttributeValue.builder().s(PK_PREFIX + version.getBucket() + "/" + version.getKey()).build(),
+                "SK", AttributeValue.builder().s(SK_PREFIX + version.versionToken()).build());
+    }
+}
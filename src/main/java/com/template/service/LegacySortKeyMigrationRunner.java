@@ -0,0 +1,32 @@
+package com.template.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves items stored under the old METADATA#{trafficType} sort key at startup when
+ * aws.dynamodb.legacy-sort-key-migration.enabled is set, e.g.
+ * {@code java -jar app.jar --aws.dynamodb.legacy-sort-key-migration.enabled=true --aws.sqs.listener.mode=none}.
+ * A failed migration fails the startup; it can simply be run again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "aws.dynamodb.legacy-sort-key-migration.enabled", havingValue = "true")
+public class LegacySortKeyMigrationRunner implements ApplicationRunner {
+    private final DynamoDBService dynamoDBService;
+    private final TemplateCache templateCache;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Migrating template items stored under legacy sort keys");
+        DynamoDBService.LegacyMigrationResult result = dynamoDBService.migrateLegacySortKeys();
+        if (result.moved() + result.deleted() > 0) {
+            templateCache.invalidateAll();
+        }
+    }
+}
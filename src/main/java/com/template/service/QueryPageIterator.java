@@ -0,0 +1,107 @@
+package com.template.service;
+
+import com.template.exception.TemplatePersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Iterates over the items of a DynamoDB query, requesting pages only when the
+ * previous one has been consumed. With read-ahead the next page is requested on
+ * the async client as soon as a page arrives, so it loads while the caller is
+ * still working through the current one.
+ */
+@Slf4j
+class QueryPageIterator implements Iterator<Map<String, AttributeValue>>, AutoCloseable {
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final QueryRequest request;
+    private final boolean readAhead;
+
+    private Iterator<Map<String, AttributeValue>> page = Collections.emptyIterator();
+    private Map<String, AttributeValue> nextPageKey;
+    private CompletableFuture<QueryResponse> prefetched;
+    private boolean started;
+    private int pages;
+
+    QueryPageIterator(DynamoDbClient dynamoDbClient, DynamoDbAsyncClient dynamoDbAsyncClient,
+                      QueryRequest request, boolean readAhead) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.request = request;
+        this.readAhead = readAhead;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext()) {
+            if (started && nextPageKey == null) {
+                return false;
+            }
+            fetchPage();
+        }
+        return true;
+    }
+
+    @Override
+    public Map<String, AttributeValue> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    private void fetchPage() {
+        QueryResponse response;
+        try {
+            response = prefetched != null ? prefetched.join() : dynamoDbClient.query(pageRequest(nextPageKey));
+        } catch (CompletionException e) {
+            throw new TemplatePersistenceException("Failed to query templates from DynamoDB", e.getCause());
+        } catch (Exception e) {
+            throw new TemplatePersistenceException("Failed to query templates from DynamoDB", e);
+        }
+
+        started = true;
+        prefetched = null;
+        pages++;
+        nextPageKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                ? response.lastEvaluatedKey() : null;
+        if (readAhead && nextPageKey != null) {
+            prefetched = dynamoDbAsyncClient.query(pageRequest(nextPageKey));
+        }
+        page = response.items().iterator();
+        log.debug("Fetched query page {} with {} items", pages, response.count());
+    }
+
+    private QueryRequest pageRequest(Map<String, AttributeValue> exclusiveStartKey) {
+        return exclusiveStartKey == null ? request : request.toBuilder().exclusiveStartKey(exclusiveStartKey).build();
+    }
+
+    int getPageCount() {
+        return pages;
+    }
+
+    /**
+     * Cancels a page that was requested ahead but not consumed
+     */
+    @Override
+    public void close() {
+        if (prefetched != null) {
+            prefetched.cancel(true);
+            prefetched = null;
+        }
+        nextPageKey = null;
+        started = true;
+        page = Collections.emptyIterator();
+    }
+}
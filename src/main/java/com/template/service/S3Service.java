@@ -2,26 +2,43 @@ package com.template.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.template.exception.TemplateDownloadException;
+import com.template.metrics.PipelineMetrics;
 import com.template.model.cms.Template;
 import com.template.model.cms.CmsResponse;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class S3Service {
     private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
     private final ObjectMapper objectMapper;
+    private final PipelineMetrics metrics;
 
     /**
-     * Downloads and deserializes a template from S3
+     * Downloads and deserializes a template from S3.
+     * The object is bound straight from the response stream, so it is never held in memory twice.
+     * The recorded download time ends once the response headers arrive; reading the body is part
+     * of the parse time.
      * 
      * @param bucket S3 bucket name
      * @param key    Object key in S3
@@ -37,12 +54,116 @@ public class S3Service {
                     .key(key)
                     .build();
 
-            ResponseInputStream<GetObjectResponse> response = s3Client.getObject(getObjectRequest);
-            return objectMapper.readValue(response, CmsResponse.class);
+            Timer.Sample download = metrics.start();
+            try (ResponseInputStream<GetObjectResponse> response = s3Client.getObject(getObjectRequest)) {
+                Long contentLength = response.response().contentLength();
+                metrics.recordS3Download(download, contentLength != null ? contentLength : -1);
+
+                Timer.Sample parse = metrics.start();
+                CmsResponse cmsResponse = objectMapper.readValue(response, CmsResponse.class);
+                metrics.recordJsonParse(parse);
+                return cmsResponse;
+            }
+
+        } catch (Exception e) {
+            log.error("Failed to download template from S3 - bucket: {}, key: {}", bucket, key, e);
+            throw new TemplateDownloadException("Failed to download template from S3", e);
+        }
+    }
+
+    /**
+     * Downloads a template from S3 and hands the response stream to a reader,
+     * so the object can be parsed without being bound to CmsResponse first.
+     * The recorded download time includes the reader, which consumes the stream.
+     * 
+     * @param bucket S3 bucket name
+     * @param key    Object key in S3
+     * @param reader Reads the result from the object stream
+     * @return Result of the reader
+     * @throws TemplateDownloadException if download or reading fails
+     */
+    public <T> T downloadTemplate(String bucket, String key, TemplateStreamReader<T> reader) {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build();
 
+        log.debug("Streaming template from S3 - bucket: {}, key: {}", bucket, key);
+        Timer.Sample download = metrics.start();
+        try (ResponseInputStream<GetObjectResponse> response = s3Client.getObject(getObjectRequest)) {
+            T result = reader.read(response);
+            Long contentLength = response.response().contentLength();
+            metrics.recordS3Download(download, contentLength != null ? contentLength : -1);
+            return result;
         } catch (Exception e) {
             log.error("Failed to download template from S3 - bucket: {}, key: {}", bucket, key, e);
             throw new TemplateDownloadException("Failed to download template from S3", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Downloads and deserializes a template from S3 without blocking the calling thread
+     * 
+     * @param bucket S3 bucket name
+     * @param key    Object key in S3
+     * @return Future of the deserialized template, completed exceptionally with
+     *         TemplateDownloadException if download or deserialization fails
+     */
+    public CompletableFuture<CmsResponse> downloadTemplateAsync(String bucket, String key) {
+        log.debug("Downloading template from S3 asynchronously - bucket: {}, key: {}", bucket, key);
+
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build();
+
+        Timer.Sample download = metrics.start();
+        return s3AsyncClient.getObject(getObjectRequest, AsyncResponseTransformer.toBytes())
+                .thenApply(bytes -> {
+                    metrics.recordS3Download(download, bytes.asByteArrayUnsafe().length);
+                    try {
+                        Timer.Sample parse = metrics.start();
+                        CmsResponse cmsResponse = objectMapper.readValue(bytes.asByteArrayUnsafe(), CmsResponse.class);
+                        metrics.recordJsonParse(parse);
+                        return cmsResponse;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .handle((cmsResponse, e) -> {
+                    if (e != null) {
+                        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                        log.error("Failed to download template from S3 - bucket: {}, key: {}", bucket, key, cause);
+                        throw new TemplateDownloadException("Failed to download template from S3", cause);
+                    }
+                    return cmsResponse;
+                });
+    }
+
+    /**
+     * Lists the objects under a prefix in key order. Pages are fetched with ListObjectsV2
+     * while the result is iterated, so arbitrarily large prefixes can be walked.
+     * 
+     * @param bucket     S3 bucket name
+     * @param prefix     Key prefix, empty for the whole bucket
+     * @param startAfter Key to resume after, or null to start at the beginning of the prefix
+     * @return Lazily paginated objects
+     */
+    public Iterable<S3Object> listTemplates(String bucket, String prefix, String startAfter) {
+        log.debug("Listing templates in S3 - bucket: {}, prefix: {}, startAfter: {}", bucket, prefix, startAfter);
+        return s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                        .bucket(bucket)
+                        .prefix(prefix)
+                        .startAfter(startAfter)
+                        .build())
+                .contents();
+    }
+
+    /**
+     * Reads a value from a downloaded S3 object stream
+     */
+    @FunctionalInterface
+    public interface TemplateStreamReader<T> {
+        T read(InputStream input) throws IOException;
+    }
+}
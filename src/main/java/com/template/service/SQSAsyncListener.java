@@ -0,0 +1,80 @@
+package com.template.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.Timer;
+import com.template.exception.TemplateProcessingException;
+import io.awspring.cloud.sqs.annotation.SqsListener;
+import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "aws.sqs.listener.mode", havingValue = "async")
+public class SQSAsyncListener extends AbstractS3EventListener {
+    private final Executor messageProcessingExecutor;
+    private final boolean asyncIoEnabled;
+
+    public SQSAsyncListener(S3Service s3Service,
+                            TemplateTransformer templateTransformer,
+                            DynamoDBService dynamoDBService,
+                            ObjectMapper objectMapper,
+                            IdempotencyService idempotencyService,
+                            TemplateCache templateCache,
+                            PipelineMetrics metrics,
+                            @Qualifier("recordProcessingExecutor") Executor recordProcessingExecutor,
+                            @Qualifier("messageProcessingExecutor") Executor messageProcessingExecutor,
+                            @Value("${aws.sqs.listener.record-concurrency:4}") int recordConcurrency,
+                            @Value("${aws.pipeline.async-io.enabled:false}") boolean asyncIoEnabled) {
+        super(s3Service, templateTransformer, dynamoDBService, objectMapper, idempotencyService, templateCache,
+                metrics, recordProcessingExecutor, recordConcurrency);
+        this.messageProcessingExecutor = messageProcessingExecutor;
+        this.asyncIoEnabled = asyncIoEnabled;
+    }
+
+    /**
+     * Listens for S3 event notifications from SQS and processes them off the container thread.
+     * With aws.pipeline.async-io.enabled the pipeline uses the async AWS clients end to end,
+     * otherwise the blocking pipeline runs on the message executor.
+     * The container only counts the message as finished when the returned future completes,
+     * so aws.sqs.listener.max-concurrent-messages bounds the number of messages in flight.
+     * 
+     * @param message The SQS message containing S3 event notification
+     * @param acknowledgement Acknowledgement handle, used once processing succeeded
+     * @return Future completing after the message has been processed and acknowledged
+     */
+    @SqsListener(value = "${aws.sqs.queue-name}", factory = "defaultSqsListenerContainerFactory")
+    public CompletableFuture<Void> handleS3Event(String message, Acknowledgement acknowledgement) {
+        log.debug("Received SQS message");
+        logPayload(message);
+        Timer.Sample sample = metrics.start();
+
+        CompletableFuture<Void> processing = asyncIoEnabled
+                ? processMessageAsync(message)
+                : CompletableFuture.runAsync(() -> {
+                    try {
+                        processMessage(message);
+                    } catch (Exception e) {
+                        throw new TemplateProcessingException("Failed to process SQS message", e);
+                    }
+                }, messageProcessingExecutor);
+
+        return processing
+                .thenCompose(ignored -> acknowledgement.acknowledgeAsync())
+                .whenComplete((ignored, e) -> {
+                    metrics.recordMessage(sample, e == null);
+                    if (e != null) {
+                        log.error("Error processing SQS message", e);
+                    } else {
+                        log.debug("Message successfully processed and acknowledged");
+                    }
+                });
+    }
+}
@@ -0,0 +1,99 @@
+package com.template.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.awspring.cloud.sqs.MessageHeaderUtils;
+import io.awspring.cloud.sqs.annotation.SqsListener;
+import io.awspring.cloud.sqs.listener.acknowledgement.BatchAcknowledgement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "aws.sqs.listener.mode", havingValue = "batch")
+public class SQSBatchListener extends AbstractS3EventListener {
+
+    public SQSBatchListener(S3Service s3Service,
+                            TemplateTransformer templateTransformer,
+                            DynamoDBService dynamoDBService,
+                            ObjectMapper objectMapper,
+                            IdempotencyService idempotencyService,
+                            TemplateCache templateCache,
+                            PipelineMetrics metrics,
+                            @Qualifier("recordProcessingExecutor") Executor recordProcessingExecutor,
+                            @Value("${aws.sqs.listener.record-concurrency:4}") int recordConcurrency) {
+        super(s3Service, templateTransformer, dynamoDBService, objectMapper, idempotencyService, templateCache,
+                metrics, recordProcessingExecutor, recordConcurrency);
+    }
+
+    /**
+     * Listens for batches of S3 event notifications from SQS
+     * Only successfully processed messages are acknowledged, failed ones become
+     * visible again after the visibility timeout and end up in the DLQ
+     * 
+     * @param messages The SQS messages received in a single poll
+     * @param acknowledgement Batch acknowledgement handle for the received messages
+     */
+    @SqsListener(value = "${aws.sqs.queue-name}", factory = "defaultSqsListenerContainerFactory")
+    public void handleS3EventBatch(List<Message<String>> messages, BatchAcknowledgement<String> acknowledgement) {
+        log.debug("Received batch of {} SQS messages", messages.size());
+        Timer.Sample sample = metrics.start();
+
+        List<Message<String>> processed = new ArrayList<>(messages.size());
+        if (isCoalescing()) {
+            processCoalesced(messages, processed);
+        } else {
+            for (Message<String> message : messages) {
+                try {
+                    logPayload(message.getPayload());
+                    processMessage(message.getPayload());
+                    processed.add(message);
+                } catch (Exception e) {
+                    log.error("Error processing SQS message {} in batch", MessageHeaderUtils.getId(message), e);
+                }
+            }
+        }
+
+        if (!processed.isEmpty()) {
+            acknowledgement.acknowledge(processed);
+        }
+        // Duplicates and coalesced updates complete normally, so only failed messages are left out
+        int failed = messages.size() - processed.size();
+        // Every message of the batch was received and acknowledged at the same time
+        metrics.recordBatch(sample, processed.size(), failed);
+        log.info("Batch processed - acknowledged: {}, failed: {}", processed.size(), failed);
+    }
+
+    /**
+     * Hands every message of the batch to the coalescer before waiting for any of them, so the
+     * batch takes one coalescing window rather than one per message and updates of the same key
+     * within the batch are processed once
+     */
+    private void processCoalesced(List<Message<String>> messages, List<Message<String>> processed) {
+        List<CompletableFuture<Void>> results = new ArrayList<>(messages.size());
+        for (Message<String> message : messages) {
+            logPayload(message.getPayload());
+            results.add(processMessageCoalesced(message.getPayload()));
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                results.get(i).join();
+                processed.add(messages.get(i));
+            } catch (CompletionException e) {
+                log.error("Error processing SQS message {} in batch", MessageHeaderUtils.getId(messages.get(i)),
+                        e.getCause() != null ? e.getCause() : e);
+            }
+        }
+    }
+}
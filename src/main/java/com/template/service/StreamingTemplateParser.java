@@ -0,0 +1,369 @@
+package com.template.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.template.model.cms.NodeType;
+import com.template.model.domain.CompiledTemplate;
+import com.template.model.domain.ContentHash;
+import com.template.model.domain.MessageTemplate;
+import com.template.model.domain.TrafficType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass transformer from a CMS response stream to a MessageTemplate.
+ * Only the fields the template needs are kept while reading; rich-text
+ * parameters are recorded by include ID and resolved once the whole document
+ * has been read, so includes may appear before or after items.
+ * Produces the same result as {@link TemplateTransformer#transform(com.template.model.cms.CmsResponse)},
+ * except that the traffic type is also resolved when it is given in CMS link form.
+ */
+@Slf4j
+class StreamingTemplateParser {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+
+    /**
+     * Reads a CMS response and transforms its first item
+     *
+     * @param input Stream positioned at the start of the CMS response
+     * @return Transformed MessageTemplate, or null if the response has no items
+     * @throws IOException if the stream cannot be read or is not a CMS response
+     */
+    MessageTemplate parse(InputStream input) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected CMS response object");
+            }
+
+            ParsedEntry template = null;
+            Map<String, ParsedEntry> includes = new HashMap<>();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "items" -> template = readFirstItem(parser);
+                    case "includes" -> readIncludes(parser, includes);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (template == null) {
+                log.warn("No items found in CMS response");
+                return null;
+            }
+            return resolve(template, includes);
+        }
+    }
+
+    private ParsedEntry readFirstItem(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+
+        ParsedEntry first = null;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (first == null && parser.currentToken() == JsonToken.START_OBJECT) {
+                first = readEntry(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return first;
+    }
+
+    private void readIncludes(JsonParser parser, Map<String, ParsedEntry> includes) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() != JsonToken.START_ARRAY || !"Entry".equals(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                ParsedEntry entry = readEntry(parser);
+                if (entry.id != null) {
+                    includes.put(entry.id, entry);
+                }
+            }
+        }
+    }
+
+    private ParsedEntry readEntry(JsonParser parser) throws IOException {
+        ParsedEntry entry = new ParsedEntry();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "sys" -> readSys(parser, entry);
+                case "fields" -> readFields(parser, entry);
+                default -> parser.skipChildren();
+            }
+        }
+        return entry;
+    }
+
+    private void readSys(JsonParser parser, ParsedEntry entry) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> entry.id = parser.getValueAsString();
+                case "revision" -> entry.revision = parser.currentToken() == JsonToken.VALUE_NUMBER_INT
+                        ? parser.getIntValue() : null;
+                case "updatedAt" -> entry.updatedAt = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private void readFields(JsonParser parser, ParsedEntry entry) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "key" -> entry.key = parser.getValueAsString();
+                case "name" -> entry.name = parser.getValueAsString();
+                case "trafficType" -> entry.trafficTypeId = readLinkId(parser);
+                case "subject" -> entry.subject = readDocument(parser);
+                case "body" -> entry.body = readDocument(parser);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Reads a rich-text document as paragraphs of inline nodes.
+     * Paragraphs without content are dropped, matching the tree-based transformer.
+     */
+    private List<List<InlineNode>> readDocument(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+
+        List<List<InlineNode>> paragraphs = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() != JsonToken.START_ARRAY || !"content".equals(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            paragraphs = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                List<InlineNode> paragraph = readParagraph(parser);
+                if (paragraph != null) {
+                    paragraphs.add(paragraph);
+                }
+            }
+        }
+        return paragraphs;
+    }
+
+    private List<InlineNode> readParagraph(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+
+        List<InlineNode> nodes = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() != JsonToken.START_ARRAY || !"content".equals(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            nodes = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() == JsonToken.START_OBJECT) {
+                    nodes.add(readInlineNode(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private InlineNode readInlineNode(JsonParser parser) throws IOException {
+        NodeType nodeType = null;
+        String value = null;
+        String targetId = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "nodeType" -> nodeType = NodeType.fromValue(parser.getValueAsString());
+                case "value" -> value = parser.getValueAsString();
+                case "data" -> targetId = readTargetId(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return new InlineNode(nodeType, value, targetId);
+    }
+
+    private String readTargetId(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+
+        String targetId = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("target".equals(field)) {
+                targetId = readLinkId(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return targetId;
+    }
+
+    /**
+     * Reads the ID of a link object, either in CMS link form {"sys": {"id": "..."}} or as {"id": "..."}
+     */
+    private String readLinkId(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+
+        String id = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("id".equals(field) && id == null) {
+                id = parser.getValueAsString();
+                continue;
+            }
+            if (token != JsonToken.START_OBJECT || !"sys".equals(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String sysField = parser.currentName();
+                parser.nextToken();
+                if ("id".equals(sysField)) {
+                    id = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return id;
+    }
+
+    private MessageTemplate resolve(ParsedEntry entry, Map<String, ParsedEntry> includes) {
+        List<String> parameters = new ArrayList<>();
+        CompiledTemplate compiledSubject = compile(entry.subject, includes, parameters);
+        CompiledTemplate compiledBody = compile(entry.body, includes, parameters);
+        String subject = compiledSubject.toSource();
+        String body = compiledBody.toSource();
+
+        return MessageTemplate.builder()
+            .id(entry.id)
+            .key(entry.key)
+            .name(entry.name)
+            .trafficType(resolveTrafficType(entry.trafficTypeId, includes))
+            .subject(subject)
+            .body(body)
+            .parameters(parameters)
+            .revision(entry.revision)
+            .updatedAt(entry.updatedAt)
+            .contentHash(ContentHash.of(subject, body, parameters))
+            .compiledSubject(compiledSubject)
+            .compiledBody(compiledBody)
+            .build();
+    }
+
+    private TrafficType resolveTrafficType(String trafficTypeId, Map<String, ParsedEntry> includes) {
+        if (trafficTypeId == null) {
+            return null;
+        }
+
+        ParsedEntry trafficType = includes.get(trafficTypeId);
+        if (trafficType == null) {
+            log.warn("Traffic type not found for ID: {}", trafficTypeId);
+            return null;
+        }
+
+        return TrafficType.builder()
+            .key(trafficType.key)
+            .name(trafficType.name)
+            .build();
+    }
+
+    private CompiledTemplate compile(List<List<InlineNode>> paragraphs, Map<String, ParsedEntry> includes,
+                                     List<String> parameters) {
+        if (paragraphs == null) {
+            return CompiledTemplate.empty();
+        }
+
+        CompiledTemplate.Builder result = CompiledTemplate.builder();
+        for (List<InlineNode> paragraph : paragraphs) {
+            for (InlineNode node : paragraph) {
+                if (node.nodeType() == NodeType.TEXT) {
+                    result.appendText(node.value());
+                } else if (node.nodeType() == NodeType.EMBEDDED_ENTRY_INLINE) {
+                    ParsedEntry param = node.targetId() == null ? null : includes.get(node.targetId());
+                    if (param != null) {
+                        result.appendParameter(param.key);
+                        if (!parameters.contains(param.key)) {
+                            parameters.add(param.key);
+                        }
+                    }
+                } else {
+                    log.debug("Ignoring node type: {}", node.nodeType());
+                }
+            }
+            result.appendText("\n");
+        }
+        return result.build();
+    }
+
+    /**
+     * The parts of a CMS entry the transformer uses; includes only fill id, key and name
+     */
+    private static final class ParsedEntry {
+        private String id;
+        private Integer revision;
+        private String updatedAt;
+        private String key;
+        private String name;
+        private String trafficTypeId;
+        private List<List<InlineNode>> subject;
+        private List<List<InlineNode>> body;
+    }
+
+    private record InlineNode(NodeType nodeType, String value, String targetId) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.template.service;
+
+import com.template.cache.CacheStats;
+import com.template.cache.BoundedTtlCache;
+import com.template.metrics.PipelineMetrics;
+import com.template.model.domain.MessageTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache in front of the DynamoDB template lookups.
+ * Templates are cached by ID (including "not found") and by traffic type,
+ * each bounded by size and TTL. Cached templates are shared between callers
+ * and must not be modified. A load that overlaps an invalidation is returned
+ * but not cached, so a save cannot be hidden by a read that started before it.
+ */
+@Slf4j
+@Service
+public class TemplateCache {
+    private final DynamoDBService dynamoDBService;
+    private final BoundedTtlCache<String, Optional<MessageTemplate>> byId;
+    private final BoundedTtlCache<String, List<MessageTemplate>> byTrafficType;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public TemplateCache(DynamoDBService dynamoDBService,
+                         PipelineMetrics metrics,
+                         @Value("${aws.template-cache.max-entries:1000}") int maxEntries,
+                         @Value("${aws.template-cache.ttl:5m}") Duration ttl) {
+        this.dynamoDBService = dynamoDBService;
+        this.byId = new BoundedTtlCache<>(maxEntries, ttl.toMillis(), TimeUnit.MILLISECONDS);
+        this.byTrafficType = new BoundedTtlCache<>(maxEntries, ttl.toMillis(), TimeUnit.MILLISECONDS);
+        metrics.registerCache("by-id", this, TemplateCache::byIdStats);
+        metrics.registerCache("by-traffic-type", this, TemplateCache::byTrafficTypeStats);
+    }
+
+    /**
+     * Finds a template by ID, loading it from DynamoDB on a cache miss
+     * 
+     * @param templateId The template ID
+     * @return The found template or null if not found
+     */
+    public MessageTemplate findTemplateById(String templateId) {
+        Optional<MessageTemplate> cached = byId.get(templateId);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+
+        long generation = invalidations.get();
+        MessageTemplate template = dynamoDBService.findTemplateById(templateId);
+        if (invalidations.get() == generation) {
+            byId.put(templateId, Optional.ofNullable(template));
+        }
+        return template;
+    }
+
+    /**
+     * Finds all templates of a traffic type, loading them from DynamoDB on a cache miss
+     * 
+     * @param trafficType The traffic type key
+     * @return Unmodifiable list of templates
+     */
+    public List<MessageTemplate> findTemplatesByTrafficType(String trafficType) {
+        List<MessageTemplate> cached = byTrafficType.get(trafficType);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = invalidations.get();
+        List<MessageTemplate> templates = List.copyOf(dynamoDBService.findTemplatesByTrafficType(trafficType));
+        if (invalidations.get() == generation) {
+            byTrafficType.put(trafficType, templates);
+        }
+        return templates;
+    }
+
+    /**
+     * Drops every cached entry a saved template can appear in: its ID, its
+     * traffic type, and the traffic type of the previously cached version
+     * 
+     * @param template The template that was written
+     */
+    public void invalidate(MessageTemplate template) {
+        invalidations.incrementAndGet();
+        Optional<MessageTemplate> previous = byId.peek(template.getId());
+        if (previous != null) {
+            previous.ifPresent(this::invalidateTrafficType);
+        }
+        byId.invalidate(template.getId());
+        invalidateTrafficType(template);
+        log.debug("Invalidated cached template with ID: {}", template.getId());
+    }
+
+    /**
+     * Caches a template written by any node, as read from the table's stream, after dropping the
+     * entries it invalidates. A cached copy with a higher revision is kept.
+     *
+     * @param template The template as stored
+     */
+    public void replace(MessageTemplate template) {
+        Optional<MessageTemplate> cached = byId.peek(template.getId());
+        if (cached != null && cached.isPresent() && isNewer(cached.get(), template)) {
+            log.debug("Kept newer cached template with ID: {}", template.getId());
+            return;
+        }
+        invalidate(template);
+        byId.put(template.getId(), Optional.of(template));
+    }
+
+    /**
+     * Drops the cached entry of a template ID without knowing its traffic type.
+     * Traffic type lists containing it expire with the TTL.
+     */
+    public void invalidateById(String templateId) {
+        invalidations.incrementAndGet();
+        byId.invalidate(templateId);
+    }
+
+    /**
+     * Drops the cached list of one traffic type
+     *
+     * @param trafficType The traffic type key
+     */
+    public void invalidateTrafficType(String trafficType) {
+        invalidations.incrementAndGet();
+        byTrafficType.invalidate(trafficType);
+    }
+
+    /**
+     * Drops every cached traffic type list, for changes whose previous traffic type is unknown
+     */
+    public void invalidateTrafficTypes() {
+        invalidations.incrementAndGet();
+        byTrafficType.invalidateAll();
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        byId.invalidateAll();
+        byTrafficType.invalidateAll();
+    }
+
+    public CacheStats byIdStats() {
+        return byId.stats();
+    }
+
+    public CacheStats byTrafficTypeStats() {
+        return byTrafficType.stats();
+    }
+
+    private static boolean isNewer(MessageTemplate cached, MessageTemplate template) {
+        return cached.getRevision() != null && template.getRevision() != null
+                && cached.getRevision() > template.getRevision();
+    }
+
+    private void invalidateTrafficType(MessageTemplate template) {
+        if (template.getTrafficType() != null) {
+            byTrafficType.invalidate(template.getTrafficType().getKey());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.template.service;
+
+import com.template.model.domain.CompiledTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+import java.util.Map;
+
+/**
+ * Renders compiled templates by copying literal segments and filling slots,
+ * without scanning or regex matching the template text. Slots without a value
+ * are rendered as their {NAME} token.
+ */
+@Component
+public class TemplateRenderer {
+    private static final int EXPECTED_VALUE_LENGTH = 16;
+
+    /**
+     * Renders a template with values looked up by parameter name
+     *
+     * @param template The compiled template
+     * @param values   Parameter values by name
+     * @return Rendered text
+     */
+    public String render(CompiledTemplate template, Map<String, ?> values) {
+        return renderTo(template, bind(template, values), presized(template)).toString();
+    }
+
+    /**
+     * Renders a template with positional values
+     *
+     * @param template The compiled template
+     * @param values   Values in the order of {@link CompiledTemplate#getParameters()}
+     * @return Rendered text
+     */
+    public String render(CompiledTemplate template, Object... values) {
+        return renderTo(template, values, presized(template)).toString();
+    }
+
+    /**
+     * Orders named values by the template's parameters, so the result can be
+     * reused for repeated positional rendering
+     */
+    public Object[] bind(CompiledTemplate template, Map<String, ?> values) {
+        Object[] bound = new Object[template.getParameterCount()];
+        for (int i = 0; i < bound.length; i++) {
+            bound[i] = values.get(template.getParameter(i));
+        }
+        return bound;
+    }
+
+    /**
+     * Appends the rendered template to a builder
+     *
+     * @return The given builder
+     */
+    public StringBuilder renderTo(CompiledTemplate template, Object[] values, StringBuilder out) {
+        out.append(template.getLiteral(0));
+        for (int i = 0; i < template.getSlotCount(); i++) {
+            int parameter = template.getSlot(i);
+            Object value = parameter < values.length ? values[parameter] : null;
+            if (value == null) {
+                out.append('{').append(template.getParameter(parameter)).append('}');
+            } else if (value instanceof CharSequence chars) {
+                out.append(chars);
+            } else {
+                out.append(value);
+            }
+            out.append(template.getLiteral(i + 1));
+        }
+        return out;
+    }
+
+    /**
+     * Writes the rendered template into a reusable buffer
+     *
+     * @return The given buffer, positioned after the rendered text
+     * @throws BufferOverflowException if the buffer has too little space remaining
+     */
+    public CharBuffer renderTo(CompiledTemplate template, Object[] values, CharBuffer out) {
+        out.put(template.getLiteral(0));
+        for (int i = 0; i < template.getSlotCount(); i++) {
+            int parameter = template.getSlot(i);
+            Object value = parameter < values.length ? values[parameter] : null;
+            if (value == null) {
+                out.put('{').put(template.getParameter(parameter)).put('}');
+            } else {
+                out.put(value.toString());
+            }
+            out.put(template.getLiteral(i + 1));
+        }
+        return out;
+    }
+
+    private StringBuilder presized(CompiledTemplate template) {
+        return new StringBuilder(template.getLiteralLength() + template.getSlotCount() * EXPECTED_VALUE_LENGTH);
+    }
+}
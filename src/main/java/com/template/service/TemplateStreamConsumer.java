@@ -0,0 +1,325 @@
+package com.template.service;
+
+import com.template.metrics.PipelineMetrics;
+import com.template.model.domain.MessageTemplate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DescribeStreamRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeStreamResponse;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.dynamodb.model.LimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.OperationType;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.Shard;
+import software.amazon.awssdk.services.dynamodb.model.ShardIteratorType;
+import software.amazon.awssdk.services.dynamodb.model.StreamRecord;
+import software.amazon.awssdk.services.dynamodb.model.TrimmedDataAccessException;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps this node's {@link TemplateCache} in step with writes made by any node by reading the table's
+ * DynamoDB Stream (view type {@code NEW_AND_OLD_IMAGES}). Every node reads every shard from {@code LATEST};
+ * no leases or checkpoints are kept because the cache only lives as long as the process.
+ * <ul>
+ *   <li>An insert or update of a {@code TEMPLATE#{id}} / {@code METADATA} item replaces the cached
+ *   template with the new image and drops the traffic type lists it belongs to.</li>
+ *   <li>Removals, legacy sort keys and records without an image invalidate the template.</li>
+ *   <li>The traffic type list of the old image is dropped as well, so a template moved to another
+ *   traffic type leaves no stale list behind even when it is not cached by ID. Updates and removals
+ *   without an old image, from a stream with another view type, drop every traffic type list.</li>
+ *   <li>Other items, such as idempotency markers, are ignored.</li>
+ * </ul>
+ * Shards are polled in parent-before-child order: children are only picked up, from
+ * {@code TRIM_HORIZON}, once a parent shard is closed. If records may have been missed (an expired
+ * iterator or trimmed data), the whole cache is invalidated and reading restarts from {@code LATEST}.
+ * <p>
+ * DynamoDB Streams serves about two concurrent readers per shard, so with more than two nodes reads are
+ * throttled. A throttled node skips polls with jittered exponential backoff, up to {@code max-backoff},
+ * which spreads the nodes' reads but delays invalidation; failed polls are counted by reason.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "aws.dynamodb.streams.enabled", havingValue = "true")
+public class TemplateStreamConsumer {
+    private static final String PK_PREFIX = "TEMPLATE#";
+    private static final String SK_VALUE = "METADATA";
+
+    private final DynamoDbStreamsClient streamsClient;
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDBService dynamoDBService;
+    private final TemplateCache templateCache;
+    private final PipelineMetrics metrics;
+    private final String tableName;
+    private final String configuredStreamArn;
+    private final Duration pollInterval;
+    private final int maxRecords;
+    private final long maxBackoffPolls;
+    private final ScheduledExecutorService scheduler;
+
+    // Only accessed from the polling thread
+    private String streamArn;
+    private final Map<String, String> iterators = new LinkedHashMap<>();
+    private final Set<String> finishedShards = new HashSet<>();
+    private int consecutiveThrottles;
+    private long pollsToSkip;
+
+    public TemplateStreamConsumer(DynamoDbStreamsClient streamsClient,
+                                  DynamoDbClient dynamoDbClient,
+                                  DynamoDBService dynamoDBService,
+                                  TemplateCache templateCache,
+                                  PipelineMetrics metrics,
+                                  @Value("${aws.dynamodb.table-name:dynamodb-table}") String tableName,
+                                  @Value("${aws.dynamodb.streams.stream-arn:}") String streamArn,
+                                  @Value("${aws.dynamodb.streams.poll-interval:1s}") Duration pollInterval,
+                                  @Value("${aws.dynamodb.streams.max-records:1000}") int maxRecords,
+                                  @Value("${aws.dynamodb.streams.max-backoff:30s}") Duration maxBackoff) {
+        this.streamsClient = streamsClient;
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDBService = dynamoDBService;
+        this.templateCache = templateCache;
+        this.metrics = metrics;
+        this.tableName = tableName;
+        this.configuredStreamArn = streamArn.isBlank() ? null : streamArn;
+        this.streamArn = configuredStreamArn;
+        this.pollInterval = pollInterval;
+        this.maxRecords = maxRecords;
+        this.maxBackoffPolls = Math.max(1, maxBackoff.toMillis() / Math.max(1, pollInterval.toMillis()));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory());
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Reads one batch of records from every open shard. Failures are logged, counted and retried with
+     * the next poll, so they never stop the schedule; throttled reads are retried after a backoff.
+     */
+    void poll() {
+        if (pollsToSkip > 0) {
+            pollsToSkip--;
+            return;
+        }
+        try {
+            if (iterators.isEmpty()) {
+                discoverShards(finishedShards.isEmpty());
+            }
+            boolean shardClosed = false;
+            for (Iterator<Map.Entry<String, String>> it = iterators.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, String> shard = it.next();
+                GetRecordsResponse response = streamsClient.getRecords(GetRecordsRequest.builder()
+                        .shardIterator(shard.getValue())
+                        .limit(maxRecords)
+                        .build());
+                response.records().forEach(this::apply);
+                if (response.nextShardIterator() == null) {
+                    log.debug("Stream shard closed shardId={}", shard.getKey());
+                    finishedShards.add(shard.getKey());
+                    it.remove();
+                    shardClosed = true;
+                } else {
+                    shard.setValue(response.nextShardIterator());
+                }
+            }
+            if (shardClosed) {
+                discoverShards(false);
+            }
+            consecutiveThrottles = 0;
+        } catch (ExpiredIteratorException | TrimmedDataAccessException | ResourceNotFoundException e) {
+            metrics.recordStreamPollFailure("lost-position");
+            log.warn("Lost position in the template table stream, invalidating the template cache: {}",
+                    e.getMessage());
+            templateCache.invalidateAll();
+            reset();
+        } catch (RuntimeException e) {
+            if (isThrottled(e)) {
+                metrics.recordStreamPollFailure("throttled");
+                backOff();
+                log.warn("Template table stream reads throttled, skipping {} polls; DynamoDB Streams serves "
+                        + "about two readers per shard: {}", pollsToSkip, e.getMessage());
+            } else {
+                metrics.recordStreamPollFailure("error");
+                log.warn("Failed to read the template table stream, retrying with the next poll", e);
+            }
+        }
+    }
+
+    private static boolean isThrottled(RuntimeException e) {
+        return e instanceof LimitExceededException
+                || e instanceof AwsServiceException serviceException && serviceException.isThrottlingException();
+    }
+
+    /**
+     * Doubles the number of skipped polls with every consecutive throttle, up to max-backoff, and
+     * picks a random count from its upper half so throttled nodes do not retry in lockstep
+     */
+    private void backOff() {
+        long backoff = Math.min(maxBackoffPolls, 1L << Math.min(consecutiveThrottles, 30));
+        consecutiveThrottles++;
+        pollsToSkip = ThreadLocalRandom.current().nextLong(backoff / 2 + 1, backoff + 1);
+    }
+
+    /**
+     * Applies one stream record to the cache
+     */
+    void apply(Record streamRecord) {
+        StreamRecord data = streamRecord.dynamodb();
+        String pk = stringAttribute(data.keys(), "PK");
+        if (pk == null || !pk.startsWith(PK_PREFIX)) {
+            return;
+        }
+        String templateId = pk.substring(PK_PREFIX.length());
+        invalidatePreviousTrafficType(streamRecord);
+
+        if (streamRecord.eventName() != OperationType.REMOVE
+                && SK_VALUE.equals(stringAttribute(data.keys(), "SK"))
+                && data.hasNewImage()) {
+            try {
+                MessageTemplate template = dynamoDBService.mapToTemplate(data.newImage());
+                templateCache.replace(template);
+                log.debug("Replaced cached template from stream ID: {} revision: {}", templateId,
+                        template.getRevision());
+                return;
+            } catch (RuntimeException e) {
+                // Never retried, or the shard would be stuck on this record
+                log.warn("Failed to map stream image of template ID: {}, invalidating it instead", templateId, e);
+            }
+        }
+        // Also drops the traffic type lists of the cached copy
+        templateCache.invalidate(MessageTemplate.builder().id(templateId).build());
+        log.debug("Invalidated cached template from stream ID: {} event: {}", templateId,
+                streamRecord.eventNameAsString());
+    }
+
+    /**
+     * Drops the traffic type list the template was part of before the change. The cache only knows
+     * it when the template is cached by ID, so it is read from the old image.
+     */
+    private void invalidatePreviousTrafficType(Record streamRecord) {
+        if (streamRecord.eventName() == OperationType.INSERT) {
+            return;
+        }
+        StreamRecord data = streamRecord.dynamodb();
+        if (!data.hasOldImage()) {
+            templateCache.invalidateTrafficTypes();
+            return;
+        }
+        String previousTrafficType = stringAttribute(data.oldImage(), "trafficTypeKey");
+        if (previousTrafficType != null) {
+            templateCache.invalidateTrafficType(previousTrafficType);
+        }
+    }
+
+    /**
+     * Number of shards currently read
+     */
+    int openShards() {
+        return iterators.size();
+    }
+
+    /**
+     * Starts reading shards that are not read yet. On the first discovery open shards are read
+     * from LATEST and closed ones are skipped; shards found later are children of a closed shard and
+     * are read from TRIM_HORIZON so none of their records are missed.
+     */
+    private void discoverShards(boolean initial) {
+        if (streamArn == null) {
+            streamArn = dynamoDbClient.describeTable(DescribeTableRequest.builder().tableName(tableName).build())
+                    .table().latestStreamArn();
+            if (streamArn == null) {
+                throw new IllegalStateException("Table " + tableName + " has no stream enabled");
+            }
+        }
+
+        List<Shard> shards = new ArrayList<>();
+        String startShardId = null;
+        do {
+            String exclusiveStart = startShardId;
+            DescribeStreamResponse response = streamsClient.describeStream(DescribeStreamRequest.builder()
+                    .streamArn(streamArn)
+                    .exclusiveStartShardId(exclusiveStart)
+                    .build());
+            shards.addAll(response.streamDescription().shards());
+            startShardId = response.streamDescription().lastEvaluatedShardId();
+        } while (startShardId != null);
+
+        Set<String> listed = new HashSet<>();
+        for (Shard shard : shards) {
+            String shardId = shard.shardId();
+            listed.add(shardId);
+            if (iterators.containsKey(shardId) || finishedShards.contains(shardId)) {
+                continue;
+            }
+            boolean closed = shard.sequenceNumberRange() != null
+                    && shard.sequenceNumberRange().endingSequenceNumber() != null;
+            if (initial && closed) {
+                finishedShards.add(shardId);
+                continue;
+            }
+            if (!initial && shard.parentShardId() != null && iterators.containsKey(shard.parentShardId())) {
+                // The parent is still being read; its children are picked up once it closes
+                continue;
+            }
+            ShardIteratorType type = initial ? ShardIteratorType.LATEST : ShardIteratorType.TRIM_HORIZON;
+            iterators.put(shardId, streamsClient.getShardIterator(GetShardIteratorRequest.builder()
+                    .streamArn(streamArn)
+                    .shardId(shardId)
+                    .shardIteratorType(type)
+                    .build()).shardIterator());
+            log.debug("Reading stream shard shardId={} from {}", shardId, type);
+        }
+        // Shards past the stream's retention are no longer listed
+        finishedShards.retainAll(listed);
+    }
+
+    private void reset() {
+        // A re-created stream has a new ARN
+        streamArn = configuredStreamArn;
+        iterators.clear();
+        finishedShards.clear();
+    }
+
+    private static String stringAttribute(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value != null ? value.s() : null;
+    }
+
+    private static CustomizableThreadFactory threadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("dynamodb-stream-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+}
@@ -1,19 +1,47 @@
 package com.template.service;
 
+import com.template.metrics.PipelineMetrics;
 import com.template.model.cms.*;
+import com.template.model.domain.CompiledTemplate;
+import com.template.model.domain.ContentHash;
 import com.template.model.domain.MessageTemplate;
 import com.template.model.domain.TrafficType;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class TemplateTransformer {
+    // Smaller exports are transformed on the calling thread, where forking costs more than it saves
+    static final int PARALLEL_THRESHOLD = 16;
+
+    private final StreamingTemplateParser streamingParser = new StreamingTemplateParser();
+    private final PipelineMetrics metrics;
+
+    @Value("${aws.pipeline.streaming-parser.enabled:false}")
+    private boolean streamingEnabled;
+
+    @Value("${aws.pipeline.bulk-transform.enabled:false}")
+    private boolean bulkEnabled;
+
+    @Value("${aws.pipeline.bulk-transform.parallelism:0}")
+    private int bulkParallelism;
+
+    private ForkJoinPool bulkPool;
 
     /**
      * Transforms a CMS response to a domain MessageTemplate
@@ -26,10 +54,86 @@ public class TemplateTransformer {
             return null;
         }
 
+        Timer.Sample sample = metrics.start();
         CmsEntry templateEntry = response.getItems().get(0);
         Map<String, CmsEntry> includesMap = createIncludesMap(response);
 
-        return transformEntry(templateEntry, includesMap);
+        MessageTemplate template = transformEntry(templateEntry, includesMap);
+        metrics.recordTransform(sample, false);
+        return template;
+    }
+
+    /**
+     * Transforms every entry of a CMS response, e.g. a sync export holding a whole space.
+     * The includes map is built once and shared; larger exports are transformed in parallel
+     * on the bulk fork-join pool. Entries keep the order of the response.
+     *
+     * @param response The CMS response containing templates and includes
+     * @return Transformed templates, empty if the response has no items
+     */
+    public List<MessageTemplate> transformAll(CmsResponse response) {
+        if (response.getItems() == null || response.getItems().isEmpty()) {
+            log.warn("No items found in CMS response");
+            return List.of();
+        }
+
+        Timer.Sample sample = metrics.start();
+        List<CmsEntry> entries = response.getItems().stream().filter(Objects::nonNull).toList();
+        Map<String, CmsEntry> includesMap = createIncludesMap(response);
+
+        List<MessageTemplate> templates;
+        if (entries.size() < PARALLEL_THRESHOLD) {
+            templates = entries.stream().map(entry -> transformEntry(entry, includesMap)).toList();
+        } else {
+            // A parallel stream started inside the pool forks onto that pool instead of the common pool
+            templates = bulkPool().submit(() -> entries.parallelStream()
+                    .map(entry -> transformEntry(entry, includesMap))
+                    .toList()).join();
+        }
+        metrics.recordTransform(sample, false);
+        log.debug("Transformed {} templates from one CMS response", templates.size());
+        return templates;
+    }
+
+    /**
+     * Transforms a CMS response read directly from a stream, without binding it to CmsResponse first
+     * @param input Stream containing the CMS response JSON
+     * @return Transformed MessageTemplate, or null if the response has no items
+     * @throws IOException if the stream cannot be read or parsed
+     */
+    public MessageTemplate transform(InputStream input) throws IOException {
+        Timer.Sample sample = metrics.start();
+        MessageTemplate template = streamingParser.parse(input);
+        metrics.recordTransform(sample, true);
+        return template;
+    }
+
+    /**
+     * @return true if templates should be read with {@link #transform(InputStream)}
+     */
+    public boolean isStreamingEnabled() {
+        return streamingEnabled;
+    }
+
+    /**
+     * @return true if every entry of a CMS response should be processed with {@link #transformAll(CmsResponse)}
+     */
+    public boolean isBulkEnabled() {
+        return bulkEnabled;
+    }
+
+    private synchronized ForkJoinPool bulkPool() {
+        if (bulkPool == null) {
+            bulkPool = new ForkJoinPool(bulkParallelism > 0 ? bulkParallelism : Runtime.getRuntime().availableProcessors());
+        }
+        return bulkPool;
+    }
+
+    @PreDestroy
+    synchronized void closeBulkPool() {
+        if (bulkPool != null) {
+            bulkPool.shutdown();
+        }
     }
 
     private Map<String, CmsEntry> createIncludesMap(CmsResponse response) {
@@ -47,15 +151,24 @@ public class TemplateTransformer {
     private MessageTemplate transformEntry(CmsEntry entry, Map<String, CmsEntry> includes) {
         Fields fields = entry.getFields();
         List<String> parameters = new ArrayList<>();
+        CompiledTemplate compiledSubject = transformDocument(fields.getSubject(), includes, parameters);
+        CompiledTemplate compiledBody = transformDocument(fields.getBody(), includes, parameters);
+        String subject = compiledSubject.toSource();
+        String body = compiledBody.toSource();
 
         return MessageTemplate.builder()
             .id(entry.getSys().getId())
             .key(fields.getKey())
             .name(fields.getName())
             .trafficType(extractTrafficType(fields.getTrafficType(), includes))
-            .subject(transformDocument(fields.getSubject(), includes, parameters))
-            .body(transformDocument(fields.getBody(), includes, parameters))
+            .subject(subject)
+            .body(body)
             .parameters(parameters)
+            .revision(entry.getSys().getRevision())
+            .updatedAt(entry.getSys().getUpdatedAt())
+            .contentHash(ContentHash.of(subject, body, parameters))
+            .compiledSubject(compiledSubject)
+            .compiledBody(compiledBody)
             .build();
     }
 
@@ -76,54 +189,39 @@ public class TemplateTransformer {
             .build();
     }
 
-    private String transformDocument(Document document, Map<String, CmsEntry> includes, List<String> parameters) {
+    private CompiledTemplate transformDocument(Document document, Map<String, CmsEntry> includes, List<String> parameters) {
         if (document == null || document.getContent() == null) {
-            return "";
+            return CompiledTemplate.empty();
         }
 
-        StringBuilder result = new StringBuilder();
+        CompiledTemplate.Builder result = CompiledTemplate.builder();
 
         for (Node paragraph : document.getContent()) {
             if (paragraph.getContent() != null) {
                 for (Node node : paragraph.getContent()) {
-                    switch (node.getNodeType()) {
-                        case "text":
-                            result.append(node.getValue());
-                            break;
-                            
-                        case "embedded-entry-inline":
-                            String paramId = extractParameterId(node);
-                            if (paramId != null && includes.containsKey(paramId)) {
-                                CmsEntry param = includes.get(paramId);
+                    NodeType nodeType = node.getNodeType() != null ? node.getNodeType() : NodeType.UNKNOWN;
+                    switch (nodeType) {
+                        case TEXT -> result.appendText(node.getValue());
+                        case EMBEDDED_ENTRY_INLINE -> {
+                            String paramId = node.getData() != null ? node.getData().targetId() : null;
+                            CmsEntry param = paramId != null ? includes.get(paramId) : null;
+                            if (param != null) {
                                 String paramKey = param.getFields().getKey();
-                                result.append("{").append(paramKey).append("}");
+                                result.appendParameter(paramKey);
                                 if (!parameters.contains(paramKey)) {
                                     parameters.add(paramKey);
                                 }
+                            } else if (paramId == null) {
+                                log.warn("Inline entry without a linked entry ID, skipping parameter");
                             }
-                            break;
-                            
-                        default:
-                            log.debug("Ignoring node type: {}", node.getNodeType());
+                        }
+                        default -> log.debug("Ignoring node type: {}", nodeType);
                     }
                 }
-                result.append("\n");
+                result.appendText("\n");
             }
         }
 
-        return result.toString().trim();
-    }
-
-    private String extractParameterId(Node node) {
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> target = (Map<String, Object>) node.getData().get("target");
-            @SuppressWarnings("unchecked")
-            Map<String, Object> sys = (Map<String, Object>) target.get("sys");
-            return (String) sys.get("id");
-        } catch (Exception e) {
-            log.warn("Failed to extract parameter ID from node", e);
-            return null;
-        }
+        return result.build();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,274 @@
+package com.template.service;
+
+import com.template.exception.TemplatePersistenceException;
+import com.template.metrics.PipelineMetrics;
+import com.template.model.domain.MessageTemplate;
+import com.template.model.domain.WriteOutcome;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer that coalesces template saves into BatchWriteItem calls.
+ * A batch is flushed when it reaches 25 items or when the oldest pending save
+ * has waited for the configured delay. A later save for the same table key
+ * replaces the pending one, which then completes as SUPERSEDED once the
+ * replacement has been written.
+ * With a write limiter, batches are paced by it and unprocessed items are retried
+ * until the limiter's throttle deadline instead of for a fixed number of attempts.
+ */
+@Slf4j
+class TemplateWriteBuffer implements AutoCloseable {
+    static final int MAX_BATCH_SIZE = 25;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+    private final Duration maxDelay;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final AdaptiveWriteLimiter writeLimiter;
+    private final PipelineMetrics metrics;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, PendingWrite> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    TemplateWriteBuffer(DynamoDbClient dynamoDbClient, String tableName, Duration maxDelay,
+                        int maxAttempts, Duration baseBackoff, AdaptiveWriteLimiter writeLimiter,
+                        PipelineMetrics metrics) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+        this.maxDelay = maxDelay;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = baseBackoff;
+        this.writeLimiter = writeLimiter;
+        this.metrics = metrics;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("dynamodb-write-buffer-"));
+    }
+
+    /**
+     * Queues an item for the next batch
+     *
+     * @param template The template being saved, used for revision ordering and logging
+     * @param item The DynamoDB item to write
+     * @return Future completed once the item, or the item that replaced it, is written
+     */
+    CompletableFuture<WriteOutcome> submit(MessageTemplate template, Map<String, AttributeValue> item) {
+        String tableKey = tableKey(item);
+        CompletableFuture<WriteOutcome> future = new CompletableFuture<>();
+
+        synchronized (pending) {
+            PendingWrite existing = pending.get(tableKey);
+            if (existing != null && isNewer(existing.template, template)) {
+                log.debug("Dropping save for template {} - a newer revision is already buffered", template.getId());
+                future.complete(WriteOutcome.SKIPPED);
+                return future;
+            }
+
+            PendingWrite write = new PendingWrite(tableKey, template, item, future);
+            if (existing != null) {
+                write.superseded.addAll(existing.superseded);
+                write.superseded.add(existing.future);
+                pending.remove(tableKey);
+            }
+            pending.put(tableKey, write);
+
+            if (pending.size() >= MAX_BATCH_SIZE) {
+                scheduler.execute(this::flush);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, maxDelay.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Writes every pending item, in batches of at most 25
+     */
+    void flush() {
+        List<PendingWrite> batch;
+        while (!(batch = drainBatch()).isEmpty()) {
+            writeBatch(batch);
+        }
+    }
+
+    private List<PendingWrite> drainBatch() {
+        synchronized (pending) {
+            List<PendingWrite> batch = new ArrayList<>(Math.min(pending.size(), MAX_BATCH_SIZE));
+            Iterator<PendingWrite> iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < MAX_BATCH_SIZE) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            if (pending.isEmpty() && scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            return batch;
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        Map<String, PendingWrite> remaining = new LinkedHashMap<>();
+        batch.forEach(write -> remaining.put(write.tableKey, write));
+
+        long throttleDeadline = writeLimiter != null ? writeLimiter.throttleDeadline() : 0;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                List<WriteRequest> requests = remaining.values().stream()
+                        .map(write -> WriteRequest.builder()
+                                .putRequest(PutRequest.builder().item(write.item).build())
+                                .build())
+                        .toList();
+
+                if (writeLimiter != null) {
+                    writeLimiter.acquire(requests.size());
+                }
+                BatchWriteItemResponse response;
+                try {
+                    response = dynamoDbClient.batchWriteItem(BatchWriteItemRequest.builder()
+                            .requestItems(Map.of(tableName, requests))
+                            .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                            .build());
+                } catch (RuntimeException e) {
+                    if (writeLimiter == null || !AdaptiveWriteLimiter.isThrottling(e)) {
+                        throw e;
+                    }
+                    // The whole batch was throttled; retry it like unprocessed items
+                    response = BatchWriteItemResponse.builder()
+                            .unprocessedItems(Map.of(tableName, requests))
+                            .build();
+                }
+                Double capacityUnits = null;
+                if (response.hasConsumedCapacity()) {
+                    for (ConsumedCapacity capacity : response.consumedCapacity()) {
+                        metrics.recordConsumedCapacity("BatchWriteItem", capacity.capacityUnits());
+                        if (capacity.capacityUnits() != null) {
+                            capacityUnits = (capacityUnits != null ? capacityUnits : 0) + capacity.capacityUnits();
+                        }
+                    }
+                }
+
+                Set<String> unprocessed = response.unprocessedItems().getOrDefault(tableName, List.of()).stream()
+                        .map(request -> tableKey(request.putRequest().item()))
+                        .collect(Collectors.toSet());
+                if (writeLimiter != null) {
+                    writeLimiter.onSuccess(requests.size() - unprocessed.size(), capacityUnits);
+                    if (!unprocessed.isEmpty()) {
+                        writeLimiter.onThrottle();
+                        metrics.recordThrottle("BatchWriteItem");
+                    }
+                }
+
+                Iterator<PendingWrite> iterator = remaining.values().iterator();
+                while (iterator.hasNext()) {
+                    PendingWrite write = iterator.next();
+                    if (!unprocessed.contains(write.tableKey)) {
+                        write.completeWritten();
+                        iterator.remove();
+                    }
+                }
+
+                if (remaining.isEmpty()) {
+                    return;
+                }
+                boolean throttleRetry = writeLimiter != null && writeLimiter.isBefore(throttleDeadline);
+                if (attempt >= maxAttempts && !throttleRetry) {
+                    log.error("Giving up on {} unprocessed items after {} attempts", remaining.size(), attempt);
+                    failAll(remaining, new TemplatePersistenceException(
+                            "Template write was not processed by DynamoDB after " + attempt + " attempts"));
+                    return;
+                }
+
+                log.warn("Retrying {} unprocessed items, attempt {}", remaining.size(), attempt + 1);
+                metrics.recordRetry("BatchWriteItem");
+                if (writeLimiter == null) {
+                    sleep(backoff(attempt));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failAll(remaining, new TemplatePersistenceException("Interrupted while writing template batch", e));
+        } catch (Exception e) {
+            log.error("Error writing batch of {} templates", remaining.size(), e);
+            failAll(remaining, new TemplatePersistenceException("Failed to save template batch to DynamoDB", e));
+        }
+    }
+
+    private static void failAll(Map<String, PendingWrite> writes, Exception e) {
+        writes.values().forEach(write -> write.fail(e));
+    }
+
+    private static String tableKey(Map<String, AttributeValue> item) {
+        return item.get("PK").s() + "|" + item.get("SK").s();
+    }
+
+    private long backoff(int attempt) {
+        long exponential = baseBackoff.toMillis() << Math.min(attempt - 1, 10);
+        return exponential / 2 + ThreadLocalRandom.current().nextLong(exponential / 2 + 1);
+    }
+
+    /** Visible for tests, so retries do not wait for real backoff delays */
+    void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    private static boolean isNewer(MessageTemplate buffered, MessageTemplate incoming) {
+        return buffered.getRevision() != null && incoming.getRevision() != null
+                && buffered.getRevision() > incoming.getRevision();
+    }
+
+    @Override
+    public void close() {
+        flush();
+        scheduler.shutdown();
+    }
+
+    private static final class PendingWrite {
+        private final String tableKey;
+        private final MessageTemplate template;
+        private final Map<String, AttributeValue> item;
+        private final CompletableFuture<WriteOutcome> future;
+        private final List<CompletableFuture<WriteOutcome>> superseded = new ArrayList<>();
+
+        private PendingWrite(String tableKey, MessageTemplate template, Map<String, AttributeValue> item,
+                             CompletableFuture<WriteOutcome> future) {
+            this.tableKey = tableKey;
+            this.template = template;
+            this.item = item;
+            this.future = future;
+        }
+
+        private void completeWritten() {
+            future.complete(WriteOutcome.WRITTEN);
+            superseded.forEach(f -> f.complete(WriteOutcome.SUPERSEDED));
+        }
+
+        private void fail(Exception e) {
+            future.completeExceptionally(e);
+            superseded.forEach(f -> f.completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.template.service;
+
+import com.template.model.aws.S3ObjectVersion;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Collapses updates of the same S3 object key that arrive within a short window into one
+ * processing of the latest version. The first update of a key opens the window; updates
+ * arriving before it closes replace the pending version if their S3 sequencer is greater.
+ * When the window closes the latest version is processed once. Its message gets the
+ * processing result; superseded messages complete successfully once it has run, so they are
+ * acknowledged while the latest message alone is redelivered if processing fails.
+ */
+@Slf4j
+class UpdateCoalescer {
+    private final long windowNanos;
+    private final Consumer<S3ObjectVersion> onSuperseded;
+    private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param window How long the first update of a key waits for newer ones
+     * @param onSuperseded Called once for every version skipped in favour of a newer one
+     */
+    UpdateCoalescer(Duration window, Consumer<S3ObjectVersion> onSuperseded) {
+        this.windowNanos = window.toNanos();
+        this.onSuperseded = onSuperseded;
+    }
+
+    /**
+     * Blocking variant: the thread that opened the window waits for it to close and processes
+     * the latest version, the other callers wait for that processing to finish
+     *
+     * @param version The version referenced by the received message
+     * @param processor Processes the latest version of the key
+     * @throws InterruptedException if interrupted while waiting for the window to close
+     */
+    void run(S3ObjectVersion version, Consumer<S3ObjectVersion> processor) throws InterruptedException {
+        Arrival arrival = arrive(version);
+        if (arrival.opened()) {
+            long remaining = arrival.group().deadline - System.nanoTime();
+            if (remaining > 0) {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            }
+            flush(arrival.group(), latest -> CompletableFuture.runAsync(() -> processor.accept(latest), Runnable::run));
+        }
+        try {
+            result(arrival).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking variant: the window is closed by a task scheduled on the executor, which
+     * starts the processing of the latest version
+     *
+     * @param version The version referenced by the received message
+     * @param executor Runs the processor once the window has closed
+     * @param processor Starts processing the latest version of the key
+     * @return Future completing once the latest version has been processed
+     */
+    CompletableFuture<Void> runAsync(S3ObjectVersion version, Executor executor,
+                                     Function<S3ObjectVersion, CompletableFuture<Void>> processor) {
+        Arrival arrival = arrive(version);
+        if (arrival.opened()) {
+            Executor delayed = CompletableFuture.delayedExecutor(windowNanos, TimeUnit.NANOSECONDS, executor);
+            try {
+                delayed.execute(() -> flush(arrival.group(), processor));
+            } catch (RuntimeException e) {
+                flush(arrival.group(), latest -> CompletableFuture.failedFuture(e));
+            }
+        }
+        return result(arrival);
+    }
+
+    /**
+     * @return Number of keys with an open window
+     */
+    int pendingKeys() {
+        return pending.size();
+    }
+
+    private Arrival arrive(S3ObjectVersion version) {
+        String key = version.getBucket() + "/" + version.getKey();
+        Arrival[] arrival = new Arrival[1];
+        pending.compute(key, (k, group) -> {
+            if (group == null) {
+                group = new Pending(key, version, System.nanoTime() + windowNanos);
+                arrival[0] = new Arrival(group, version, true);
+                return group;
+            }
+            if (isNewer(version, group.latest)) {
+                onSuperseded.accept(group.latest);
+                group.latest = version;
+            } else {
+                onSuperseded.accept(version);
+            }
+            arrival[0] = new Arrival(group, version, false);
+            return group;
+        });
+        return arrival[0];
+    }
+
+    /**
+     * Closes the window so later updates open a new one, then processes the latest version
+     */
+    private void flush(Pending group, Function<S3ObjectVersion, CompletableFuture<Void>> processor) {
+        S3ObjectVersion[] latest = new S3ObjectVersion[1];
+        pending.computeIfPresent(group.key, (k, current) -> {
+            if (current == group) {
+                latest[0] = group.latest;
+                return null;
+            }
+            return current;
+        });
+        if (latest[0] == null) {
+            return;
+        }
+        log.debug("Coalescing window closed bucket={} key={} versionId={}",
+                latest[0].getBucket(), latest[0].getKey(), latest[0].getVersionId());
+
+        CompletableFuture<Void> processing;
+        try {
+            processing = processor.apply(latest[0]);
+        } catch (RuntimeException e) {
+            processing = CompletableFuture.failedFuture(e);
+        }
+        processing.whenComplete((ignored, e) -> {
+            if (e != null) {
+                group.processed.completeExceptionally(e instanceof CompletionException && e.getCause() != null
+                        ? e.getCause() : e);
+            } else {
+                group.processed.complete(null);
+            }
+        });
+    }
+
+    /**
+     * The message of the processed version gets its result, superseded messages succeed once it ran
+     */
+    private CompletableFuture<Void> result(Arrival arrival) {
+        Pending group = arrival.group();
+        return group.processed.handle((ignored, e) -> {
+            if (e != null && group.latest == arrival.version()) {
+                throw e instanceof CompletionException completion ? completion : new CompletionException(e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * S3 sequencers of the same key increase with every event; compare them after right-padding
+     * the shorter one with zeros. Without sequencers the later arrival wins.
+     */
+    static boolean isNewer(S3ObjectVersion candidate, S3ObjectVersion current) {
+        String a = candidate.getSequencer();
+        String b = current.getSequencer();
+        if (a == null || b == null) {
+            return true;
+        }
+        int length = Math.max(a.length(), b.length());
+        return pad(a, length).compareTo(pad(b, length)) > 0;
+    }
+
+    private static String pad(String sequencer, int length) {
+        return (sequencer + "0".repeat(length - sequencer.length())).toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Pending {
+        private final String key;
+        private final long deadline;
+        private final CompletableFuture<Void> processed = new CompletableFuture<>();
+        // Guarded by the map entry; final once the window has closed
+        private volatile S3ObjectVersion latest;
+
+        private Pending(String key, S3ObjectVersion latest, long deadline) {
+            this.key = key;
+            this.latest = latest;
+            this.deadline = deadline;
+        }
+    }
+
+    private record Arrival(Pending group, S3ObjectVersion version, boolean opened) {
+    }
+}
@@ -3,9 +3,11 @@ package com.template;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.template.model.domain.MessageTemplate;
 import com.template.model.domain.TrafficType;
+import com.template.service.BatchRenderService;
 import com.template.service.DynamoDBService;
 import com.template.service.S3Service;
 import com.template.service.SQSListener;
+import com.template.service.TemplateCache;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -30,6 +32,12 @@ class MessageTemplateE2ETest {
     @MockBean
     private SQSListener sqsListener;
 
+    @MockBean
+    private TemplateCache templateCache;
+
+    @MockBean
+    private BatchRenderService batchRenderService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
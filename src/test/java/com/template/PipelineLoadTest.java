@@ -0,0 +1,241 @@
+package com.template;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.template.service.DynamoDBService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.localstack.LocalStackContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.sqs.SqsClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end load harness: uploads synthetic templates to LocalStack S3, sends their
+ * notifications to the queue at a fixed rate and measures the time until each template
+ * is readable from DynamoDB.
+ * <p>
+ * Excluded from the default build; run with {@code mvn -Pload test} and tune with
+ * {@code -Dload.templates}, {@code -Dload.rate} (notifications per second) and {@code -Dload.timeout}.
+ * The report is written to {@code target/load-report.json}.
+ */
+@Tag("load")
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+class PipelineLoadTest {
+
+    private static final String BUCKET = "load-bucket";
+    private static final String QUEUE = "load-queue";
+    // DynamoDBService and IdempotencyService write to this table regardless of aws.dynamodb.table-name
+    private static final String TABLE = "dynamodb-table";
+    private static final String KEY_PREFIX = "templates/load-";
+
+    private static final int TEMPLATES = Integer.getInteger("load.templates", 500);
+    private static final int RATE = Integer.getInteger("load.rate", 50);
+    private static final Duration TIMEOUT = Duration.parse(System.getProperty("load.timeout", "PT5M"));
+    // Interval between visibility checks; the resolution of the measured latencies
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+
+    @Container
+    static final LocalStackContainer LOCALSTACK = new LocalStackContainer(
+            DockerImageName.parse("localstack/localstack:3.2.0"))
+            .withServices(LocalStackContainer.Service.S3, LocalStackContainer.Service.SQS,
+                    LocalStackContainer.Service.DYNAMODB);
+
+    private static S3Client s3Client;
+    private static SqsClient sqsClient;
+    private static String queueUrl;
+
+    @Autowired
+    private DynamoDBService dynamoDBService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void localStackProperties(DynamicPropertyRegistry registry) {
+        String endpoint = LOCALSTACK.getEndpoint().toString();
+        registry.add("spring.cloud.aws.credentials.access-key", LOCALSTACK::getAccessKey);
+        registry.add("spring.cloud.aws.credentials.secret-key", LOCALSTACK::getSecretKey);
+        registry.add("spring.cloud.aws.region.static", LOCALSTACK::getRegion);
+        registry.add("spring.cloud.aws.endpoint", () -> endpoint);
+        registry.add("spring.cloud.aws.s3.endpoint", () -> endpoint);
+        registry.add("spring.cloud.aws.sqs.endpoint", () -> endpoint);
+        registry.add("spring.cloud.aws.dynamodb.endpoint", () -> endpoint);
+        registry.add("aws.s3.bucket", () -> BUCKET);
+        registry.add("aws.sqs.queue-name", () -> QUEUE);
+        registry.add("aws.dynamodb.table-name", () -> TABLE);
+        registry.add("logging.level.com.template", () -> "INFO");
+        registry.add("logging.level.org.springframework", () -> "INFO");
+    }
+
+    @BeforeAll
+    static void createResources() {
+        URI endpoint = LOCALSTACK.getEndpoint();
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(LOCALSTACK.getAccessKey(), LOCALSTACK.getSecretKey()));
+        Region region = Region.of(LOCALSTACK.getRegion());
+
+        s3Client = S3Client.builder().endpointOverride(endpoint).credentialsProvider(credentials)
+                .region(region).forcePathStyle(true).build();
+        sqsClient = SqsClient.builder().endpointOverride(endpoint).credentialsProvider(credentials)
+                .region(region).build();
+
+        s3Client.createBucket(b -> b.bucket(BUCKET));
+        queueUrl = sqsClient.createQueue(b -> b.queueName(QUEUE)).queueUrl();
+        try (DynamoDbClient dynamoDbClient = DynamoDbClient.builder().endpointOverride(endpoint)
+                .credentialsProvider(credentials).region(region).build()) {
+            dynamoDbClient.createTable(b -> b.tableName(TABLE)
+                    .attributeDefinitions(
+                            AttributeDefinition.builder().attributeName("PK").attributeType(ScalarAttributeType.S).build(),
+                            AttributeDefinition.builder().attributeName("SK").attributeType(ScalarAttributeType.S).build())
+                    .keySchema(
+                            KeySchemaElement.builder().attributeName("PK").keyType(KeyType.HASH).build(),
+                            KeySchemaElement.builder().attributeName("SK").keyType(KeyType.RANGE).build())
+                    .billingMode(BillingMode.PAY_PER_REQUEST));
+        }
+    }
+
+    @Test
+    void sustainsConfiguredNotificationRate() throws Exception {
+        ObjectNode sample = readSample();
+        Map<String, Long> pending = new ConcurrentHashMap<>();
+        List<Long> latencies = new ArrayList<>(TEMPLATES);
+        AtomicReference<Throwable> sendFailure = new AtomicReference<>();
+
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+        ScheduledExecutorService sender = Executors.newScheduledThreadPool(8);
+        long start = System.nanoTime();
+        try {
+            // Open-loop schedule: a slow pipeline does not slow down the offered load
+            for (int i = 0; i < TEMPLATES; i++) {
+                String id = "load-" + i;
+                sender.schedule(() -> {
+                    try {
+                        pending.put(id, System.nanoTime());
+                        uploadAndNotify(sample, id);
+                    } catch (Throwable e) {
+                        sendFailure.compareAndSet(null, e);
+                    }
+                }, i * periodNanos, TimeUnit.NANOSECONDS);
+            }
+
+            long deadline = start + TIMEOUT.toNanos();
+            long lastVisible = start;
+            while (latencies.size() < TEMPLATES && System.nanoTime() < deadline && sendFailure.get() == null) {
+                if (!pending.isEmpty()) {
+                    Map<String, ?> visible = dynamoDBService.findTemplatesByIds(List.copyOf(pending.keySet()), "id");
+                    long now = System.nanoTime();
+                    for (String id : visible.keySet()) {
+                        Long sentAt = pending.remove(id);
+                        if (sentAt != null) {
+                            latencies.add(now - sentAt);
+                            lastVisible = now;
+                        }
+                    }
+                }
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+
+            assertNull(sendFailure.get(), () -> "Failed to send load: " + sendFailure.get());
+            Map<String, Object> report = report(latencies, lastVisible - start);
+            System.out.println("Load report: " + report);
+            Path reportFile = Path.of("target", "load-report.json");
+            Files.createDirectories(reportFile.getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+
+            assertEquals(TEMPLATES, latencies.size(),
+                    () -> pending.size() + " templates not visible within " + TIMEOUT);
+        } finally {
+            sender.shutdownNow();
+        }
+    }
+
+    private void uploadAndNotify(ObjectNode sample, String id) throws IOException {
+        ObjectNode template = sample.deepCopy();
+        ((ObjectNode) template.get("items").get(0).get("sys")).put("id", id);
+        byte[] body = objectMapper.writeValueAsBytes(template);
+        String key = KEY_PREFIX + id + ".json";
+
+        PutObjectResponse put = s3Client.putObject(b -> b.bucket(BUCKET).key(key), RequestBody.fromBytes(body));
+
+        ObjectNode notification = objectMapper.createObjectNode();
+        ObjectNode s3 = notification.putArray("Records").addObject()
+                .put("eventSource", "aws:s3")
+                .put("eventName", "ObjectCreated:Put")
+                .putObject("s3");
+        s3.putObject("bucket").put("name", BUCKET);
+        s3.putObject("object")
+                .put("key", key)
+                .put("size", body.length)
+                .put("eTag", put.eTag())
+                .put("sequencer", String.format("%016X", System.nanoTime()));
+        sqsClient.sendMessage(b -> b.queueUrl(queueUrl).messageBody(notification.toString()));
+    }
+
+    private ObjectNode readSample() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/samples/template.json")) {
+            return (ObjectNode) objectMapper.readTree(in);
+        }
+    }
+
+    private static Map<String, Object> report(List<Long> latencies, long elapsedNanos) {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("templates", TEMPLATES);
+        report.put("offeredRatePerSecond", RATE);
+        report.put("completed", sorted.length);
+        report.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.put("throughputPerSecond", elapsedNanos == 0 ? 0 : sorted.length * 1e9 / elapsedNanos);
+        report.put("p50Ms", percentileMillis(sorted, 0.50));
+        report.put("p99Ms", percentileMillis(sorted, 0.99));
+        report.put("p999Ms", percentileMillis(sorted, 0.999));
+        report.put("maxMs", sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        report.put("resolutionMs", POLL_INTERVAL.toMillis());
+        return report;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,84 @@
+package com.template.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedTtlCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private BoundedTtlCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BoundedTtlCache<>(2, 10, TimeUnit.SECONDS, now::get);
+    }
+
+    @Test
+    void get_ReturnsCachedValueAndCountsHit() {
+        cache.put("a", "1");
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    void peek_DoesNotCountHitsOrMisses() {
+        cache.put("a", "1");
+
+        assertEquals("1", cache.peek("a"));
+        assertNull(cache.peek("b"));
+
+        assertEquals(0, cache.stats().getHits());
+        assertEquals(0, cache.stats().getMisses());
+    }
+
+    @Test
+    void put_WhenFull_EvictsAnEntry() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        cache.put("c", "3");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    void get_AfterTtl_ReturnsNullAndEvicts() {
+        cache.put("a", "1");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    void invalidate_RemovesEntries() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.get("b"));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void constructor_NonPositiveSize_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedTtlCache<String, String>(0, 1, TimeUnit.SECONDS));
+    }
+}
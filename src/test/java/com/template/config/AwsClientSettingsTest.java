@@ -0,0 +1,68 @@
+package com.template.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.mock.env.MockEnvironment;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryMode;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AwsClientSettingsTest {
+
+    private static MockEnvironment environment() {
+        MockEnvironment environment = new MockEnvironment();
+        // Spring Boot's conversion service, which parses values such as 20s
+        environment.setConversionService(new ApplicationConversionService());
+        return environment;
+    }
+
+    @Test
+    void resolve_ClientPropertyOverridesSharedDefault() {
+        MockEnvironment environment = environment()
+                .withProperty("aws.http.max-connections", "80")
+                .withProperty("aws.http.dynamodb.max-connections", "200")
+                .withProperty("aws.http.sqs.api-call-attempt-timeout", "20s")
+                .withProperty("aws.retry.mode", "standard")
+                .withProperty("aws.retry.s3.max-attempts", "5");
+
+        AwsClientSettings dynamoDb = AwsClientSettings.resolve(environment, "dynamodb");
+        AwsClientSettings sqs = AwsClientSettings.resolve(environment, "sqs");
+        AwsClientSettings s3 = AwsClientSettings.resolve(environment, "s3");
+
+        assertEquals(200, dynamoDb.maxConnections());
+        assertEquals(80, sqs.maxConnections());
+        assertEquals(Duration.ofSeconds(20), sqs.apiCallAttemptTimeout());
+        assertEquals(Duration.ofSeconds(10), s3.apiCallAttemptTimeout());
+        assertEquals(RetryMode.STANDARD, s3.retryMode());
+        assertEquals(5, s3.maxAttempts());
+        assertEquals(3, dynamoDb.maxAttempts());
+    }
+
+    @Test
+    void resolve_NoProperties_UsesAdaptiveRetriesAndNetty() {
+        AwsClientSettings settings = AwsClientSettings.resolve(environment(), "s3");
+
+        assertEquals(RetryMode.ADAPTIVE, settings.retryMode());
+        assertEquals(AwsClientSettings.AsyncClient.NETTY, settings.asyncClient());
+        assertTrue(settings.tcpKeepAlive());
+        assertEquals(50, settings.maxConnections());
+    }
+
+    @Test
+    void overrideConfiguration_AppliesTimeoutsAndRetryBudget() {
+        MockEnvironment environment = environment()
+                .withProperty("aws.http.api-call-timeout", "15s")
+                .withProperty("aws.retry.max-attempts", "4");
+
+        ClientOverrideConfiguration configuration =
+                AwsClientSettings.resolve(environment, "dynamodb").overrideConfiguration();
+
+        assertEquals(Duration.ofSeconds(15), configuration.apiCallTimeout().orElseThrow());
+        assertEquals(Duration.ofSeconds(10), configuration.apiCallAttemptTimeout().orElseThrow());
+        assertEquals(3, configuration.retryPolicy().orElseThrow().numRetries());
+        assertEquals(RetryMode.ADAPTIVE, configuration.retryPolicy().orElseThrow().retryMode());
+    }
+}
@@ -0,0 +1,205 @@
+package com.template.controller;
+
+import com.template.model.domain.ContentHash;
+import com.template.model.domain.MessageTemplate;
+import com.template.model.domain.TrafficType;
+import com.template.service.BatchRenderService;
+import com.template.service.TemplateCache;
+import com.template.service.TemplateRenderer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = TemplateController.class)
+@Import({BatchRenderService.class, TemplateRenderer.class})
+class TemplateControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TemplateCache templateCache;
+
+    @Test
+    void getTemplate_ReturnsTemplateWithETagAndCacheControl() throws Exception {
+        // Given
+        MessageTemplate template = template("t1", 3);
+        when(templateCache.findTemplateById("t1")).thenReturn(template);
+
+        // When & Then
+        mockMvc.perform(get("/templates/t1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + template.getContentHash() + "-3\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=30, must-revalidate"))
+                .andExpect(jsonPath("$.id").value("t1"))
+                .andExpect(jsonPath("$.subject").value("Subject t1"))
+                .andExpect(jsonPath("$.compiledBody").doesNotExist());
+    }
+
+    @Test
+    void getTemplate_MatchingIfNoneMatch_ReturnsNotModifiedWithoutBody() throws Exception {
+        // Given
+        MessageTemplate template = template("t1", 3);
+        when(templateCache.findTemplateById("t1")).thenReturn(template);
+        String eTag = mockMvc.perform(get("/templates/t1")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When
+        MvcResult result = mockMvc.perform(get("/templates/t1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(header().exists(HttpHeaders.CACHE_CONTROL))
+                .andReturn();
+
+        // Then
+        assertEquals(0, result.getResponse().getContentLength());
+        assertEquals("", result.getResponse().getContentAsString());
+    }
+
+    @Test
+    void getTemplate_NewRevision_ChangesETag() throws Exception {
+        // Given
+        MessageTemplate stored = template("t1", 4);
+        when(templateCache.findTemplateById("t1")).thenReturn(stored);
+        String previous = "\"" + stored.getContentHash() + "-3\"";
+
+        // When & Then
+        mockMvc.perform(get("/templates/t1").header(HttpHeaders.IF_NONE_MATCH, previous))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.revision").value(4));
+    }
+
+    @Test
+    void getTemplate_WithoutStoredHashOrRevision_ComputesWeakETag() throws Exception {
+        // Given
+        MessageTemplate template = template("t1", null);
+        String hash = template.getContentHash();
+        template.setContentHash(null);
+        when(templateCache.findTemplateById("t1")).thenReturn(template);
+
+        // When & Then
+        mockMvc.perform(get("/templates/t1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"" + hash + "\""));
+        mockMvc.perform(get("/templates/t1").header(HttpHeaders.IF_NONE_MATCH, "W/\"" + hash + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getTemplate_Unknown_ReturnsNotFound() throws Exception {
+        // Given
+        when(templateCache.findTemplateById("missing")).thenReturn(null);
+
+        // When & Then
+        mockMvc.perform(get("/templates/missing"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void getTemplatesByTrafficType_ETagChangesWithAnyMember() throws Exception {
+        // Given
+        when(templateCache.findTemplatesByTrafficType("LONG_DISTANCE"))
+                .thenReturn(List.of(template("t1", 1), template("t2", 1)))
+                .thenReturn(List.of(template("t1", 1), template("t2", 1)))
+                .thenReturn(List.of(template("t1", 1), template("t2", 2)));
+
+        // When
+        String eTag = mockMvc.perform(get("/traffic-types/LONG_DISTANCE/templates"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value("t2"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Then
+        mockMvc.perform(get("/traffic-types/LONG_DISTANCE/templates").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/traffic-types/LONG_DISTANCE/templates").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+        verify(templateCache, times(3)).findTemplatesByTrafficType("LONG_DISTANCE");
+    }
+
+    @Test
+    void getTemplatesByTrafficType_Empty_ReturnsEmptyList() throws Exception {
+        // Given
+        when(templateCache.findTemplatesByTrafficType("UNKNOWN")).thenReturn(List.of());
+
+        // When & Then
+        mockMvc.perform(get("/traffic-types/UNKNOWN/templates"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void renderBatch_StreamsOneResultPerRow() throws Exception {
+        // Given
+        when(templateCache.findTemplateById("t1")).thenReturn(template("t1", 1));
+        String rows = """
+                {"name":"Ada"}
+
+                {"name":"Grace","unused":1}
+                """;
+
+        // When
+        MvcResult started = mockMvc.perform(post("/templates/t1/render:batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(rows))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("""
+                {"row":1,"subject":"Subject t1","body":"Hello Ada"}
+                {"row":2,"subject":"Subject t1","body":"Hello Grace"}
+                """, response);
+        verify(templateCache, times(1)).findTemplateById("t1");
+    }
+
+    @Test
+    void renderBatch_UnknownTemplate_ReturnsNotFound() throws Exception {
+        // Given
+        when(templateCache.findTemplateById("missing")).thenReturn(null);
+
+        // When & Then
+        mockMvc.perform(post("/templates/missing/render:batch").content("{\"name\":\"Ada\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404));
+    }
+
+    private static MessageTemplate template(String id, Integer revision) {
+        MessageTemplate template = MessageTemplate.builder()
+                .id(id)
+                .key(id.toUpperCase())
+                .name("Template " + id)
+                .trafficType(TrafficType.builder().key("LONG_DISTANCE").name("Long Distance").build())
+                .subject("Subject " + id)
+                .body("Hello {name}")
+                .parameters(List.of("name"))
+                .revision(revision)
+                .build();
+        template.setContentHash(ContentHash.of(template));
+        return template;
+    }
+}
@@ -0,0 +1,97 @@
+package com.template.metrics;
+
+import com.template.model.domain.WriteOutcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private PipelineMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new PipelineMetrics(registry);
+    }
+
+    @Test
+    void recordMessage_NotAcknowledged_CountsFailure() {
+        metrics.recordMessage(metrics.start(), true);
+        metrics.recordMessage(metrics.start(), false);
+
+        assertEquals(1, registry.get(PipelineMetrics.MESSAGE_LATENCY).tag("mode", "message")
+                .tag("outcome", "acknowledged").timer().count());
+        assertEquals(1, registry.get(PipelineMetrics.MESSAGE_LATENCY).tag("mode", "message")
+                .tag("outcome", "failed").timer().count());
+        assertEquals(1, registry.get(PipelineMetrics.MESSAGES_FAILED).counter().count());
+    }
+
+    @Test
+    void recordBatch_RecordsLatencyOnceAndCountsFailedMessages() {
+        metrics.recordBatch(metrics.start(), 9, 1);
+
+        assertEquals(1, registry.get(PipelineMetrics.MESSAGE_LATENCY).tag("mode", "batch")
+                .tag("outcome", "acknowledged").timer().count());
+        assertEquals(0, registry.get(PipelineMetrics.MESSAGE_LATENCY).tag("mode", "message")
+                .tag("outcome", "acknowledged").timer().count());
+        assertEquals(1, registry.get(PipelineMetrics.MESSAGES_FAILED).counter().count());
+    }
+
+    @Test
+    void recordWrite_TagsTimerWithOutcome() {
+        metrics.recordWrite(metrics.start(), WriteOutcome.SUPERSEDED);
+        metrics.recordWriteFailure(metrics.start());
+
+        assertEquals(1, registry.get(PipelineMetrics.DYNAMODB_WRITE).tag("outcome", "superseded").timer().count());
+        assertEquals(1, registry.get(PipelineMetrics.DYNAMODB_WRITE).tag("outcome", "failed").timer().count());
+        assertEquals(0, registry.get(PipelineMetrics.DYNAMODB_WRITE).tag("outcome", "written").timer().count());
+    }
+
+    @Test
+    void recordS3Download_UnknownSize_RecordsTimeOnly() {
+        metrics.recordS3Download(metrics.start(), -1);
+        metrics.recordS3Download(metrics.start(), 512);
+
+        assertEquals(2, registry.get(PipelineMetrics.S3_DOWNLOAD).timer().count());
+        assertEquals(1, registry.get(PipelineMetrics.S3_DOWNLOAD_BYTES).summary().count());
+        assertEquals(512.0, registry.get(PipelineMetrics.S3_DOWNLOAD_BYTES).summary().totalAmount());
+    }
+
+    @Test
+    void recordConsumedCapacity_NullCapacity_IsIgnored() {
+        metrics.recordConsumedCapacity("PutItem", null);
+        metrics.recordConsumedCapacity("PutItem", 1.5);
+
+        assertEquals(1, registry.get(PipelineMetrics.DYNAMODB_CONSUMED_CAPACITY)
+                .tag("operation", "PutItem").summary().count());
+    }
+
+    @Test
+    void registerWriteRateLimit_GaugeFollowsSupplier() {
+        AtomicReference<Double> rate = new AtomicReference<>(100.0);
+        metrics.registerWriteRateLimit(rate::get);
+        rate.set(50.0);
+
+        assertEquals(50.0, registry.get(PipelineMetrics.DYNAMODB_WRITE_RATE_LIMIT).gauge().value());
+    }
+
+    @Test
+    void timers_PublishPercentileHistogramsToPrometheus() {
+        PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        PipelineMetrics prometheusMetrics = new PipelineMetrics(prometheus);
+
+        prometheusMetrics.recordTransform(prometheusMetrics.start(), false);
+
+        String scrape = prometheus.scrape();
+        assertTrue(scrape.contains("pipeline_transform_seconds_bucket{parser=\"tree\""));
+        assertTrue(scrape.contains("pipeline_message_latency_seconds_bucket"));
+    }
+}
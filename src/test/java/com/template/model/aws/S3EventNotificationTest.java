@@ -41,6 +41,53 @@ class S3EventNotificationTest {
         assertEquals("test/file.json", record.getS3().getObject().getKey());
     }
 
+    @Test
+    void testS3EventNotificationDeserialization_AwsRecordsProperty() throws Exception {
+        String json = """
+        {
+            "Records": [
+                { "s3": { "bucket": { "name": "bucket-1" }, "object": { "key": "a.json" } } },
+                { "s3": { "bucket": { "name": "bucket-1" }, "object": { "key": "b.json" } } }
+            ]
+        }
+        """;
+
+        S3EventNotification notification = objectMapper.readValue(json, S3EventNotification.class);
+
+        assertEquals(2, notification.getRecords().size());
+        assertEquals("b.json", notification.getRecords().get(1).getS3().getObject().getKey());
+    }
+
+    @Test
+    void testS3EventNotificationDeserialization_ObjectVersionFields() throws Exception {
+        String json = """
+        {
+            "Records": [
+                {
+                    "s3": {
+                        "bucket": { "name": "bucket-1" },
+                        "object": {
+                            "key": "a.json",
+                            "size": 1024,
+                            "eTag": "0123456789abcdef",
+                            "versionId": "v-1",
+                            "sequencer": "0055AED6DCD90281E5"
+                        }
+                    }
+                }
+            ]
+        }
+        """;
+
+        S3EventNotification notification = objectMapper.readValue(json, S3EventNotification.class);
+        S3EventNotification.S3ObjectEntity object = notification.getRecords().get(0).getS3().getObject();
+
+        assertEquals(1024L, object.getSize());
+        assertEquals("0123456789abcdef", object.getETag());
+        assertEquals("v-1", object.getVersionId());
+        assertEquals("0055AED6DCD90281E5", object.getSequencer());
+    }
+
     @Test
     void testMultipleRecords() {
         S3EventNotification notification = new S3EventNotification();
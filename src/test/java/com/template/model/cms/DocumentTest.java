@@ -5,9 +5,7 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 class DocumentTest {
     private Document document;
@@ -19,7 +17,7 @@ class DocumentTest {
 
     @Test
     void testNodeTypeProperty() {
-        String nodeType = "document";
+        NodeType nodeType = NodeType.DOCUMENT;
         document.setNodeType(nodeType);
         assertEquals(nodeType, document.getNodeType());
     }
@@ -27,11 +25,11 @@ class DocumentTest {
     @Test
     void testContent() {
         Node node1 = new Node();
-        node1.setNodeType("paragraph");
+        node1.setNodeType(NodeType.PARAGRAPH);
         node1.setValue("First paragraph");
 
         Node node2 = new Node();
-        node2.setNodeType("paragraph");
+        node2.setNodeType(NodeType.PARAGRAPH);
         node2.setValue("Second paragraph");
 
         List<Node> content = Arrays.asList(node1, node2);
@@ -44,32 +42,21 @@ class DocumentTest {
 
     @Test
     void testData() {
-        Map<String, Object> data = new HashMap<>();
-        data.put("title", "Test Document");
-        data.put("version", 1);
-        data.put("published", true);
+        document.setData(NodeData.EMPTY);
 
-        document.setData(data);
-
-        assertEquals(3, document.getData().size());
-        assertEquals("Test Document", document.getData().get("title"));
-        assertEquals(1, document.getData().get("version"));
-        assertEquals(true, document.getData().get("published"));
+        assertNull(document.getData().getTarget());
+        assertNull(document.getData().getUri());
     }
 
     @Test
     void testEqualsAndHashCode() {
         Document doc1 = new Document();
-        doc1.setNodeType("document");
-        Map<String, Object> data1 = new HashMap<>();
-        data1.put("title", "Test");
-        doc1.setData(data1);
+        doc1.setNodeType(NodeType.DOCUMENT);
+        doc1.setData(NodeData.of(null, "https://example.com"));
 
         Document doc2 = new Document();
-        doc2.setNodeType("document");
-        Map<String, Object> data2 = new HashMap<>();
-        data2.put("title", "Test");
-        doc2.setData(data2);
+        doc2.setNodeType(NodeType.DOCUMENT);
+        doc2.setData(NodeData.of(null, "https://example.com"));
 
         assertEquals(doc1, doc2);
         assertEquals(doc1.hashCode(), doc2.hashCode());
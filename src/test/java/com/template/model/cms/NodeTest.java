@@ -4,11 +4,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.util.List;
-import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.Arrays;
-import java.util.HashMap;
 
 class NodeTest {
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -39,15 +37,56 @@ class NodeTest {
 
         Node node = objectMapper.readValue(json, Node.class);
         assertNotNull(node);
-        assertEquals("embedded-entry-inline", node.getNodeType());
+        assertEquals(NodeType.EMBEDDED_ENTRY_INLINE, node.getNodeType());
+        assertEquals("333-333-333", node.getData().targetId());
+        assertEquals("Entry", node.getData().getTarget().getSys().getLinkType());
+    }
+
+    @Test
+    void shouldShareEmptyDataAndLists() throws Exception {
+        String json = """
+        {"data": {}, "marks": [], "content": [], "value": "Hello", "nodeType": "text"}
+        """;
+
+        Node node = objectMapper.readValue(json, Node.class);
+        assertSame(NodeData.EMPTY, node.getData());
+        assertSame(List.of(), node.getMarks());
+        assertSame(List.of(), node.getContent());
+        assertEquals(NodeType.TEXT, node.getNodeType());
+    }
+
+    @Test
+    void shouldReadNestedContentAndHyperlinkData() throws Exception {
+        String json = """
+        {
+            "nodeType": "paragraph",
+            "data": {},
+            "content": [
+                {"nodeType": "hyperlink", "data": {"uri": "https://example.com"}, "content": [
+                    {"nodeType": "text", "value": "link", "marks": ["bold"], "data": {}}
+                ]},
+                {"nodeType": "some-future-type", "data": {"unknown": 1}, "content": []}
+            ]
+        }
+        """;
+
+        Node node = objectMapper.readValue(json, Node.class);
+        assertEquals(2, node.getContent().size());
+        Node hyperlink = node.getContent().get(0);
+        assertEquals(NodeType.HYPERLINK, hyperlink.getNodeType());
+        assertEquals("https://example.com", hyperlink.getData().getUri());
+        assertNull(hyperlink.getData().targetId());
+        assertEquals(List.of("bold"), hyperlink.getContent().get(0).getMarks());
+        assertEquals(NodeType.UNKNOWN, node.getContent().get(1).getNodeType());
+        assertSame(NodeData.EMPTY, node.getContent().get(1).getData());
     }
 
     @Test
     void builder_Success() {
         // Given
-        String nodeType = "text";
+        NodeType nodeType = NodeType.TEXT;
         String value = "Test Value";
-        Map<String, Object> data = Map.of("key", "value");
+        NodeData data = NodeData.of(null, "https://example.com");
         List<String> marks = List.of("bold", "italic");
         List<Node> content = List.of(new Node());
 
@@ -69,7 +108,7 @@ class NodeTest {
 
     @Test
     void testNodeTypeProperty() {
-        String nodeType = "paragraph";
+        NodeType nodeType = NodeType.PARAGRAPH;
         node.setNodeType(nodeType);
         assertEquals(nodeType, node.getNodeType());
     }
@@ -94,11 +133,11 @@ class NodeTest {
     @Test
     void testContent() {
         Node childNode1 = new Node();
-        childNode1.setNodeType("text");
+        childNode1.setNodeType(NodeType.TEXT);
         childNode1.setValue("Hello");
 
         Node childNode2 = new Node();
-        childNode2.setNodeType("text");
+        childNode2.setNodeType(NodeType.TEXT);
         childNode2.setValue("World");
 
         List<Node> content = Arrays.asList(childNode1, childNode2);
@@ -111,28 +150,27 @@ class NodeTest {
 
     @Test
     void testData() {
-        Map<String, Object> data = new HashMap<>();
-        data.put("align", "center");
-        data.put("fontSize", 14);
-        data.put("color", "#000000");
+        Target target = new Target();
+        Sys sys = new Sys();
+        sys.setId("333-333-333");
+        target.setSys(sys);
 
-        node.setData(data);
+        node.setData(NodeData.of(target, null));
 
-        assertEquals(3, node.getData().size());
-        assertEquals("center", node.getData().get("align"));
-        assertEquals(14, node.getData().get("fontSize"));
-        assertEquals("#000000", node.getData().get("color"));
+        assertEquals("333-333-333", node.getData().targetId());
+        assertNull(node.getData().getUri());
+        assertSame(NodeData.EMPTY, NodeData.of(null, null));
     }
 
     @Test
     void testEqualsAndHashCode() {
         Node node1 = new Node();
-        node1.setNodeType("paragraph");
+        node1.setNodeType(NodeType.PARAGRAPH);
         node1.setValue("test");
         node1.setMarks(Arrays.asList("bold"));
 
         Node node2 = new Node();
-        node2.setNodeType("paragraph");
+        node2.setNodeType(NodeType.PARAGRAPH);
         node2.setValue("test");
         node2.setMarks(Arrays.asList("bold"));
 
@@ -0,0 +1,68 @@
+package com.template.model.domain;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+
+class CompiledTemplateTest {
+
+    @Test
+    void builder_InterleavesLiteralsAndSlots() {
+        CompiledTemplate template = CompiledTemplate.builder()
+            .appendText("Train ")
+            .appendParameter("TRAIN_TYPE")
+            .appendText(" ")
+            .appendParameter("TRAIN_NUMBER")
+            .appendText(" is late, ")
+            .appendParameter("TRAIN_TYPE")
+            .build();
+
+        assertEquals(List.of("Train ", " ", " is late, ", ""), template.getLiterals());
+        assertEquals(List.of(0, 1, 0), template.getSlots());
+        assertEquals(List.of("TRAIN_TYPE", "TRAIN_NUMBER"), template.getParameters());
+        assertEquals("Train {TRAIN_TYPE} {TRAIN_NUMBER} is late, {TRAIN_TYPE}", template.toSource());
+    }
+
+    @Test
+    void builder_TrimsLikeStringTrim() {
+        CompiledTemplate withSlots = CompiledTemplate.builder()
+            .appendText("  \n")
+            .appendParameter("A")
+            .appendText(" text \n")
+            .build();
+        CompiledTemplate withoutSlots = CompiledTemplate.builder()
+            .appendText("\n only text \n")
+            .build();
+
+        assertEquals("{A} text", withSlots.toSource());
+        assertEquals("only text", withoutSlots.toSource());
+        assertEquals(CompiledTemplate.empty(), CompiledTemplate.builder().appendText(" \n").build());
+    }
+
+    @Test
+    void parse_OnlyKnownParametersBecomeSlots() {
+        CompiledTemplate template = CompiledTemplate.parse("Hi {NAME}, {not a param} {NAME}{", Set.of("NAME"));
+
+        assertEquals(2, template.getSlotCount());
+        assertEquals(List.of("Hi ", ", {not a param} ", "{"), template.getLiterals());
+        assertEquals("Hi {NAME}, {not a param} {NAME}{", template.toSource());
+    }
+
+    @Test
+    void of_RoundTripsPersistedParts() {
+        CompiledTemplate template = CompiledTemplate.parse("{A} and {B}", Set.of("A", "B"));
+
+        CompiledTemplate restored = CompiledTemplate.of(template.getLiterals(), template.getSlots(), template.getParameters());
+
+        assertEquals(template, restored);
+        assertEquals(template.hashCode(), restored.hashCode());
+    }
+
+    @Test
+    void of_InconsistentParts_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.of(List.of("a"), List.of(0), List.of("A")));
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.of(List.of("a", "b"), List.of(1), List.of("A")));
+    }
+}
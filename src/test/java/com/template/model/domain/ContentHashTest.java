@@ -0,0 +1,37 @@
+package com.template.model.domain;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+class ContentHashTest {
+
+    @Test
+    void of_SameContent_SameHash() {
+        String first = ContentHash.of("Subject", "Body {PARAM}", List.of("PARAM"));
+        String second = ContentHash.of("Subject", "Body {PARAM}", List.of("PARAM"));
+
+        assertEquals(first, second);
+        assertEquals(64, first.length());
+    }
+
+    @Test
+    void of_FieldBoundariesAreSignificant() {
+        assertNotEquals(ContentHash.of("ab", "c", List.of()), ContentHash.of("a", "bc", List.of()));
+        assertNotEquals(ContentHash.of("Subject", "Body", List.of("A")), ContentHash.of("Subject", "Body", List.of()));
+    }
+
+    @Test
+    void of_Template_UsesSubjectBodyAndParameters() {
+        MessageTemplate template = MessageTemplate.builder()
+            .id("id")
+            .subject("Subject")
+            .body("Body")
+            .parameters(List.of("PARAM"))
+            .revision(1)
+            .build();
+
+        assertEquals(ContentHash.of("Subject", "Body", List.of("PARAM")), ContentHash.of(template));
+    }
+}
@@ -0,0 +1,112 @@
+package com.template.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveWriteLimiterTest {
+
+    private AtomicLong clock;
+    private AdaptiveWriteLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        limiter = new AdaptiveWriteLimiter(10, 2, 40, 5, 0.5, Duration.ofSeconds(1), Duration.ofSeconds(20),
+                clock::get);
+    }
+
+    @Test
+    void reserve_BeyondOneSecondOfCapacity_ReturnsWaitAtCurrentRate() {
+        assertEquals(0, limiter.reserve(10));
+
+        // One item over the budget at 10 units/s
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.reserve(1));
+
+        advance(Duration.ofSeconds(2));
+        assertEquals(0, limiter.reserve(5));
+    }
+
+    @Test
+    void onThrottle_CutsRateOncePerInterval() {
+        limiter.onThrottle();
+        limiter.onThrottle();
+        assertEquals(5.0, limiter.rate());
+
+        advance(Duration.ofSeconds(1));
+        limiter.onThrottle();
+        assertEquals(2.5, limiter.rate());
+
+        advance(Duration.ofSeconds(1));
+        limiter.onThrottle();
+        assertEquals(2.0, limiter.rate());
+    }
+
+    @Test
+    void onThrottle_DropsSavedUpBurst() {
+        limiter.onThrottle();
+
+        assertTrue(limiter.reserve(1) > 0);
+    }
+
+    @Test
+    void onSuccess_IntervalUsingMostOfTheRate_RaisesRateUpToMax() {
+        for (int second = 0; second < 10; second++) {
+            limiter.onSuccess((int) limiter.rate(), null);
+            advance(Duration.ofSeconds(1));
+        }
+
+        assertEquals(40.0, limiter.rate());
+    }
+
+    @Test
+    void onSuccess_IdleInterval_KeepsRate() {
+        limiter.onSuccess(1, null);
+        advance(Duration.ofSeconds(1));
+        limiter.onSuccess(1, null);
+
+        assertEquals(10.0, limiter.rate());
+    }
+
+    @Test
+    void onSuccess_ReportedCapacity_AdjustsEstimatePerItem() {
+        for (int i = 0; i < 20; i++) {
+            advance(Duration.ofSeconds(1));
+            limiter.onSuccess(1, 4.0);
+        }
+        limiter.onThrottle();
+        advance(Duration.ofSeconds(1));
+
+        // 5 units/s after the throttle; one item is now estimated at close to 4 units
+        long waitNanos = limiter.reserve(2);
+        assertTrue(waitNanos > TimeUnit.MILLISECONDS.toNanos(500), () -> "wait was " + waitNanos);
+    }
+
+    @Test
+    void isThrottling_RecognisesThrottlingErrors() {
+        ProvisionedThroughputExceededException throttled = ProvisionedThroughputExceededException.builder()
+                .message("throttled").build();
+        AwsServiceException throttlingCode = DynamoDbException.builder()
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("ThrottlingException").build())
+                .build();
+
+        assertTrue(AdaptiveWriteLimiter.isThrottling(throttled));
+        assertTrue(AdaptiveWriteLimiter.isThrottling(new CompletionException(throttled)));
+        assertTrue(AdaptiveWriteLimiter.isThrottling(throttlingCode));
+        assertFalse(AdaptiveWriteLimiter.isThrottling(DynamoDbException.builder().message("boom").build()));
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,212 @@
+package com.template.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.exception.TemplateDownloadException;
+import com.template.model.cms.CmsResponse;
+import com.template.model.domain.BackfillCheckpoint;
+import com.template.model.domain.MessageTemplate;
+import com.template.model.domain.WriteOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BackfillServiceTest {
+
+    private static final String BUCKET = "s3-bucket";
+    private static final String PREFIX = "templates/";
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private TemplateTransformer templateTransformer;
+
+    @Mock
+    private DynamoDBService dynamoDBService;
+
+    @Mock
+    private TemplateCache templateCache;
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Path checkpointFile;
+
+    private BackfillService backfillService;
+
+    @BeforeEach
+    void setUp() {
+        checkpointFile = directory.resolve("checkpoint.json");
+        backfillService = new BackfillService(s3Service, templateTransformer, dynamoDBService, templateCache,
+                objectMapper, 4, Duration.ofSeconds(10), checkpointFile.toString());
+    }
+
+    @Test
+    void run_ProcessesEveryListedObjectAndCompletesCheckpoint() throws Exception {
+        // Given
+        when(s3Service.listTemplates(BUCKET, PREFIX, null))
+                .thenReturn(objects("templates/", "templates/a.json", "templates/b.json", "templates/c.json"));
+        CmsResponse cmsResponse = new CmsResponse();
+        when(s3Service.downloadTemplate(eq(BUCKET), any(String.class))).thenReturn(cmsResponse);
+        MessageTemplate template = MessageTemplate.builder().id("t1").build();
+        when(templateTransformer.transform(cmsResponse)).thenReturn(template);
+        when(dynamoDBService.saveTemplate(template))
+                .thenReturn(WriteOutcome.WRITTEN, WriteOutcome.SKIPPED, WriteOutcome.WRITTEN);
+
+        // When
+        BackfillCheckpoint result = backfillService.run(BUCKET, PREFIX);
+
+        // Then
+        assertEquals(2, result.getWritten());
+        assertEquals(1, result.getSkipped());
+        assertEquals(0, result.getFailed());
+        assertTrue(result.isCompleted());
+        assertEquals("templates/c.json", result.getStartAfter());
+        verify(s3Service, never()).downloadTemplate(BUCKET, "templates/");
+        verify(templateCache, times(2)).invalidate(template);
+
+        BackfillCheckpoint saved = objectMapper.readValue(checkpointFile.toFile(), BackfillCheckpoint.class);
+        assertTrue(saved.isCompleted());
+        assertEquals(3, saved.processed());
+    }
+
+    @Test
+    void run_BulkEnabled_SavesEveryTemplateOfAnExport() throws Exception {
+        // Given
+        when(s3Service.listTemplates(BUCKET, PREFIX, null)).thenReturn(objects("templates/export.json"));
+        CmsResponse cmsResponse = new CmsResponse();
+        when(s3Service.downloadTemplate(BUCKET, "templates/export.json")).thenReturn(cmsResponse);
+        MessageTemplate first = MessageTemplate.builder().id("t1").build();
+        MessageTemplate second = MessageTemplate.builder().id("t2").build();
+        when(templateTransformer.isBulkEnabled()).thenReturn(true);
+        when(templateTransformer.transformAll(cmsResponse)).thenReturn(List.of(first, second));
+        when(dynamoDBService.saveTemplates(List.of(first, second)))
+                .thenReturn(List.of(WriteOutcome.SKIPPED, WriteOutcome.WRITTEN));
+
+        // When
+        BackfillCheckpoint result = backfillService.run(BUCKET, PREFIX);
+
+        // Then
+        assertEquals(1, result.getWritten());
+        assertEquals(0, result.getFailed());
+        verify(templateTransformer, never()).transform(any(CmsResponse.class));
+        verify(dynamoDBService, never()).saveTemplate(any());
+        verify(templateCache).invalidate(second);
+        verify(templateCache, never()).invalidate(first);
+    }
+
+    @Test
+    void run_UnfinishedCheckpoint_ResumesAfterLastKey() throws Exception {
+        // Given
+        objectMapper.writeValue(checkpointFile.toFile(), BackfillCheckpoint.builder()
+                .bucket(BUCKET).prefix(PREFIX).startAfter("templates/b.json").written(2).build());
+        when(s3Service.listTemplates(BUCKET, PREFIX, "templates/b.json")).thenReturn(objects("templates/c.json"));
+        CmsResponse cmsResponse = new CmsResponse();
+        when(s3Service.downloadTemplate(BUCKET, "templates/c.json")).thenReturn(cmsResponse);
+        MessageTemplate template = MessageTemplate.builder().id("t3").build();
+        when(templateTransformer.transform(cmsResponse)).thenReturn(template);
+        when(dynamoDBService.saveTemplate(template)).thenReturn(WriteOutcome.WRITTEN);
+
+        // When
+        BackfillCheckpoint result = backfillService.run(BUCKET, PREFIX);
+
+        // Then
+        assertEquals(3, result.getWritten());
+        assertEquals("templates/c.json", result.getStartAfter());
+        assertTrue(result.isCompleted());
+    }
+
+    @Test
+    void run_CompletedCheckpoint_StartsFromTheBeginning() throws Exception {
+        // Given
+        objectMapper.writeValue(checkpointFile.toFile(), BackfillCheckpoint.builder()
+                .bucket(BUCKET).prefix(PREFIX).startAfter("templates/c.json").written(3).completed(true).build());
+        when(s3Service.listTemplates(BUCKET, PREFIX, null)).thenReturn(objects());
+
+        // When
+        BackfillCheckpoint result = backfillService.run(BUCKET, PREFIX);
+
+        // Then
+        assertEquals(0, result.processed());
+        assertTrue(result.isCompleted());
+    }
+
+    @Test
+    void run_FailedObject_IsRecordedWithoutStoppingTheBackfill() throws Exception {
+        // Given
+        when(s3Service.listTemplates(BUCKET, PREFIX, null))
+                .thenReturn(objects("templates/a.json", "templates/b.json"));
+        CmsResponse cmsResponse = new CmsResponse();
+        when(s3Service.downloadTemplate(BUCKET, "templates/a.json"))
+                .thenThrow(new TemplateDownloadException("Failed to download template from S3", new RuntimeException()));
+        when(s3Service.downloadTemplate(BUCKET, "templates/b.json")).thenReturn(cmsResponse);
+        MessageTemplate template = MessageTemplate.builder().id("t2").build();
+        when(templateTransformer.transform(cmsResponse)).thenReturn(template);
+        when(dynamoDBService.saveTemplate(template)).thenReturn(WriteOutcome.WRITTEN);
+
+        // When
+        BackfillCheckpoint result = backfillService.run(BUCKET, PREFIX);
+
+        // Then
+        assertEquals(1, result.getWritten());
+        assertEquals(1, result.getFailed());
+        assertEquals(List.of("templates/a.json"), result.getFailedKeys());
+        assertEquals("templates/b.json", result.getStartAfter());
+    }
+
+    @Test
+    void run_ListingFails_KeepsCheckpointBeforeUnfinishedObjects() throws Exception {
+        // Given
+        when(s3Service.listTemplates(BUCKET, PREFIX, null)).thenReturn(() -> Stream.<S3Object>concat(
+                Stream.of(S3Object.builder().key("templates/a.json").build()),
+                Stream.generate(() -> {
+                    throw new IllegalStateException("ListObjectsV2 failed");
+                })).iterator());
+        CmsResponse cmsResponse = new CmsResponse();
+        when(s3Service.downloadTemplate(BUCKET, "templates/a.json")).thenReturn(cmsResponse);
+        when(templateTransformer.transform(cmsResponse)).thenReturn(null);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> backfillService.run(BUCKET, PREFIX));
+        BackfillCheckpoint saved = objectMapper.readValue(checkpointFile.toFile(), BackfillCheckpoint.class);
+        assertFalse(saved.isCompleted());
+    }
+
+    @Test
+    void progress_CheckpointOnlyAdvancesPastContiguouslyFinishedObjects() {
+        BackfillService.Progress progress = new BackfillService.Progress(BackfillCheckpoint.builder().build());
+        long a = progress.start("a");
+        long b = progress.start("b");
+        long c = progress.start("c");
+
+        progress.finish(b, "b", WriteOutcome.WRITTEN);
+        progress.finish(c, "c", WriteOutcome.SKIPPED);
+        assertNull(progress.snapshot().getStartAfter());
+
+        progress.finish(a, "a", null);
+        assertEquals("c", progress.snapshot().getStartAfter());
+        assertEquals(3, progress.snapshot().processed());
+        assertEquals(0, progress.inFlight());
+    }
+
+    private static Iterable<S3Object> objects(String... keys) {
+        return Stream.of(keys).map(key -> S3Object.builder().key(key).build()).toList();
+    }
+}
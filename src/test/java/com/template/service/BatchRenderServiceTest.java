@@ -0,0 +1,150 @@
+package com.template.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.model.domain.CompiledTemplate;
+import com.template.model.domain.MessageTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRenderServiceTest {
+
+    private final BatchRenderService service = new BatchRenderService(new ObjectMapper(), new TemplateRenderer());
+
+    @Test
+    void render_RowsWithAllParameters_AreRenderedInOrder() throws IOException {
+        // Given
+        MessageTemplate template = template();
+
+        // When
+        String output = render(template, """
+                {"name":"Ada","destination":"Bern"}
+                {"name":"Grace","destination":"Zürich \\"HB\\""}
+                """);
+
+        // Then
+        assertEquals("""
+                {"row":1,"subject":"Trip to Bern","body":"Hello Ada, your train to Bern is on time"}
+                {"row":2,"subject":"Trip to Zürich \\"HB\\"","body":"Hello Grace, your train to Zürich \\"HB\\" is on time"}
+                """, output);
+    }
+
+    @Test
+    void render_InvalidRows_ReportErrorsWithoutAbortingTheStream() throws IOException {
+        // Given
+        MessageTemplate template = template();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        BatchRenderService.Summary summary = service.render(template, input("""
+                {"name":"Ada"}
+                {"name":
+                [1,2]
+                null
+                {"name":"Grace","destination":null}
+                {"name":"Linus","destination":"Basel"}
+                """), out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(6, lines.length);
+        assertEquals("{\"row\":1,\"error\":\"Missing parameters\",\"missing\":[\"destination\"]}", lines[0]);
+        assertTrue(lines[1].startsWith("{\"row\":2,\"error\":\"Row is not a JSON object"));
+        assertTrue(lines[2].startsWith("{\"row\":3,\"error\":\"Row is not a JSON object"));
+        assertEquals("{\"row\":4,\"error\":\"Row is not a JSON object\"}", lines[3]);
+        assertEquals("{\"row\":5,\"error\":\"Missing parameters\",\"missing\":[\"destination\"]}", lines[4]);
+        assertTrue(lines[5].contains("\"body\":\"Hello Linus, your train to Basel is on time\""));
+        assertEquals(new BatchRenderService.Summary(6, 5), summary);
+    }
+
+    @Test
+    void render_TemplateWithoutCompiledForms_CompilesThemFromText() throws IOException {
+        // Given
+        MessageTemplate template = MessageTemplate.builder()
+                .id("t1")
+                .subject("Trip to {destination}")
+                .body("Hello {name}")
+                .parameters(List.of("name", "destination"))
+                .build();
+
+        // When
+        String output = render(template, "{\"name\":\"Ada\",\"destination\":\"Bern\"}");
+
+        // Then
+        assertEquals("{\"row\":1,\"subject\":\"Trip to Bern\",\"body\":\"Hello Ada\"}\n", output);
+    }
+
+    @Test
+    void render_FlushesBeforeWaitingForMoreRows() throws IOException {
+        // Given
+        AtomicInteger flushes = new AtomicInteger();
+        OutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        // Hands out one row per read, like a client that sends rows as it produces them
+        InputStream rows = new ByteArrayInputStream("""
+                {"name":"Ada","destination":"Bern"}
+                {"name":"Grace","destination":"Basel"}
+                """.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                int end = indexOf('\n');
+                return super.read(b, off, end < 0 ? len : Math.min(len, end + 1));
+            }
+
+            @Override
+            public synchronized int available() {
+                return 0;
+            }
+
+            private int indexOf(char c) {
+                for (int i = pos; i < count; i++) {
+                    if (buf[i] == c) {
+                        return i - pos;
+                    }
+                }
+                return -1;
+            }
+        };
+
+        // When
+        service.render(template(), rows, out);
+
+        // Then
+        assertTrue(flushes.get() >= 2);
+    }
+
+    private String render(MessageTemplate template, String rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.render(template, input(rows), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static InputStream input(String rows) {
+        return new ByteArrayInputStream(rows.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MessageTemplate template() {
+        List<String> parameters = List.of("name", "destination");
+        return MessageTemplate.builder()
+                .id("t1")
+                .subject("Trip to {destination}")
+                .body("Hello {name}, your train to {destination} is on time")
+                .parameters(parameters)
+                .compiledSubject(CompiledTemplate.parse("Trip to {destination}", parameters))
+                .compiledBody(CompiledTemplate.parse("Hello {name}, your train to {destination} is on time", parameters))
+                .build();
+    }
+}
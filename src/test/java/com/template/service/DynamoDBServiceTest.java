@@ -1,23 +1,36 @@
 package com.template.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.metrics.PipelineMetrics;
+import com.template.model.domain.CompiledTemplate;
+import com.template.model.domain.ContentHash;
 import com.template.model.domain.MessageTemplate;
 import com.template.model.domain.TrafficType;
+import com.template.model.domain.WriteOutcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import com.template.exception.TemplatePersistenceException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,6 +42,9 @@ class DynamoDBServiceTest {
     @Mock
     private DynamoDbClient dynamoDbClient;
 
+    @Mock
+    private DynamoDbAsyncClient dynamoDbAsyncClient;
+
     @Mock
     private ObjectMapper objectMapper;
 
@@ -37,15 +53,92 @@ class DynamoDBServiceTest {
 
     private DynamoDBService dynamoDBService;
 
+    private SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         objectMapper = new ObjectMapper();
-        dynamoDBService = new DynamoDBService(dynamoDbClient, objectMapper);
+        meterRegistry = new SimpleMeterRegistry();
+        dynamoDBService = new DynamoDBService(dynamoDbClient, dynamoDbAsyncClient, objectMapper,
+                new PipelineMetrics(meterRegistry));
     }
 
     @Test
     void saveTemplate_Success() {
+        // Given
+        MessageTemplate template = createTestTemplate();
+        when(dynamoDbClient.putItem(any(PutItemRequest.class)))
+            .thenReturn(PutItemResponse.builder()
+                .consumedCapacity(ConsumedCapacity.builder().tableName("dynamodb-table").capacityUnits(2.0).build())
+                .build());
+
+        // When
+        dynamoDBService.saveTemplate(template);
+
+        // Then
+        verify(dynamoDbClient).putItem(putItemRequestCaptor.capture());
+        assertEquals(ReturnConsumedCapacity.TOTAL, putItemRequestCaptor.getValue().returnConsumedCapacity());
+        assertEquals(1, meterRegistry.get(PipelineMetrics.DYNAMODB_WRITE).tag("outcome", "written").timer().count());
+        assertEquals(2.0, meterRegistry.get(PipelineMetrics.DYNAMODB_CONSUMED_CAPACITY)
+            .tag("operation", "PutItem").summary().totalAmount());
+    }
+
+    @Test
+    void saveTemplate_WritesConditionallyOnRevisionAndContentHash() {
+        // Given
+        MessageTemplate template = createTestTemplate();
+        template.setRevision(3);
+        template.setUpdatedAt("2025-01-01T00:00:00.001Z");
+        when(dynamoDbClient.putItem(any(PutItemRequest.class)))
+            .thenReturn(PutItemResponse.builder().build());
+
+        // When
+        WriteOutcome outcome = dynamoDBService.saveTemplate(template);
+
+        // Then
+        assertEquals(WriteOutcome.WRITTEN, outcome);
+        verify(dynamoDbClient).putItem(putItemRequestCaptor.capture());
+        PutItemRequest request = putItemRequestCaptor.getValue();
+        assertEquals("attribute_not_exists(PK) OR attribute_not_exists(revision) OR revision < :rev"
+                + " OR (revision = :rev AND (attribute_not_exists(contentHash) OR contentHash <> :hash"
+                + " OR attribute_not_exists(schemaVersion) OR schemaVersion < :schema))",
+            request.conditionExpression());
+        assertEquals("3", request.expressionAttributeValues().get(":rev").n());
+        assertEquals(Integer.toString(DynamoDBService.ITEM_SCHEMA_VERSION),
+            request.expressionAttributeValues().get(":schema").n());
+        assertEquals(request.expressionAttributeValues().get(":schema"), request.item().get("schemaVersion"));
+        assertEquals(ContentHash.of(template), request.expressionAttributeValues().get(":hash").s());
+        assertEquals("3", request.item().get("revision").n());
+        assertEquals("2025-01-01T00:00:00.001Z", request.item().get("updatedAt").s());
+        assertEquals(ContentHash.of(template), request.item().get("contentHash").s());
+    }
+
+    @Test
+    void buildConditionalPut_NewerRevisionOnlyRenaming_IsNotGatedOnContentHash() {
+        // Given
+        MessageTemplate stored = createTestTemplate();
+        stored.setRevision(3);
+        MessageTemplate renamed = createTestTemplate();
+        renamed.setRevision(4);
+        renamed.setName("Renamed Template");
+        renamed.setTrafficType(TrafficType.builder().key("REGIONAL").name("Regional").build());
+
+        // When
+        PutItemRequest request = dynamoDBService.buildConditionalPut(renamed);
+
+        // Then
+        // The content hash is unchanged, so only the revision can let the rename through
+        assertEquals(ContentHash.of(stored), request.expressionAttributeValues().get(":hash").s());
+        String[] alternatives = request.conditionExpression().split(" OR \\(revision = :rev AND ")[0].split(" OR ");
+        assertTrue(List.of(alternatives).contains("revision < :rev"));
+        assertEquals("4", request.expressionAttributeValues().get(":rev").n());
+        assertEquals("Renamed Template", request.item().get("name").s());
+        assertEquals("TRAFFICTYPE#REGIONAL", request.item().get("GSI_PK").s());
+    }
+
+    @Test
+    void saveTemplate_WithoutRevision_ConditionsOnContentHashOnly() {
         // Given
         MessageTemplate template = createTestTemplate();
         when(dynamoDbClient.putItem(any(PutItemRequest.class)))
@@ -55,7 +148,228 @@ class DynamoDBServiceTest {
         dynamoDBService.saveTemplate(template);
 
         // Then
-        verify(dynamoDbClient).putItem(any(PutItemRequest.class));
+        verify(dynamoDbClient).putItem(putItemRequestCaptor.capture());
+        PutItemRequest request = putItemRequestCaptor.getValue();
+        assertFalse(request.conditionExpression().contains(":rev"));
+        assertFalse(request.expressionAttributeValues().containsKey(":rev"));
+        assertNull(request.item().get("revision"));
+    }
+
+    @Test
+    void saveTemplate_StaleOrUnchanged_ReturnsSkipped() {
+        // Given
+        MessageTemplate template = createTestTemplate();
+        when(dynamoDbClient.putItem(any(PutItemRequest.class)))
+            .thenThrow(ConditionalCheckFailedException.builder().message("The conditional request failed").build());
+
+        // When
+        WriteOutcome outcome = dynamoDBService.saveTemplate(template);
+
+        // Then
+        assertEquals(WriteOutcome.SKIPPED, outcome);
+        assertEquals(1, dynamoDBService.getSkippedWriteCount());
+        assertEquals(1, meterRegistry.get(PipelineMetrics.DYNAMODB_WRITE).tag("outcome", "skipped").timer().count());
+    }
+
+    @Test
+    void saveTemplate_DynamoDbError_ThrowsPersistenceException() {
+        // Given
+        when(dynamoDbClient.putItem(any(PutItemRequest.class)))
+            .thenThrow(DynamoDbException.builder().message("boom").build());
+
+        // When & Then
+        assertThrows(TemplatePersistenceException.class, () -> dynamoDBService.saveTemplate(createTestTemplate()));
+        assertEquals(1, meterRegistry.get(PipelineMetrics.DYNAMODB_WRITE).tag("outcome", "failed").timer().count());
+    }
+
+    @Test
+    void saveTemplateAsync_ConditionFailed_ReturnsSkipped() {
+        // Given
+        when(dynamoDbAsyncClient.putItem(any(PutItemRequest.class)))
+            .thenReturn(CompletableFuture.failedFuture(
+                ConditionalCheckFailedException.builder().message("The conditional request failed").build()));
+
+        // When
+        WriteOutcome outcome = dynamoDBService.saveTemplateAsync(createTestTemplate()).join();
+
+        // Then
+        assertEquals(WriteOutcome.SKIPPED, outcome);
+    }
+
+    @Test
+    void saveTemplateAsync_Success() {
+        // Given
+        MessageTemplate template = createTestTemplate();
+        when(dynamoDbAsyncClient.putItem(any(PutItemRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(PutItemResponse.builder().build()));
+
+        // When
+        dynamoDBService.saveTemplateAsync(template).join();
+
+        // Then
+        verify(dynamoDbAsyncClient).putItem(putItemRequestCaptor.capture());
+        assertEquals("TEMPLATE#test-id", putItemRequestCaptor.getValue().item().get("PK").s());
+        verifyNoInteractions(dynamoDbClient);
+    }
+
+    @Test
+    void saveTemplateAsync_Failure() {
+        // Given
+        MessageTemplate template = createTestTemplate();
+        when(dynamoDbAsyncClient.putItem(any(PutItemRequest.class)))
+            .thenReturn(CompletableFuture.failedFuture(DynamoDbException.builder().message("boom").build()));
+
+        // When
+        CompletableFuture<WriteOutcome> result = dynamoDBService.saveTemplateAsync(template);
+
+        // Then
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(TemplatePersistenceException.class, exception.getCause());
+    }
+
+    @Test
+    void saveTemplate_ThrottledWithWriteLimiter_RetriesInsteadOfFailing() {
+        // Given
+        AdaptiveWriteLimiter limiter = enableWriteLimiter(new AtomicLong(), Duration.ofSeconds(20));
+        ProvisionedThroughputExceededException throttled = ProvisionedThroughputExceededException.builder()
+            .message("Throughput exceeds the provisioned capacity").build();
+        when(dynamoDbClient.putItem(any(PutItemRequest.class)))
+            .thenThrow(throttled, throttled)
+            .thenReturn(PutItemResponse.builder().build());
+
+        // When
+        WriteOutcome outcome = dynamoDBService.saveTemplate(createTestTemplate());
+
+        // Then
+        assertEquals(WriteOutcome.WRITTEN, outcome);
+        verify(dynamoDbClient, times(3)).putItem(any(PutItemRequest.class));
+        assertEquals(2, meterRegistry.get(PipelineMetrics.DYNAMODB_THROTTLED)
+            .tag("operation", "PutItem").counter().count());
+        // Both throttles fall into one adjustment interval, so the rate is halved once
+        assertEquals(50.0, limiter.rate());
+    }
+
+    @Test
+    void saveTemplate_ThrottledPastMaxWait_ThrowsPersistenceException() {
+        // Given
+        enableWriteLimiter(new AtomicLong(), Duration.ofMillis(100));
+        when(dynamoDbClient.putItem(any(PutItemRequest.class)))
+            .thenThrow(ProvisionedThroughputExceededException.builder().message("throttled").build());
+
+        // When & Then
+        assertThrows(TemplatePersistenceException.class, () -> dynamoDBService.saveTemplate(createTestTemplate()));
+        assertEquals(1, meterRegistry.get(PipelineMetrics.DYNAMODB_WRITE).tag("outcome", "failed").timer().count());
+    }
+
+    @Test
+    void saveTemplateAsync_ThrottledWithWriteLimiter_RetriesInsteadOfFailing() {
+        // Given
+        enableWriteLimiter(new AtomicLong(), Duration.ofSeconds(20));
+        when(dynamoDbAsyncClient.putItem(any(PutItemRequest.class)))
+            .thenReturn(CompletableFuture.failedFuture(
+                ProvisionedThroughputExceededException.builder().message("throttled").build()))
+            .thenReturn(CompletableFuture.completedFuture(PutItemResponse.builder().build()));
+
+        // When
+        WriteOutcome outcome = dynamoDBService.saveTemplateAsync(createTestTemplate()).join();
+
+        // Then
+        assertEquals(WriteOutcome.WRITTEN, outcome);
+        verify(dynamoDbAsyncClient, times(2)).putItem(any(PutItemRequest.class));
+    }
+
+    @Test
+    void saveTemplateBuffered_WritesThroughBatchWriteItem() {
+        // Given
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+            .thenReturn(BatchWriteItemResponse.builder().build());
+
+        // When
+        CompletableFuture<WriteOutcome> result = dynamoDBService.saveTemplateBuffered(createTestTemplate());
+        dynamoDBService.closeWriteBuffer();
+
+        // Then
+        assertEquals(WriteOutcome.WRITTEN, result.join());
+        ArgumentCaptor<BatchWriteItemRequest> captor = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+        verify(dynamoDbClient).batchWriteItem(captor.capture());
+        WriteRequest write = captor.getValue().requestItems().get("dynamodb-table").get(0);
+        assertEquals("TEMPLATE#test-id", write.putRequest().item().get("PK").s());
+        verify(dynamoDbClient, never()).putItem(any(PutItemRequest.class));
+    }
+
+    @Test
+    void saveTemplates_WritesExportInBatchesOf25() {
+        // Given
+        when(dynamoDbAsyncClient.batchGetItem(any(BatchGetItemRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(BatchGetItemResponse.builder().build()));
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+            .thenReturn(BatchWriteItemResponse.builder().build());
+        List<MessageTemplate> templates = java.util.stream.IntStream.range(0, 30)
+            .mapToObj(i -> MessageTemplate.builder().id("test-id-" + i).key("KEY_" + i).build())
+            .toList();
+
+        // When
+        List<WriteOutcome> outcomes = dynamoDBService.saveTemplates(templates);
+
+        // Then
+        assertEquals(30, outcomes.size());
+        assertTrue(outcomes.stream().allMatch(WriteOutcome.WRITTEN::equals));
+        ArgumentCaptor<BatchWriteItemRequest> captor = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+        verify(dynamoDbClient, times(2)).batchWriteItem(captor.capture());
+        assertEquals(List.of(25, 5), captor.getAllValues().stream()
+            .map(request -> request.requestItems().get("dynamodb-table").size())
+            .toList());
+        verify(dynamoDbClient, never()).putItem(any(PutItemRequest.class));
+    }
+
+    @Test
+    void saveTemplates_ExportOlderThanStoredItem_SkipsIt() {
+        // Given
+        MessageTemplate stale = MessageTemplate.builder().id("stale").key("STALE").revision(3).build();
+        MessageTemplate newer = MessageTemplate.builder().id("newer").key("NEWER").revision(5).build();
+        MessageTemplate added = MessageTemplate.builder().id("added").key("ADDED").revision(1).build();
+        when(dynamoDbAsyncClient.batchGetItem(any(BatchGetItemRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(BatchGetItemResponse.builder()
+                .responses(Map.of("dynamodb-table", List.of(
+                    storedVersion("stale", 4, "stored-hash"),
+                    storedVersion("newer", 4, "stored-hash"))))
+                .build()));
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+            .thenReturn(BatchWriteItemResponse.builder().build());
+
+        // When
+        List<WriteOutcome> outcomes = dynamoDBService.saveTemplates(List.of(stale, newer, added));
+
+        // Then
+        assertEquals(List.of(WriteOutcome.SKIPPED, WriteOutcome.WRITTEN, WriteOutcome.WRITTEN), outcomes);
+        ArgumentCaptor<BatchGetItemRequest> read = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+        verify(dynamoDbAsyncClient).batchGetItem(read.capture());
+        assertEquals(3, read.getValue().requestItems().get("dynamodb-table").keys().size());
+        ArgumentCaptor<BatchWriteItemRequest> written = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+        verify(dynamoDbClient).batchWriteItem(written.capture());
+        assertEquals(List.of("TEMPLATE#newer", "TEMPLATE#added"), written.getValue().requestItems()
+            .get("dynamodb-table").stream()
+            .map(write -> write.putRequest().item().get("PK").s())
+            .toList());
+        assertEquals(1, dynamoDBService.getSkippedWriteCount());
+    }
+
+    @Test
+    void isWriteNeeded_MatchesConditionalPut() {
+        MessageTemplate template = MessageTemplate.builder().id("t1").key("T1").revision(2).build();
+        String hash = ContentHash.of(template);
+
+        assertTrue(DynamoDBService.isWriteNeeded(template, null));
+        assertTrue(DynamoDBService.isWriteNeeded(template, storedVersion("t1", 1, hash)));
+        assertFalse(DynamoDBService.isWriteNeeded(template, storedVersion("t1", 3, "other")));
+        assertFalse(DynamoDBService.isWriteNeeded(template, storedVersion("t1", 2, hash)));
+        assertTrue(DynamoDBService.isWriteNeeded(template, storedVersion("t1", 2, "other")));
+        Map<String, AttributeValue> withoutSchema = new HashMap<>(storedVersion("t1", 2, hash));
+        withoutSchema.remove("schemaVersion");
+        assertTrue(DynamoDBService.isWriteNeeded(template, withoutSchema));
+        template.setRevision(null);
+        assertTrue(DynamoDBService.isWriteNeeded(template, storedVersion("t1", 3, "other")));
+        assertFalse(DynamoDBService.isWriteNeeded(template, storedVersion("t1", 3, hash)));
     }
 
     @Test
@@ -64,12 +378,8 @@ class DynamoDBServiceTest {
         String templateId = "test-id";
         Map<String, AttributeValue> item = createTestItem();
         
-        QueryResponse queryResponse = QueryResponse.builder()
-            .items(List.of(item))
-            .build();
-            
-        when(dynamoDbClient.query(any(QueryRequest.class)))
-            .thenReturn(queryResponse);
+        when(dynamoDbClient.getItem(any(GetItemRequest.class)))
+            .thenReturn(GetItemResponse.builder().item(item).build());
 
         // When
         MessageTemplate result = dynamoDBService.findTemplateById(templateId);
@@ -79,6 +389,293 @@ class DynamoDBServiceTest {
         assertEquals(templateId, result.getId());
         assertEquals("TEST_KEY", result.getKey());
         assertEquals("LONG_DISTANCE", result.getTrafficType().getKey());
+
+        ArgumentCaptor<GetItemRequest> captor = ArgumentCaptor.forClass(GetItemRequest.class);
+        verify(dynamoDbClient).getItem(captor.capture());
+        assertEquals("TEMPLATE#test-id", captor.getValue().key().get("PK").s());
+        assertEquals("METADATA", captor.getValue().key().get("SK").s());
+        assertNull(captor.getValue().projectionExpression());
+        verify(dynamoDbClient, never()).query(any(QueryRequest.class));
+    }
+
+    @Test
+    void migrateLegacySortKeys_MovesLegacyItemsAndDeletesThem() {
+        // Given
+        Map<String, AttributeValue> moved = legacyItem("id-1", "COMMUTER");
+        Map<String, AttributeValue> superseded = legacyItem("id-2", "LONG_DISTANCE");
+        when(dynamoDbClient.scan(any(ScanRequest.class)))
+            .thenReturn(ScanResponse.builder().items(List.of(moved)).lastEvaluatedKey(lastKey("id-1")).build())
+            .thenReturn(ScanResponse.builder().items(List.of(superseded)).build());
+        when(dynamoDbClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+            .thenReturn(TransactWriteItemsResponse.builder().build())
+            .thenThrow(TransactionCanceledException.builder()
+                .cancellationReasons(CancellationReason.builder().code("ConditionalCheckFailed").build(),
+                    CancellationReason.builder().code("None").build())
+                .build());
+
+        // When
+        DynamoDBService.LegacyMigrationResult result = dynamoDBService.migrateLegacySortKeys();
+
+        // Then
+        assertEquals(new DynamoDBService.LegacyMigrationResult(1, 1), result);
+        ArgumentCaptor<ScanRequest> scans = ArgumentCaptor.forClass(ScanRequest.class);
+        verify(dynamoDbClient, times(2)).scan(scans.capture());
+        assertEquals("begins_with(SK, :legacy)", scans.getValue().filterExpression());
+        assertEquals(lastKey("id-1"), scans.getValue().exclusiveStartKey());
+        ArgumentCaptor<TransactWriteItemsRequest> transactions = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        verify(dynamoDbClient, times(2)).transactWriteItems(transactions.capture());
+        TransactWriteItemsRequest first = transactions.getAllValues().get(0);
+        Put put = first.transactItems().get(0).put();
+        assertEquals("METADATA", put.item().get("SK").s());
+        assertEquals("TRAFFICTYPE#COMMUTER", put.item().get("GSI_PK").s());
+        assertEquals("attribute_not_exists(PK)", put.conditionExpression());
+        assertEquals("METADATA#COMMUTER", first.transactItems().get(1).delete().key().get("SK").s());
+        ArgumentCaptor<DeleteItemRequest> delete = ArgumentCaptor.forClass(DeleteItemRequest.class);
+        verify(dynamoDbClient).deleteItem(delete.capture());
+        assertEquals("METADATA#LONG_DISTANCE", delete.getValue().key().get("SK").s());
+    }
+
+    @Test
+    void migrateLegacySortKeys_OtherCancellation_Fails() {
+        // Given
+        when(dynamoDbClient.scan(any(ScanRequest.class)))
+            .thenReturn(ScanResponse.builder().items(List.of(legacyItem("id-1", "COMMUTER"))).build());
+        when(dynamoDbClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+            .thenThrow(TransactionCanceledException.builder()
+                .cancellationReasons(CancellationReason.builder().code("TransactionConflict").build())
+                .build());
+
+        // When & Then
+        assertThrows(TemplatePersistenceException.class, () -> dynamoDBService.migrateLegacySortKeys());
+        verify(dynamoDbClient, never()).deleteItem(any(DeleteItemRequest.class));
+    }
+
+    @Test
+    void findTemplateById_WithProjection_ReadsOnlyRequestedAttributes() {
+        // Given
+        when(dynamoDbClient.getItem(any(GetItemRequest.class)))
+            .thenReturn(GetItemResponse.builder().item(Map.of(
+                "id", AttributeValue.builder().s("test-id").build(),
+                "key", AttributeValue.builder().s("TEST_KEY").build(),
+                "body", AttributeValue.builder().s("Hello {PARAM1}").build())).build());
+
+        // When
+        MessageTemplate result = dynamoDBService.findTemplateById("test-id", "key", "body");
+
+        // Then
+        ArgumentCaptor<GetItemRequest> captor = ArgumentCaptor.forClass(GetItemRequest.class);
+        verify(dynamoDbClient).getItem(captor.capture());
+        assertEquals("#PK, #SK, #id, #key, #body, #parameters", captor.getValue().projectionExpression());
+        assertEquals(Map.of("#PK", "PK", "#SK", "SK", "#id", "id", "#key", "key", "#body", "body",
+                "#parameters", "parameters"),
+            captor.getValue().expressionAttributeNames());
+
+        assertEquals("TEST_KEY", result.getKey());
+        assertEquals("Hello {PARAM1}", result.getBody());
+        assertNull(result.getSubject());
+        assertNull(result.getName());
+        assertNull(result.getCompiledSubject());
+    }
+
+    @Test
+    void findTemplatesByIds_BatchesKeysAndRetriesUnprocessed() {
+        // Given
+        List<String> ids = IntStream.range(0, 150).mapToObj(i -> "id-" + i).toList();
+        Map<String, AttributeValue> unprocessedKey = Map.of(
+            "PK", AttributeValue.builder().s("TEMPLATE#id-1").build(),
+            "SK", AttributeValue.builder().s("METADATA").build());
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+            .thenReturn(BatchGetItemResponse.builder()
+                .responses(Map.of("dynamodb-table", List.of(itemWithId("id-0"))))
+                .unprocessedKeys(Map.of("dynamodb-table", KeysAndAttributes.builder().keys(unprocessedKey).build()))
+                .build())
+            .thenReturn(BatchGetItemResponse.builder()
+                .responses(Map.of("dynamodb-table", List.of(itemWithId("id-1"))))
+                .build())
+            .thenReturn(BatchGetItemResponse.builder()
+                .responses(Map.of("dynamodb-table", List.of(itemWithId("id-149"))))
+                .build());
+
+        // When
+        Map<String, MessageTemplate> result = dynamoDBService.findTemplatesByIds(ids, "body");
+
+        // Then
+        assertEquals(List.of("id-0", "id-1", "id-149"), List.copyOf(result.keySet()));
+        ArgumentCaptor<BatchGetItemRequest> captor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+        verify(dynamoDbClient, times(3)).batchGetItem(captor.capture());
+        assertEquals(100, captor.getAllValues().get(0).requestItems().get("dynamodb-table").keys().size());
+        assertEquals(1, captor.getAllValues().get(1).requestItems().get("dynamodb-table").keys().size());
+        assertEquals(50, captor.getAllValues().get(2).requestItems().get("dynamodb-table").keys().size());
+        assertEquals("#PK, #SK, #id, #body, #parameters", captor.getAllValues().get(0).requestItems().get("dynamodb-table").projectionExpression());
+        verify(dynamoDbClient, never()).query(any(QueryRequest.class));
+    }
+
+    @Test
+    void findTemplatesByIds_UnprocessedAfterMaxAttempts_ThrowsPersistenceException() {
+        // Given
+        Map<String, AttributeValue> key = Map.of(
+            "PK", AttributeValue.builder().s("TEMPLATE#id-0").build(),
+            "SK", AttributeValue.builder().s("METADATA").build());
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+            .thenReturn(BatchGetItemResponse.builder()
+                .unprocessedKeys(Map.of("dynamodb-table", KeysAndAttributes.builder().keys(key).build()))
+                .build());
+
+        // When & Then
+        assertThrows(TemplatePersistenceException.class, () -> dynamoDBService.findTemplatesByIds(List.of("id-0")));
+        verify(dynamoDbClient, times(5)).batchGetItem(any(BatchGetItemRequest.class));
+        assertEquals(4, meterRegistry.get(PipelineMetrics.RETRIES).tag("operation", "BatchGetItem").counter().count());
+    }
+
+    @Test
+    void findTemplatesByTrafficType_MultiplePages_ReadsAllWithReadAhead() {
+        // Given
+        when(dynamoDbClient.query(any(QueryRequest.class)))
+            .thenReturn(page(List.of(gsiItem("id-1", "METADATA")), lastKey("id-1")));
+        when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(page(List.of(gsiItem("id-2", "METADATA")), lastKey("id-2"))))
+            .thenReturn(CompletableFuture.completedFuture(page(List.of(gsiItem("id-3", "METADATA")), null)));
+
+        // When
+        List<MessageTemplate> result = dynamoDBService.findTemplatesByTrafficType("LONG_DISTANCE");
+
+        // Then
+        assertEquals(List.of("id-1", "id-2", "id-3"), result.stream().map(MessageTemplate::getId).toList());
+        ArgumentCaptor<QueryRequest> captor = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDbAsyncClient, times(2)).query(captor.capture());
+        assertEquals("TEMPLATE#id-1", captor.getAllValues().get(0).exclusiveStartKey().get("GSI_SK").s());
+        assertEquals("TEMPLATE#id-2", captor.getAllValues().get(1).exclusiveStartKey().get("GSI_SK").s());
+        verify(dynamoDbClient, times(1)).query(any(QueryRequest.class));
+    }
+
+    @Test
+    void streamTemplatesByTrafficType_RequestsPagesOnDemand() {
+        // Given
+        when(dynamoDbClient.query(any(QueryRequest.class)))
+            .thenReturn(page(List.of(gsiItem("id-1", "METADATA"), gsiItem("id-2", "METADATA")), lastKey("id-2")))
+            .thenReturn(page(List.of(gsiItem("id-3", "METADATA")), null));
+
+        // When
+        String first;
+        try (var templates = dynamoDBService.streamTemplatesByTrafficType("LONG_DISTANCE", 2, false, "subject")) {
+            first = templates.findFirst().orElseThrow().getId();
+        }
+
+        // Then
+        assertEquals("id-1", first);
+        ArgumentCaptor<QueryRequest> captor = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDbClient, times(1)).query(captor.capture());
+        assertEquals(2, captor.getValue().limit());
+        assertEquals("#PK, #SK, #id, #subject, #parameters", captor.getValue().projectionExpression());
+        verifyNoInteractions(dynamoDbAsyncClient);
+    }
+
+    @Test
+    void streamTemplatesByTrafficType_Close_CancelsReadAhead() {
+        // Given
+        CompletableFuture<QueryResponse> nextPage = new CompletableFuture<>();
+        when(dynamoDbClient.query(any(QueryRequest.class)))
+            .thenReturn(page(List.of(gsiItem("id-1", "METADATA"), gsiItem("id-2", "METADATA")), lastKey("id-2")));
+        when(dynamoDbAsyncClient.query(any(QueryRequest.class))).thenReturn(nextPage);
+
+        // When
+        try (var templates = dynamoDBService.streamTemplatesByTrafficType("LONG_DISTANCE", 2, true)) {
+            assertEquals("id-1", templates.findFirst().orElseThrow().getId());
+        }
+
+        // Then
+        assertTrue(nextPage.isCancelled());
+    }
+
+    @Test
+    void streamTemplatesByTrafficType_ReadAheadFails_ThrowsPersistenceException() {
+        // Given
+        when(dynamoDbClient.query(any(QueryRequest.class)))
+            .thenReturn(page(List.of(gsiItem("id-1", "METADATA")), lastKey("id-1")));
+        when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+            .thenReturn(CompletableFuture.failedFuture(DynamoDbException.builder().message("boom").build()));
+
+        // When & Then
+        assertThrows(TemplatePersistenceException.class,
+            () -> dynamoDBService.findTemplatesByTrafficType("LONG_DISTANCE"));
+    }
+
+    @Test
+    void findTemplatesByTrafficType_LegacyItemOnPreviousPage_ReturnsCurrentOnly() {
+        // Given
+        when(dynamoDbClient.query(any(QueryRequest.class)))
+            .thenReturn(page(List.of(gsiItem("id-1", "METADATA#LONG_DISTANCE")), lastKey("id-1")));
+        when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(
+                page(List.of(gsiItem("id-1", "METADATA"), gsiItem("id-2", "METADATA#LONG_DISTANCE")), null)));
+
+        // When
+        List<MessageTemplate> result = dynamoDBService.findTemplatesByTrafficType("LONG_DISTANCE");
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals("current", result.get(0).getSubject());
+        assertEquals("legacy", result.get(1).getSubject());
+    }
+
+    @Test
+    void findTemplatesByTrafficType_LegacyAndCurrentItem_ReturnsCurrentOnly() {
+        // Given
+        Map<String, AttributeValue> legacy = new HashMap<>(createTestItem());
+        legacy.put("PK", AttributeValue.builder().s("TEMPLATE#test-id").build());
+        legacy.put("SK", AttributeValue.builder().s("METADATA#LONG_DISTANCE").build());
+        Map<String, AttributeValue> current = new HashMap<>(legacy);
+        current.put("SK", AttributeValue.builder().s("METADATA").build());
+        current.put("subject", AttributeValue.builder().s("New Subject").build());
+
+        when(dynamoDbClient.query(any(QueryRequest.class)))
+            .thenReturn(QueryResponse.builder().items(List.of(legacy, current)).build());
+
+        // When
+        List<MessageTemplate> result = dynamoDBService.findTemplatesByTrafficType("LONG_DISTANCE");
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals("New Subject", result.get(0).getSubject());
+    }
+
+    @Test
+    void findTemplateById_CompiledFormsAreNotStored_CompilesThemOnRead() {
+        // Given
+        MessageTemplate template = createTestTemplate();
+        template.setBody("Hello {PARAM1}, {PARAM2}");
+        template.setCompiledBody(CompiledTemplate.parse(template.getBody(), template.getParameters()));
+        Map<String, AttributeValue> item = dynamoDBService.buildItem(template);
+        assertFalse(item.containsKey("compiledSubject"));
+        assertFalse(item.containsKey("compiledBody"));
+
+        when(dynamoDbClient.getItem(any(GetItemRequest.class)))
+            .thenReturn(GetItemResponse.builder().item(item).build());
+
+        // When
+        MessageTemplate result = dynamoDBService.findTemplateById("test-id");
+
+        // Then
+        assertEquals(template.getCompiledBody(), result.getCompiledBody());
+        assertEquals(List.of("PARAM1", "PARAM2"), result.getCompiledBody().getParameters());
+    }
+
+    @Test
+    void findTemplateById_ItemWithoutCompiledAttributes_CompilesFromText() {
+        // Given
+        Map<String, AttributeValue> item = new HashMap<>(createTestItem());
+        item.put("body", AttributeValue.builder().s("Hello {PARAM1}").build());
+
+        when(dynamoDbClient.getItem(any(GetItemRequest.class)))
+            .thenReturn(GetItemResponse.builder().item(item).build());
+
+        // When
+        MessageTemplate result = dynamoDBService.findTemplateById("test-id");
+
+        // Then
+        assertEquals(1, result.getCompiledBody().getSlotCount());
+        assertEquals("Hello {PARAM1}", result.getCompiledBody().toSource());
+        assertEquals("Test Subject", result.getCompiledSubject().toSource());
     }
 
     @Test
@@ -118,6 +715,8 @@ class DynamoDBServiceTest {
             .body("test-body")
             .parameters(Collections.emptyList())
             .build();
+        when(dynamoDbClient.putItem(any(PutItemRequest.class)))
+            .thenReturn(PutItemResponse.builder().build());
         
         dynamoDBService.saveTemplate(template);
         
@@ -145,17 +744,31 @@ class DynamoDBServiceTest {
     @Test
     void findTemplateById_whenTemplateDoesNotExist_shouldReturnNull() {
         // Setup
-        QueryResponse mockResponse = QueryResponse.builder()
-            .items(Collections.emptyList())
-            .build();
-        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(mockResponse);
+        when(dynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(GetItemResponse.builder().build());
         
         // Execute
         MessageTemplate result = dynamoDBService.findTemplateById("non-existent-id");
         
         // Verify
         assertNull(result);
-        verify(dynamoDbClient).query(any(QueryRequest.class));
+        verify(dynamoDbClient).getItem(any(GetItemRequest.class));
+        verify(dynamoDbClient, never()).query(any(QueryRequest.class));
+    }
+
+    /**
+     * Enables the write limiter with a manual clock that pauses advance instead of sleeping
+     */
+    private AdaptiveWriteLimiter enableWriteLimiter(AtomicLong clock, Duration maxThrottleWait) {
+        AdaptiveWriteLimiter limiter = new AdaptiveWriteLimiter(100, 5, 1000, 10, 0.5,
+            Duration.ofSeconds(1), maxThrottleWait, clock::get) {
+            @Override
+            void pause(long nanos) {
+                clock.addAndGet(nanos);
+            }
+        };
+        ReflectionTestUtils.setField(dynamoDBService, "writeLimiterEnabled", true);
+        ReflectionTestUtils.setField(dynamoDBService, "writeLimiter", limiter);
+        return limiter;
     }
 
     private MessageTemplate createTestTemplate() {
@@ -173,6 +786,36 @@ class DynamoDBServiceTest {
             .build();
     }
 
+    private QueryResponse page(List<Map<String, AttributeValue>> items, Map<String, AttributeValue> lastEvaluatedKey) {
+        return QueryResponse.builder()
+            .items(items)
+            .count(items.size())
+            .lastEvaluatedKey(lastEvaluatedKey)
+            .build();
+    }
+
+    private Map<String, AttributeValue> lastKey(String id) {
+        return Map.of(
+            "PK", AttributeValue.builder().s("TEMPLATE#" + id).build(),
+            "SK", AttributeValue.builder().s("METADATA").build(),
+            "GSI_PK", AttributeValue.builder().s("TRAFFICTYPE#LONG_DISTANCE").build(),
+            "GSI_SK", AttributeValue.builder().s("TEMPLATE#" + id).build());
+    }
+
+    private Map<String, AttributeValue> gsiItem(String id, String sk) {
+        return Map.of(
+            "PK", AttributeValue.builder().s("TEMPLATE#" + id).build(),
+            "SK", AttributeValue.builder().s(sk).build(),
+            "id", AttributeValue.builder().s(id).build(),
+            "subject", AttributeValue.builder().s(sk.equals("METADATA") ? "current" : "legacy").build());
+    }
+
+    private Map<String, AttributeValue> itemWithId(String id) {
+        return Map.of(
+            "id", AttributeValue.builder().s(id).build(),
+            "body", AttributeValue.builder().s("Body").build());
+    }
+
     private Map<String, AttributeValue> createTestItem() {
         return Map.of(
             "id", AttributeValue.builder().s("test-id").build(),
@@ -185,4 +828,23 @@ class DynamoDBServiceTest {
             "parameters", AttributeValue.builder().ss("PARAM1", "PARAM2").build()
         );
     }
-} 
\ No newline at end of file
+
+    private static Map<String, AttributeValue> storedVersion(String id, int revision, String contentHash) {
+        return Map.of(
+            "PK", AttributeValue.builder().s("TEMPLATE#" + id).build(),
+            "SK", AttributeValue.builder().s("METADATA").build(),
+            "id", AttributeValue.builder().s(id).build(),
+            "revision", AttributeValue.builder().n(Integer.toString(revision)).build(),
+            "contentHash", AttributeValue.builder().s(contentHash).build(),
+            "schemaVersion", AttributeValue.builder().n(Integer.toString(DynamoDBService.ITEM_SCHEMA_VERSION)).build());
+    }
+
+    private Map<String, AttributeValue> legacyItem(String id, String trafficType) {
+        Map<String, AttributeValue> item = new HashMap<>(createTestItem());
+        item.put("id", AttributeValue.builder().s(id).build());
+        item.put("PK", AttributeValue.builder().s("TEMPLATE#" + id).build());
+        item.put("SK", AttributeValue.builder().s("METADATA#" + trafficType).build());
+        item.put("trafficTypeKey", AttributeValue.builder().s(trafficType).build());
+        return item;
+    }
+}
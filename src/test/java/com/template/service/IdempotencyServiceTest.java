@@ -0,0 +1,152 @@
+package com.template.service;
+
+import com.template.model.aws.S3ObjectVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private DynamoDbClient dynamoDbClient;
+
+    @Mock
+    private DynamoDbAsyncClient dynamoDbAsyncClient;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(dynamoDbClient, dynamoDbAsyncClient, 100, Duration.ofHours(1), false);
+    }
+
+    @Test
+    void isDuplicate_AfterMarkProcessed_ReturnsTrue() {
+        S3ObjectVersion version = createVersion("etag-1");
+
+        assertFalse(idempotencyService.isDuplicate(version));
+        idempotencyService.markProcessed(version);
+
+        assertTrue(idempotencyService.isDuplicate(version));
+        assertTrue(idempotencyService.isDuplicateAsync(version).join());
+        verifyNoInteractions(dynamoDbClient, dynamoDbAsyncClient);
+    }
+
+    @Test
+    void isDuplicate_DifferentETag_ReturnsFalse() {
+        idempotencyService.markProcessed(createVersion("etag-1"));
+
+        assertFalse(idempotencyService.isDuplicate(createVersion("etag-2")));
+    }
+
+    @Test
+    void isDuplicate_UnversionedObject_NeverDeduplicated() {
+        S3ObjectVersion version = S3ObjectVersion.builder().bucket("bucket").key("key.json").eTag("etag-a").build();
+
+        idempotencyService.markProcessed(version);
+
+        assertFalse(idempotencyService.isDuplicate(version));
+        assertEquals(0, idempotencyService.cacheStats().getSize());
+    }
+
+    @Test
+    void isDuplicate_UnversionedRevertToEarlierContent_IsNotADuplicate() {
+        // A -> B -> A in an unversioned bucket: the revert has the ETag of the first write
+        S3ObjectVersion first = createUnversioned("etag-a", "0055AED6DCD90281E5");
+        S3ObjectVersion second = createUnversioned("etag-b", "0055AED6DCD90281E6");
+        S3ObjectVersion revert = createUnversioned("etag-a", "0055AED6DCD90281E7");
+
+        idempotencyService.markProcessed(first);
+        idempotencyService.markProcessed(second);
+
+        assertFalse(idempotencyService.isDuplicate(revert));
+        assertFalse(idempotencyService.isDuplicateAsync(revert).join());
+        assertTrue(idempotencyService.isDuplicate(createUnversioned("etag-a", "0055AED6DCD90281E5")));
+    }
+
+    @Test
+    void isDuplicate_DynamoDbMarkerFound_ReturnsTrueAndCachesLocally() {
+        idempotencyService = new IdempotencyService(dynamoDbClient, dynamoDbAsyncClient, 100, Duration.ofHours(1), true);
+        S3ObjectVersion version = createVersion("etag-1");
+        when(dynamoDbClient.getItem(any(GetItemRequest.class)))
+            .thenReturn(GetItemResponse.builder()
+                .item(Map.of("PK", AttributeValue.builder().s("PROCESSED#bucket/key.json").build()))
+                .build());
+
+        assertTrue(idempotencyService.isDuplicate(version));
+        assertTrue(idempotencyService.isDuplicate(version));
+
+        verify(dynamoDbClient, times(1)).getItem(any(GetItemRequest.class));
+    }
+
+    @Test
+    void isDuplicate_DynamoDbMarkerLookupFails_ProcessesAnyway() {
+        idempotencyService = new IdempotencyService(dynamoDbClient, dynamoDbAsyncClient, 100, Duration.ofHours(1), true);
+        when(dynamoDbClient.getItem(any(GetItemRequest.class)))
+            .thenThrow(DynamoDbException.builder().message("boom").build());
+
+        assertFalse(idempotencyService.isDuplicate(createVersion("etag-1")));
+    }
+
+    @Test
+    void markProcessed_DynamoDbMarkerEnabled_WritesMarkerWithExpiry() {
+        idempotencyService = new IdempotencyService(dynamoDbClient, dynamoDbAsyncClient, 100, Duration.ofHours(1), true);
+        ArgumentCaptor<PutItemRequest> captor = ArgumentCaptor.forClass(PutItemRequest.class);
+        when(dynamoDbClient.putItem(any(PutItemRequest.class))).thenReturn(PutItemResponse.builder().build());
+
+        idempotencyService.markProcessed(createVersion("etag-1"));
+
+        verify(dynamoDbClient).putItem(captor.capture());
+        Map<String, AttributeValue> item = captor.getValue().item();
+        assertEquals("PROCESSED#bucket/key.json", item.get("PK").s());
+        assertEquals("VERSION#v1#etag-1", item.get("SK").s());
+        assertNotNull(item.get("expiresAt").n());
+    }
+
+    @Test
+    void isDuplicateAsync_DynamoDbMarkerMissing_ReturnsFalse() {
+        idempotencyService = new IdempotencyService(dynamoDbClient, dynamoDbAsyncClient, 100, Duration.ofHours(1), true);
+        when(dynamoDbAsyncClient.getItem(any(GetItemRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(GetItemResponse.builder().build()));
+
+        assertFalse(idempotencyService.isDuplicateAsync(createVersion("etag-1")).join());
+    }
+
+    private S3ObjectVersion createUnversioned(String eTag, String sequencer) {
+        return S3ObjectVersion.builder()
+            .bucket("bucket")
+            .key("key.json")
+            .eTag(eTag)
+            .sequencer(sequencer)
+            .build();
+    }
+
+    private S3ObjectVersion createVersion(String eTag) {
+        return S3ObjectVersion.builder()
+            .bucket("bucket")
+            .key("key.json")
+            .versionId("v1")
+            .eTag(eTag)
+            .build();
+    }
+}
@@ -2,20 +2,34 @@ package com.template.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.template.exception.TemplateDownloadException;
+import com.template.metrics.PipelineMetrics;
 import com.template.model.cms.CmsResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Iterable;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,14 +41,20 @@ class S3ServiceTest {
     @Mock
     private S3Client s3Client;
 
+    @Mock
+    private S3AsyncClient s3AsyncClient;
+
     @Mock
     private ObjectMapper objectMapper;
 
     private S3Service s3Service;
 
+    private SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
-        s3Service = new S3Service(s3Client, objectMapper);
+        meterRegistry = new SimpleMeterRegistry();
+        s3Service = new S3Service(s3Client, s3AsyncClient, objectMapper, new PipelineMetrics(meterRegistry));
     }
 
     @Test
@@ -46,12 +66,12 @@ class S3ServiceTest {
         
         ResponseInputStream<GetObjectResponse> s3Response = 
             new ResponseInputStream<>(
-                GetObjectResponse.builder().build(),
+                GetObjectResponse.builder().contentLength(2L).build(),
                 new ByteArrayInputStream("{}".getBytes())
             );
 
         when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(s3Response);
-        when(objectMapper.readValue(any(ResponseInputStream.class), eq(CmsResponse.class)))
+        when(objectMapper.readValue(any(InputStream.class), eq(CmsResponse.class)))
             .thenReturn(expectedResponse);
 
         // When
@@ -61,7 +81,46 @@ class S3ServiceTest {
         assertNotNull(result);
         assertEquals(expectedResponse, result);
         verify(s3Client).getObject(any(GetObjectRequest.class));
-        verify(objectMapper).readValue(any(ResponseInputStream.class), eq(CmsResponse.class));
+        verify(objectMapper).readValue(any(InputStream.class), eq(CmsResponse.class));
+        assertEquals(1, meterRegistry.get(PipelineMetrics.S3_DOWNLOAD).timer().count());
+        assertEquals(2.0, meterRegistry.get(PipelineMetrics.S3_DOWNLOAD_BYTES).summary().totalAmount());
+        assertEquals(1, meterRegistry.get(PipelineMetrics.JSON_PARSE).timer().count());
+    }
+
+    @Test
+    void downloadTemplate_WithReader_ReadsObjectStream() {
+        // Given
+        ResponseInputStream<GetObjectResponse> s3Response =
+            new ResponseInputStream<>(
+                GetObjectResponse.builder().build(),
+                new ByteArrayInputStream("{\"total\": 1}".getBytes())
+            );
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(s3Response);
+
+        // When
+        String result = s3Service.downloadTemplate("test-bucket", "test/template.json",
+            input -> new String(input.readAllBytes()));
+
+        // Then
+        assertEquals("{\"total\": 1}", result);
+        verifyNoInteractions(objectMapper);
+    }
+
+    @Test
+    void downloadTemplate_WithReader_ReaderFails_ThrowsDownloadException() {
+        // Given
+        ResponseInputStream<GetObjectResponse> s3Response =
+            new ResponseInputStream<>(
+                GetObjectResponse.builder().build(),
+                new ByteArrayInputStream("{".getBytes())
+            );
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(s3Response);
+
+        // When & Then
+        assertThrows(TemplateDownloadException.class, () -> s3Service.downloadTemplate("test-bucket",
+            "test/template.json", input -> {
+                throw new IOException("Unexpected end of input");
+            }));
     }
 
     @Test
@@ -91,11 +150,74 @@ class S3ServiceTest {
             );
 
         when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(s3Response);
-        when(objectMapper.readValue(any(ResponseInputStream.class), eq(CmsResponse.class)))
+        when(objectMapper.readValue(any(InputStream.class), eq(CmsResponse.class)))
             .thenThrow(new IOException("Failed to parse"));
 
         // When/Then
         assertThrows(TemplateDownloadException.class, () -> 
             s3Service.downloadTemplate(bucket, key));
     }
-}
\ No newline at end of file
+
+    @Test
+    void downloadTemplateAsync_Success() throws IOException {
+        // Given
+        String bucket = "test-bucket";
+        String key = "test/template.json";
+        CmsResponse expectedResponse = new CmsResponse();
+        byte[] content = "{}".getBytes();
+
+        when(s3AsyncClient.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+            .thenReturn(CompletableFuture.completedFuture(
+                ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), content)));
+        when(objectMapper.readValue(any(byte[].class), eq(CmsResponse.class)))
+            .thenReturn(expectedResponse);
+
+        // When
+        CmsResponse result = s3Service.downloadTemplateAsync(bucket, key).join();
+
+        // Then
+        assertEquals(expectedResponse, result);
+        verifyNoInteractions(s3Client);
+    }
+
+    @Test
+    void downloadTemplateAsync_S3Exception() {
+        // Given
+        when(s3AsyncClient.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+            .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().build()));
+
+        // When
+        CompletableFuture<CmsResponse> result = s3Service.downloadTemplateAsync("test-bucket", "test/template.json");
+
+        // Then
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(TemplateDownloadException.class, exception.getCause());
+    }
+
+    @Test
+    void listTemplates_FollowsContinuationTokens() {
+        // Given
+        when(s3Client.listObjectsV2Paginator(any(ListObjectsV2Request.class)))
+            .thenAnswer(invocation -> new ListObjectsV2Iterable(s3Client, invocation.getArgument(0)));
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class)))
+            .thenReturn(ListObjectsV2Response.builder()
+                .contents(S3Object.builder().key("templates/a.json").build())
+                .isTruncated(true)
+                .nextContinuationToken("token")
+                .build())
+            .thenReturn(ListObjectsV2Response.builder()
+                .contents(S3Object.builder().key("templates/b.json").build())
+                .isTruncated(false)
+                .build());
+
+        // When
+        List<String> keys = new ArrayList<>();
+        s3Service.listTemplates("test-bucket", "templates/", "templates/0.json")
+            .forEach(object -> keys.add(object.key()));
+
+        // Then
+        assertEquals(List.of("templates/a.json", "templates/b.json"), keys);
+        verify(s3Client).listObjectsV2(ListObjectsV2Request.builder()
+            .bucket("test-bucket").prefix("templates/").startAfter("templates/0.json").build());
+    }
+}
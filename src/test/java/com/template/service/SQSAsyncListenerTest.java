@@ -0,0 +1,314 @@
+package com.template.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.metrics.PipelineMetrics;
+import com.template.model.aws.S3EventNotification;
+import com.template.model.cms.CmsResponse;
+import com.template.model.domain.MessageTemplate;
+import com.template.model.domain.WriteOutcome;
+import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+import org.junit.jupiter.api.AfterEach;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SQSAsyncListenerTest {
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private TemplateTransformer templateTransformer;
+
+    @Mock
+    private DynamoDBService dynamoDBService;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private TemplateCache templateCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PipelineMetrics metrics = new PipelineMetrics(meterRegistry);
+
+    @Mock
+    private Acknowledgement acknowledgement;
+
+    private ExecutorService virtualThreadExecutor;
+
+    private SQSAsyncListener asyncListener;
+
+    @BeforeEach
+    void setUp() {
+        virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        asyncListener = new SQSAsyncListener(s3Service, templateTransformer, dynamoDBService, objectMapper, idempotencyService,
+            templateCache, metrics, virtualThreadExecutor, virtualThreadExecutor, 4, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        virtualThreadExecutor.shutdown();
+    }
+
+    @Test
+    void handleS3Event_Success_AcknowledgesWhenFutureCompletes() throws Exception {
+        // Given
+        String message = "test-message";
+        CmsResponse cmsResponse = new CmsResponse();
+        MessageTemplate template = MessageTemplate.builder().build();
+
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "test/template.json"));
+        when(s3Service.downloadTemplate("test-bucket", "test/template.json")).thenReturn(cmsResponse);
+        when(templateTransformer.transform(cmsResponse)).thenReturn(template);
+        when(acknowledgement.acknowledgeAsync()).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        asyncListener.handleS3Event(message, acknowledgement).join();
+
+        // Then
+        verify(dynamoDBService).saveTemplate(template);
+        verify(acknowledgement).acknowledgeAsync();
+    }
+
+    @Test
+    void handleS3Event_Failure_CompletesExceptionallyWithoutAcknowledging() throws Exception {
+        // Given
+        String message = "test-message";
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "test/template.json"));
+        when(s3Service.downloadTemplate(any(), any())).thenThrow(new RuntimeException("Test error"));
+
+        // When
+        CompletableFuture<Void> result = asyncListener.handleS3Event(message, acknowledgement);
+
+        // Then
+        assertThrows(CompletionException.class, result::join);
+        verify(acknowledgement, never()).acknowledgeAsync();
+    }
+
+    @Test
+    void handleS3Event_AsyncIo_ChainsNonBlockingCalls() throws Exception {
+        // Given
+        asyncListener = new SQSAsyncListener(s3Service, templateTransformer, dynamoDBService, objectMapper, idempotencyService,
+            templateCache, metrics, virtualThreadExecutor, virtualThreadExecutor, 4, true);
+        String message = "test-message";
+        CmsResponse cmsResponse = new CmsResponse();
+        MessageTemplate template = MessageTemplate.builder().build();
+
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "test/template.json"));
+        when(idempotencyService.isDuplicateAsync(any())).thenReturn(CompletableFuture.completedFuture(false));
+        when(idempotencyService.markProcessedAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(s3Service.downloadTemplateAsync("test-bucket", "test/template.json"))
+            .thenReturn(CompletableFuture.completedFuture(cmsResponse));
+        when(templateTransformer.transform(cmsResponse)).thenReturn(template);
+        when(dynamoDBService.saveTemplateAsync(template))
+            .thenReturn(CompletableFuture.completedFuture(WriteOutcome.WRITTEN));
+        when(acknowledgement.acknowledgeAsync()).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        asyncListener.handleS3Event(message, acknowledgement).join();
+
+        // Then
+        verify(s3Service, never()).downloadTemplate(any(), any());
+        verify(dynamoDBService, never()).saveTemplate(any());
+        verify(templateCache).invalidate(template);
+        verify(acknowledgement).acknowledgeAsync();
+    }
+
+    @Test
+    void handleS3Event_AsyncIo_BulkEnabled_SavesExportAsOneBatch() throws Exception {
+        // Given
+        asyncListener = new SQSAsyncListener(s3Service, templateTransformer, dynamoDBService, objectMapper, idempotencyService,
+            templateCache, metrics, virtualThreadExecutor, virtualThreadExecutor, 4, true);
+        String message = "test-message";
+        CmsResponse cmsResponse = new CmsResponse();
+        List<MessageTemplate> templates = List.of(MessageTemplate.builder().id("t1").build(),
+            MessageTemplate.builder().id("t2").build());
+
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "exports/template.json"));
+        when(idempotencyService.isDuplicateAsync(any())).thenReturn(CompletableFuture.completedFuture(false));
+        when(idempotencyService.markProcessedAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(templateTransformer.isBulkEnabled()).thenReturn(true);
+        when(s3Service.downloadTemplateAsync("test-bucket", "exports/template.json"))
+            .thenReturn(CompletableFuture.completedFuture(cmsResponse));
+        when(templateTransformer.transformAll(cmsResponse)).thenReturn(templates);
+        when(dynamoDBService.saveTemplatesAsync(templates))
+            .thenReturn(CompletableFuture.completedFuture(List.of(WriteOutcome.WRITTEN, WriteOutcome.WRITTEN)));
+        when(acknowledgement.acknowledgeAsync()).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        asyncListener.handleS3Event(message, acknowledgement).join();
+
+        // Then
+        verify(dynamoDBService, never()).saveTemplateAsync(any());
+        verify(templateCache).invalidate(templates.get(0));
+        verify(templateCache).invalidate(templates.get(1));
+        verify(idempotencyService).markProcessedAsync(any());
+        verify(acknowledgement).acknowledgeAsync();
+    }
+
+    @Test
+    void handleS3Event_AsyncIo_StartsAtMostRecordConcurrencyRecords() throws Exception {
+        // Given
+        asyncListener = new SQSAsyncListener(s3Service, templateTransformer, dynamoDBService, objectMapper, idempotencyService,
+            templateCache, metrics, virtualThreadExecutor, virtualThreadExecutor, 2, true);
+        String message = "test-message";
+        CmsResponse cmsResponse = new CmsResponse();
+        MessageTemplate template = MessageTemplate.builder().build();
+        List<CompletableFuture<CmsResponse>> downloads = new CopyOnWriteArrayList<>();
+
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "a.json", "b.json", "c.json", "d.json", "e.json"));
+        when(idempotencyService.isDuplicateAsync(any())).thenReturn(CompletableFuture.completedFuture(false));
+        when(idempotencyService.markProcessedAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(s3Service.downloadTemplateAsync(eq("test-bucket"), any())).thenAnswer(invocation -> {
+            CompletableFuture<CmsResponse> download = new CompletableFuture<>();
+            downloads.add(download);
+            return download;
+        });
+        when(templateTransformer.transform(cmsResponse)).thenReturn(template);
+        when(dynamoDBService.saveTemplateAsync(template))
+            .thenReturn(CompletableFuture.completedFuture(WriteOutcome.WRITTEN));
+        when(acknowledgement.acknowledgeAsync()).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        CompletableFuture<Void> result = asyncListener.handleS3Event(message, acknowledgement);
+
+        // Then
+        for (int started : new int[] {2, 4, 5}) {
+            assertEquals(started, downloads.size());
+            assertFalse(result.isDone());
+            downloads.forEach(download -> download.complete(cmsResponse));
+        }
+        result.join();
+        verify(dynamoDBService, times(5)).saveTemplateAsync(template);
+        verify(acknowledgement).acknowledgeAsync();
+    }
+
+    @Test
+    void handleS3Event_AsyncIo_RecordsNotBound_FallsBackToFirstRecord() throws Exception {
+        // Given
+        asyncListener = new SQSAsyncListener(s3Service, templateTransformer, dynamoDBService, objectMapper, idempotencyService,
+            templateCache, metrics, virtualThreadExecutor, virtualThreadExecutor, 4, true);
+        String message = "{\"Records\":[{\"s3\":{\"bucket\":{\"name\":\"test-bucket\"},"
+            + "\"object\":{\"key\":\"test/template.json\"}}}]}";
+        CmsResponse cmsResponse = new CmsResponse();
+        MessageTemplate template = MessageTemplate.builder().build();
+
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class))).thenReturn(new S3EventNotification());
+        when(objectMapper.readTree(message)).thenReturn(new ObjectMapper().readTree(message));
+        when(idempotencyService.isDuplicateAsync(any())).thenReturn(CompletableFuture.completedFuture(false));
+        when(idempotencyService.markProcessedAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(s3Service.downloadTemplateAsync("test-bucket", "test/template.json"))
+            .thenReturn(CompletableFuture.completedFuture(cmsResponse));
+        when(templateTransformer.transform(cmsResponse)).thenReturn(template);
+        when(dynamoDBService.saveTemplateAsync(template))
+            .thenReturn(CompletableFuture.completedFuture(WriteOutcome.WRITTEN));
+        when(acknowledgement.acknowledgeAsync()).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        asyncListener.handleS3Event(message, acknowledgement).join();
+
+        // Then
+        verify(dynamoDBService).saveTemplateAsync(template);
+        verify(acknowledgement).acknowledgeAsync();
+    }
+
+    @Test
+    void handleS3Event_AsyncIo_RecordsNotParsable_NotAcknowledged() throws Exception {
+        // Given
+        asyncListener = new SQSAsyncListener(s3Service, templateTransformer, dynamoDBService, objectMapper, idempotencyService,
+            templateCache, metrics, virtualThreadExecutor, virtualThreadExecutor, 4, true);
+        String message = "test-message";
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class))).thenReturn(new S3EventNotification());
+        when(objectMapper.readTree(message)).thenThrow(new JsonParseException(null, "Test error"));
+
+        // When
+        CompletableFuture<Void> result = asyncListener.handleS3Event(message, acknowledgement);
+
+        // Then
+        assertThrows(CompletionException.class, result::join);
+        verify(acknowledgement, never()).acknowledgeAsync();
+    }
+
+    @Test
+    void handleS3Event_AsyncIo_SaveFails_NotAcknowledged() throws Exception {
+        // Given
+        asyncListener = new SQSAsyncListener(s3Service, templateTransformer, dynamoDBService, objectMapper, idempotencyService,
+            templateCache, metrics, virtualThreadExecutor, virtualThreadExecutor, 4, true);
+        String message = "test-message";
+        CmsResponse cmsResponse = new CmsResponse();
+        MessageTemplate template = MessageTemplate.builder().build();
+
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "test/template.json"));
+        when(idempotencyService.isDuplicateAsync(any())).thenReturn(CompletableFuture.completedFuture(false));
+        when(s3Service.downloadTemplateAsync(any(), any()))
+            .thenReturn(CompletableFuture.completedFuture(cmsResponse));
+        when(templateTransformer.transform(cmsResponse)).thenReturn(template);
+        when(dynamoDBService.saveTemplateAsync(template))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Test error")));
+
+        // When
+        CompletableFuture<Void> result = asyncListener.handleS3Event(message, acknowledgement);
+
+        // Then
+        assertThrows(CompletionException.class, result::join);
+        verify(acknowledgement, never()).acknowledgeAsync();
+        verify(idempotencyService, never()).markProcessedAsync(any());
+    }
+
+    private S3EventNotification createTestEvent(String bucket, String... keys) {
+        S3EventNotification event = new S3EventNotification();
+        event.setRecords(java.util.Arrays.stream(keys)
+            .map(key -> createTestEvent(bucket, key).getRecords().get(0))
+            .toList());
+        return event;
+    }
+
+    private S3EventNotification createTestEvent(String bucket, String key) {
+        S3EventNotification.S3BucketEntity bucketEntity = new S3EventNotification.S3BucketEntity();
+        bucketEntity.setName(bucket);
+
+        S3EventNotification.S3ObjectEntity objectEntity = new S3EventNotification.S3ObjectEntity();
+        objectEntity.setKey(key);
+
+        S3EventNotification.S3Entity s3Entity = new S3EventNotification.S3Entity();
+        s3Entity.setBucket(bucketEntity);
+        s3Entity.setObject(objectEntity);
+
+        S3EventNotification.S3EventNotificationRecord record = new S3EventNotification.S3EventNotificationRecord();
+        record.setS3(s3Entity);
+
+        S3EventNotification event = new S3EventNotification();
+        event.setRecords(List.of(record));
+
+        return event;
+    }
+}
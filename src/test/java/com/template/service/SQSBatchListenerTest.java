@@ -0,0 +1,200 @@
+package com.template.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.metrics.PipelineMetrics;
+import com.template.model.aws.S3EventNotification;
+import com.template.model.cms.CmsResponse;
+import com.template.model.domain.MessageTemplate;
+import io.awspring.cloud.sqs.listener.acknowledgement.BatchAcknowledgement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SQSBatchListenerTest {
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private TemplateTransformer templateTransformer;
+
+    @Mock
+    private DynamoDBService dynamoDBService;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private TemplateCache templateCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PipelineMetrics metrics = new PipelineMetrics(meterRegistry);
+
+    @Mock
+    private BatchAcknowledgement<String> acknowledgement;
+
+    @Captor
+    private ArgumentCaptor<Collection<Message<String>>> acknowledgedCaptor;
+
+    private SQSBatchListener batchListener;
+
+    @BeforeEach
+    void setUp() {
+        batchListener = new SQSBatchListener(s3Service, templateTransformer, dynamoDBService, objectMapper, idempotencyService,
+            templateCache, metrics, Runnable::run, 4);
+    }
+
+    @Test
+    void handleS3EventBatch_AllSucceed_AcknowledgesAll() throws Exception {
+        // Given
+        Message<String> first = MessageBuilder.withPayload("message-1").build();
+        Message<String> second = MessageBuilder.withPayload("message-2").build();
+        CmsResponse cmsResponse = new CmsResponse();
+        MessageTemplate template = MessageTemplate.builder().build();
+
+        when(objectMapper.readValue(eq("message-1"), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "first.json"));
+        when(objectMapper.readValue(eq("message-2"), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "second.json"));
+        when(s3Service.downloadTemplate(eq("test-bucket"), any())).thenReturn(cmsResponse);
+        when(templateTransformer.transform(cmsResponse)).thenReturn(template);
+
+        // When
+        batchListener.handleS3EventBatch(List.of(first, second), acknowledgement);
+
+        // Then
+        verify(dynamoDBService, times(2)).saveTemplate(template);
+        verify(acknowledgement).acknowledge(acknowledgedCaptor.capture());
+        assertEquals(2, acknowledgedCaptor.getValue().size());
+    }
+
+    @Test
+    void handleS3EventBatch_PartialFailure_AcknowledgesOnlySucceeded() throws Exception {
+        // Given
+        Message<String> good = MessageBuilder.withPayload("good-message").build();
+        Message<String> bad = MessageBuilder.withPayload("bad-message").build();
+        CmsResponse cmsResponse = new CmsResponse();
+        MessageTemplate template = MessageTemplate.builder().build();
+
+        when(objectMapper.readValue(eq("good-message"), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "good.json"));
+        when(objectMapper.readValue(eq("bad-message"), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "bad.json"));
+        when(s3Service.downloadTemplate("test-bucket", "good.json")).thenReturn(cmsResponse);
+        when(s3Service.downloadTemplate("test-bucket", "bad.json"))
+            .thenThrow(new RuntimeException("Test error"));
+        when(templateTransformer.transform(cmsResponse)).thenReturn(template);
+
+        // When
+        batchListener.handleS3EventBatch(List.of(bad, good), acknowledgement);
+
+        // Then
+        verify(acknowledgement).acknowledge(acknowledgedCaptor.capture());
+        Collection<Message<String>> acknowledged = acknowledgedCaptor.getValue();
+        assertEquals(1, acknowledged.size());
+        assertSame(good, acknowledged.iterator().next());
+        assertEquals(1, meterRegistry.get(PipelineMetrics.MESSAGE_LATENCY).tag("mode", "batch")
+            .tag("outcome", "acknowledged").timer().count());
+        assertEquals(0, meterRegistry.get(PipelineMetrics.MESSAGE_LATENCY).tag("mode", "batch")
+            .tag("outcome", "failed").timer().count());
+        assertEquals(1, meterRegistry.get(PipelineMetrics.MESSAGES_FAILED).counter().count());
+    }
+
+    @Test
+    void handleS3EventBatch_AllFail_AcknowledgesNothing() throws Exception {
+        // Given
+        Message<String> bad = MessageBuilder.withPayload("bad-message").build();
+        when(objectMapper.readValue(eq("bad-message"), eq(S3EventNotification.class)))
+            .thenThrow(new RuntimeException("Unparseable"));
+
+        // When
+        batchListener.handleS3EventBatch(List.of(bad), acknowledgement);
+
+        // Then
+        verify(acknowledgement, never()).acknowledge(anyCollection());
+        verifyNoInteractions(s3Service, dynamoDBService);
+    }
+
+    @Test
+    void handleS3EventBatch_CoalescingWindow_CoalescesUpdatesWithinBatchInOneWindow() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(batchListener, "coalescingWindow", Duration.ofMillis(300));
+        S3EventNotification older = createTestEvent("test-bucket", "test/template.json");
+        older.getRecords().get(0).getS3().getObject().setVersionId("v1");
+        older.getRecords().get(0).getS3().getObject().setSequencer("0055AED6DCD90281E5");
+        S3EventNotification newer = createTestEvent("test-bucket", "test/template.json");
+        newer.getRecords().get(0).getS3().getObject().setVersionId("v2");
+        newer.getRecords().get(0).getS3().getObject().setSequencer("0055AED6DCD90281F0");
+        Message<String> first = MessageBuilder.withPayload("older").build();
+        Message<String> second = MessageBuilder.withPayload("newer").build();
+        Message<String> third = MessageBuilder.withPayload("other").build();
+        CmsResponse cmsResponse = new CmsResponse();
+        MessageTemplate template = MessageTemplate.builder().build();
+
+        when(objectMapper.readValue(eq("older"), eq(S3EventNotification.class))).thenReturn(older);
+        when(objectMapper.readValue(eq("newer"), eq(S3EventNotification.class))).thenReturn(newer);
+        when(objectMapper.readValue(eq("other"), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "other.json"));
+        when(s3Service.downloadTemplate(eq("test-bucket"), any())).thenReturn(cmsResponse);
+        when(templateTransformer.transform(cmsResponse)).thenReturn(template);
+
+        // When
+        long start = System.nanoTime();
+        batchListener.handleS3EventBatch(List.of(first, second, third), acknowledgement);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertTrue(elapsedMillis < 600, "batch took " + elapsedMillis + "ms");
+        verify(s3Service, times(1)).downloadTemplate("test-bucket", "test/template.json");
+        verify(s3Service, times(1)).downloadTemplate("test-bucket", "other.json");
+        verify(idempotencyService).markProcessed(argThat(version -> "v2".equals(version.getVersionId())));
+        verify(acknowledgement).acknowledge(acknowledgedCaptor.capture());
+        assertEquals(3, acknowledgedCaptor.getValue().size());
+        assertEquals(1, meterRegistry.get(PipelineMetrics.COALESCED).counter().count());
+    }
+
+    private S3EventNotification createTestEvent(String bucket, String key) {
+        S3EventNotification.S3BucketEntity bucketEntity = new S3EventNotification.S3BucketEntity();
+        bucketEntity.setName(bucket);
+
+        S3EventNotification.S3ObjectEntity objectEntity = new S3EventNotification.S3ObjectEntity();
+        objectEntity.setKey(key);
+
+        S3EventNotification.S3Entity s3Entity = new S3EventNotification.S3Entity();
+        s3Entity.setBucket(bucketEntity);
+        s3Entity.setObject(objectEntity);
+
+        S3EventNotification.S3EventNotificationRecord record = new S3EventNotification.S3EventNotificationRecord();
+        record.setS3(s3Entity);
+
+        S3EventNotification event = new S3EventNotification();
+        event.setRecords(List.of(record));
+
+        return event;
+    }
+}
@@ -1,18 +1,31 @@
 package com.template.service;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.metrics.PipelineMetrics;
 import com.template.model.aws.S3EventNotification;
+import com.template.model.aws.S3ObjectVersion;
 import com.template.model.cms.CmsResponse;
 import com.template.model.domain.MessageTemplate;
+import com.template.model.domain.WriteOutcome;
 import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -32,6 +45,15 @@ class SQSListenerTest {
     
     @Mock
     private ObjectMapper objectMapper;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private TemplateCache templateCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PipelineMetrics metrics = new PipelineMetrics(meterRegistry);
     
     @Mock
     private Acknowledgement acknowledgement;
@@ -40,7 +62,8 @@ class SQSListenerTest {
 
     @BeforeEach
     void setUp() {
-        sqsListener = new SQSListener(s3Service, templateTransformer, dynamoDBService, objectMapper);
+        sqsListener = new SQSListener(s3Service, templateTransformer, dynamoDBService, objectMapper, idempotencyService,
+            templateCache, metrics, Runnable::run, 4);
     }
 
     @Test
@@ -60,7 +83,7 @@ class SQSListenerTest {
             .thenReturn(cmsResponse);
         when(templateTransformer.transform(cmsResponse))
             .thenReturn(template);
-        doNothing().when(dynamoDBService).saveTemplate(template);
+        when(dynamoDBService.saveTemplate(template)).thenReturn(WriteOutcome.WRITTEN);
         doNothing().when(acknowledgement).acknowledge();
         
         // When
@@ -70,6 +93,80 @@ class SQSListenerTest {
         verify(s3Service).downloadTemplate(bucket, key);
         verify(templateTransformer).transform(cmsResponse);
         verify(dynamoDBService).saveTemplate(template);
+        verify(templateCache).invalidate(template);
+        verify(acknowledgement).acknowledge();
+        assertEquals(1, meterRegistry.get(PipelineMetrics.MESSAGE_LATENCY).tag("mode", "message").tag("outcome", "acknowledged").timer().count());
+    }
+
+    @Test
+    void handleS3Event_SkippedWrite_KeepsCache() throws Exception {
+        // Given
+        String message = "test-message";
+        CmsResponse cmsResponse = new CmsResponse();
+        MessageTemplate template = MessageTemplate.builder().build();
+
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "test/template.json"));
+        when(s3Service.downloadTemplate("test-bucket", "test/template.json")).thenReturn(cmsResponse);
+        when(templateTransformer.transform(cmsResponse)).thenReturn(template);
+        when(dynamoDBService.saveTemplate(template)).thenReturn(WriteOutcome.SKIPPED);
+
+        // When
+        sqsListener.handleS3Event(message, acknowledgement);
+
+        // Then
+        verifyNoInteractions(templateCache);
+        verify(acknowledgement).acknowledge();
+    }
+
+    @Test
+    void handleS3Event_StreamingEnabled_TransformsFromObjectStream() throws Exception {
+        // Given
+        String message = "test-message";
+        String bucket = "test-bucket";
+        String key = "test/template.json";
+        MessageTemplate template = MessageTemplate.builder().build();
+
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent(bucket, key));
+        when(templateTransformer.isStreamingEnabled()).thenReturn(true);
+        when(s3Service.downloadTemplate(eq(bucket), eq(key), any())).thenReturn(template);
+        when(dynamoDBService.saveTemplate(template)).thenReturn(WriteOutcome.WRITTEN);
+
+        // When
+        sqsListener.handleS3Event(message, acknowledgement);
+
+        // Then
+        verify(s3Service, never()).downloadTemplate(bucket, key);
+        verify(dynamoDBService).saveTemplate(template);
+        verify(acknowledgement).acknowledge();
+    }
+
+    @Test
+    void handleS3Event_BulkEnabled_SavesEveryTemplateOfExport() throws Exception {
+        // Given
+        String message = "test-message";
+        String bucket = "test-bucket";
+        String key = "exports/template.json";
+        CmsResponse cmsResponse = new CmsResponse();
+        MessageTemplate first = MessageTemplate.builder().id("t1").build();
+        MessageTemplate second = MessageTemplate.builder().id("t2").build();
+
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent(bucket, key));
+        when(templateTransformer.isBulkEnabled()).thenReturn(true);
+        when(s3Service.downloadTemplate(bucket, key)).thenReturn(cmsResponse);
+        when(templateTransformer.transformAll(cmsResponse)).thenReturn(List.of(first, second));
+        when(dynamoDBService.saveTemplates(List.of(first, second)))
+            .thenReturn(List.of(WriteOutcome.WRITTEN, WriteOutcome.SKIPPED));
+
+        // When
+        sqsListener.handleS3Event(message, acknowledgement);
+
+        // Then
+        verify(templateTransformer, never()).transform(any(CmsResponse.class));
+        verify(templateCache).invalidate(first);
+        verify(templateCache, never()).invalidate(second);
         verify(acknowledgement).acknowledge();
     }
 
@@ -90,6 +187,193 @@ class SQSListenerTest {
         // When & Then
         assertThrows(RuntimeException.class, () -> sqsListener.handleS3Event(message, acknowledgement));
         verify(acknowledgement, never()).acknowledge();
+        assertEquals(1, meterRegistry.get(PipelineMetrics.MESSAGES_FAILED).counter().count());
+        assertEquals(1, meterRegistry.get(PipelineMetrics.MESSAGE_LATENCY).tag("mode", "message").tag("outcome", "failed").timer().count());
+    }
+
+    @Test
+    void handleS3Event_DuplicateObjectVersion_SkipsProcessingAndAcknowledges() throws Exception {
+        // Given
+        String message = "redelivered-message";
+        S3EventNotification event = createTestEvent("test-bucket", "test/template.json");
+        event.getRecords().get(0).getS3().getObject().setETag("etag-1");
+
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class)))
+            .thenReturn(event);
+        when(idempotencyService.isDuplicate(any())).thenReturn(true);
+
+        // When
+        sqsListener.handleS3Event(message, acknowledgement);
+
+        // Then
+        verifyNoInteractions(s3Service, templateTransformer, dynamoDBService);
+        verify(idempotencyService, never()).markProcessed(any());
+        verify(acknowledgement).acknowledge();
+        assertEquals(1, meterRegistry.get(PipelineMetrics.DUPLICATES).counter().count());
+    }
+
+    @Test
+    void handleS3Event_Success_MarksObjectVersionProcessed() throws Exception {
+        // Given
+        String message = "test-message";
+        S3EventNotification event = createTestEvent("test-bucket", "test/template.json");
+        event.getRecords().get(0).getS3().getObject().setETag("etag-1");
+        event.getRecords().get(0).getS3().getObject().setVersionId("v1");
+        CmsResponse cmsResponse = new CmsResponse();
+
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class)))
+            .thenReturn(event);
+        when(s3Service.downloadTemplate("test-bucket", "test/template.json"))
+            .thenReturn(cmsResponse);
+
+        // When
+        sqsListener.handleS3Event(message, acknowledgement);
+
+        // Then
+        verify(idempotencyService).markProcessed(S3ObjectVersion.builder()
+            .bucket("test-bucket")
+            .key("test/template.json")
+            .versionId("v1")
+            .eTag("etag-1")
+            .build());
+    }
+
+    @Test
+    void handleS3Event_MultipleRecords_ProcessedConcurrently() throws Exception {
+        // Given
+        String message = "multi-record-message";
+        CmsResponse cmsResponse = new CmsResponse();
+        MessageTemplate template = MessageTemplate.builder().build();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        sqsListener = new SQSListener(s3Service, templateTransformer, dynamoDBService, objectMapper, idempotencyService,
+            templateCache, metrics, executor, 2);
+
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "a.json", "b.json", "c.json"));
+        when(s3Service.downloadTemplate(eq("test-bucket"), any()))
+            .thenReturn(cmsResponse);
+        when(templateTransformer.transform(cmsResponse))
+            .thenReturn(template);
+
+        try {
+            // When
+            sqsListener.handleS3Event(message, acknowledgement);
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then
+        verify(s3Service).downloadTemplate("test-bucket", "a.json");
+        verify(s3Service).downloadTemplate("test-bucket", "b.json");
+        verify(s3Service).downloadTemplate("test-bucket", "c.json");
+        verify(dynamoDBService, times(3)).saveTemplate(template);
+        verify(acknowledgement).acknowledge();
+    }
+
+    @Test
+    void handleS3Event_OneOfManyRecordsFails_NotAcknowledged() throws Exception {
+        // Given
+        String message = "multi-record-message";
+        CmsResponse cmsResponse = new CmsResponse();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        sqsListener = new SQSListener(s3Service, templateTransformer, dynamoDBService, objectMapper, idempotencyService,
+            templateCache, metrics, executor, 2);
+
+        when(objectMapper.readValue(eq(message), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "a.json", "b.json"));
+        lenient().when(s3Service.downloadTemplate("test-bucket", "a.json"))
+            .thenReturn(cmsResponse);
+        when(s3Service.downloadTemplate("test-bucket", "b.json"))
+            .thenThrow(new RuntimeException("Test error"));
+
+        try {
+            // When & Then
+            assertThrows(RuntimeException.class, () -> sqsListener.handleS3Event(message, acknowledgement));
+        } finally {
+            executor.shutdown();
+        }
+        verify(acknowledgement, never()).acknowledge();
+    }
+
+    @Test
+    void handleS3Event_DebugEnabled_LogsSampledPayloadsOnly() throws Exception {
+        // Given
+        Logger logger = (Logger) LoggerFactory.getLogger(AbstractS3EventListener.class);
+        Level originalLevel = logger.getLevel();
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.DEBUG);
+        ReflectionTestUtils.setField(sqsListener, "payloadSampleEvery", 2);
+
+        when(objectMapper.readValue(any(String.class), eq(S3EventNotification.class)))
+            .thenReturn(createTestEvent("test-bucket", "test/template.json"));
+        when(idempotencyService.isDuplicate(any())).thenReturn(true);
+
+        try {
+            // When
+            for (int i = 0; i < 4; i++) {
+                sqsListener.handleS3Event("message-" + i, acknowledgement);
+            }
+        } finally {
+            logger.detachAppender(appender);
+            logger.setLevel(originalLevel);
+        }
+
+        // Then
+        List<String> payloads = appender.list.stream()
+            .filter(event -> event.getMessage().startsWith("SQS message payload"))
+            .map(ILoggingEvent::getFormattedMessage)
+            .toList();
+        assertEquals(List.of("SQS message payload: message-0", "SQS message payload: message-2"), payloads);
+    }
+
+    @Test
+    void handleS3Event_CoalescingWindow_ProcessesLatestUpdateOfKeyOnce() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(sqsListener, "coalescingWindow", java.time.Duration.ofMillis(300));
+        S3EventNotification older = createTestEvent("test-bucket", "test/template.json");
+        older.getRecords().get(0).getS3().getObject().setVersionId("v1");
+        older.getRecords().get(0).getS3().getObject().setSequencer("0055AED6DCD90281E5");
+        S3EventNotification newer = createTestEvent("test-bucket", "test/template.json");
+        newer.getRecords().get(0).getS3().getObject().setVersionId("v2");
+        newer.getRecords().get(0).getS3().getObject().setSequencer("0055AED6DCD90281F0");
+        CmsResponse cmsResponse = new CmsResponse();
+        MessageTemplate template = MessageTemplate.builder().build();
+        Acknowledgement newerAcknowledgement = mock(Acknowledgement.class);
+
+        when(objectMapper.readValue(eq("older"), eq(S3EventNotification.class))).thenReturn(older);
+        when(objectMapper.readValue(eq("newer"), eq(S3EventNotification.class))).thenReturn(newer);
+        when(s3Service.downloadTemplate("test-bucket", "test/template.json")).thenReturn(cmsResponse);
+        when(templateTransformer.transform(cmsResponse)).thenReturn(template);
+        when(dynamoDBService.saveTemplate(template)).thenReturn(WriteOutcome.WRITTEN);
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            var first = executor.submit(() -> sqsListener.handleS3Event("older", acknowledgement));
+            Thread.sleep(50);
+            var second = executor.submit(() -> sqsListener.handleS3Event("newer", newerAcknowledgement));
+            first.get();
+            second.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then
+        verify(s3Service, times(1)).downloadTemplate("test-bucket", "test/template.json");
+        verify(idempotencyService).markProcessed(argThat(version -> "v2".equals(version.getVersionId())));
+        verify(acknowledgement).acknowledge();
+        verify(newerAcknowledgement).acknowledge();
+        assertEquals(1, meterRegistry.get(PipelineMetrics.COALESCED).counter().count());
+    }
+
+    private S3EventNotification createTestEvent(String bucket, String... keys) {
+        S3EventNotification event = new S3EventNotification();
+        event.setRecords(java.util.Arrays.stream(keys)
+            .map(key -> createTestEvent(bucket, key).getRecords().get(0))
+            .toList());
+        return event;
     }
 
     private S3EventNotification createTestEvent(String bucket, String key) {
@@ -0,0 +1,187 @@
+package com.template.service;
+
+import com.template.metrics.PipelineMetrics;
+import com.template.model.domain.MessageTemplate;
+import com.template.model.domain.TrafficType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TemplateCacheTest {
+
+    @Mock
+    private DynamoDBService dynamoDBService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TemplateCache templateCache;
+
+    @BeforeEach
+    void setUp() {
+        templateCache = new TemplateCache(dynamoDBService, new PipelineMetrics(meterRegistry), 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void findTemplateById_ReadsThroughOnce() {
+        // Given
+        MessageTemplate template = createTemplate("id-1", "LONG_DISTANCE");
+        when(dynamoDBService.findTemplateById("id-1")).thenReturn(template);
+
+        // When
+        MessageTemplate first = templateCache.findTemplateById("id-1");
+        MessageTemplate second = templateCache.findTemplateById("id-1");
+
+        // Then
+        assertSame(template, first);
+        assertSame(template, second);
+        verify(dynamoDBService, times(1)).findTemplateById("id-1");
+        assertEquals(1, templateCache.byIdStats().getHits());
+        assertEquals(1, templateCache.byIdStats().getMisses());
+    }
+
+    @Test
+    void stats_AreRegisteredAsMetersPerCache() {
+        // Given
+        when(dynamoDBService.findTemplateById("id-1")).thenReturn(createTemplate("id-1", "LONG_DISTANCE"));
+
+        // When
+        templateCache.findTemplateById("id-1");
+        templateCache.findTemplateById("id-1");
+
+        // Then
+        assertEquals(1.0, meterRegistry.get(PipelineMetrics.CACHE_HITS).tag("cache", "by-id").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get(PipelineMetrics.CACHE_MISSES).tag("cache", "by-id").functionCounter().count());
+        assertEquals(0.0, meterRegistry.get(PipelineMetrics.CACHE_EVICTIONS).tag("cache", "by-id").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get(PipelineMetrics.CACHE_SIZE).tag("cache", "by-id").gauge().value());
+        assertEquals(0.0, meterRegistry.get(PipelineMetrics.CACHE_SIZE).tag("cache", "by-traffic-type").gauge().value());
+        assertEquals(0.0, meterRegistry.get(PipelineMetrics.CACHE_MISSES).tag("cache", "by-traffic-type")
+                .functionCounter().count());
+    }
+
+    @Test
+    void findTemplateById_NotFound_IsCached() {
+        // Given
+        when(dynamoDBService.findTemplateById("missing")).thenReturn(null);
+
+        // When
+        assertNull(templateCache.findTemplateById("missing"));
+        assertNull(templateCache.findTemplateById("missing"));
+
+        // Then
+        verify(dynamoDBService, times(1)).findTemplateById("missing");
+    }
+
+    @Test
+    void findTemplatesByTrafficType_ReadsThroughOnce() {
+        // Given
+        List<MessageTemplate> templates = List.of(createTemplate("id-1", "LONG_DISTANCE"));
+        when(dynamoDBService.findTemplatesByTrafficType("LONG_DISTANCE")).thenReturn(templates);
+
+        // When
+        List<MessageTemplate> first = templateCache.findTemplatesByTrafficType("LONG_DISTANCE");
+        List<MessageTemplate> second = templateCache.findTemplatesByTrafficType("LONG_DISTANCE");
+
+        // Then
+        assertEquals(templates, first);
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> first.add(createTemplate("id-2", "LONG_DISTANCE")));
+        verify(dynamoDBService, times(1)).findTemplatesByTrafficType("LONG_DISTANCE");
+    }
+
+    @Test
+    void invalidate_DropsIdAndOldAndNewTrafficTypes() {
+        // Given
+        MessageTemplate previous = createTemplate("id-1", "COMMUTER");
+        MessageTemplate saved = createTemplate("id-1", "LONG_DISTANCE");
+        when(dynamoDBService.findTemplateById("id-1")).thenReturn(previous, saved);
+        when(dynamoDBService.findTemplatesByTrafficType(anyString())).thenReturn(List.of());
+
+        templateCache.findTemplateById("id-1");
+        templateCache.findTemplatesByTrafficType("COMMUTER");
+        templateCache.findTemplatesByTrafficType("LONG_DISTANCE");
+
+        // When
+        templateCache.invalidate(saved);
+
+        // Then
+        assertSame(saved, templateCache.findTemplateById("id-1"));
+        templateCache.findTemplatesByTrafficType("COMMUTER");
+        templateCache.findTemplatesByTrafficType("LONG_DISTANCE");
+        verify(dynamoDBService, times(2)).findTemplateById("id-1");
+        verify(dynamoDBService, times(2)).findTemplatesByTrafficType("COMMUTER");
+        verify(dynamoDBService, times(2)).findTemplatesByTrafficType("LONG_DISTANCE");
+    }
+
+    @Test
+    void findTemplateById_InvalidatedDuringLoad_IsNotCached() {
+        // Given
+        MessageTemplate stale = createTemplate("id-1", "LONG_DISTANCE");
+        when(dynamoDBService.findTemplateById("id-1")).thenAnswer(invocation -> {
+            templateCache.invalidateById("id-1");
+            return stale;
+        }).thenReturn(createTemplate("id-1", "LONG_DISTANCE"));
+
+        // When
+        assertSame(stale, templateCache.findTemplateById("id-1"));
+        templateCache.findTemplateById("id-1");
+
+        // Then
+        verify(dynamoDBService, times(2)).findTemplateById("id-1");
+    }
+
+    @Test
+    void replace_CachesNewVersionAndDropsTrafficTypes() {
+        // Given
+        MessageTemplate previous = createTemplate("id-1", "COMMUTER");
+        previous.setRevision(1);
+        when(dynamoDBService.findTemplateById("id-1")).thenReturn(previous);
+        when(dynamoDBService.findTemplatesByTrafficType(anyString())).thenReturn(List.of());
+        templateCache.findTemplateById("id-1");
+        templateCache.findTemplatesByTrafficType("COMMUTER");
+        MessageTemplate updated = createTemplate("id-1", "LONG_DISTANCE");
+        updated.setRevision(2);
+
+        // When
+        templateCache.replace(updated);
+
+        // Then
+        assertSame(updated, templateCache.findTemplateById("id-1"));
+        templateCache.findTemplatesByTrafficType("COMMUTER");
+        verify(dynamoDBService, times(1)).findTemplateById("id-1");
+        verify(dynamoDBService, times(2)).findTemplatesByTrafficType("COMMUTER");
+    }
+
+    @Test
+    void replace_OlderRevision_KeepsCachedTemplate() {
+        // Given
+        MessageTemplate cached = createTemplate("id-1", "LONG_DISTANCE");
+        cached.setRevision(3);
+        when(dynamoDBService.findTemplateById("id-1")).thenReturn(cached);
+        templateCache.findTemplateById("id-1");
+        MessageTemplate older = createTemplate("id-1", "LONG_DISTANCE");
+        older.setRevision(2);
+
+        // When
+        templateCache.replace(older);
+
+        // Then
+        assertSame(cached, templateCache.findTemplateById("id-1"));
+    }
+
+    private MessageTemplate createTemplate(String id, String trafficType) {
+        return MessageTemplate.builder()
+            .id(id)
+            .trafficType(TrafficType.builder().key(trafficType).name(trafficType).build())
+            .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.template.service;
+
+import com.template.model.domain.CompiledTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateRendererTest {
+
+    private TemplateRenderer renderer;
+    private CompiledTemplate template;
+
+    @BeforeEach
+    void setUp() {
+        renderer = new TemplateRenderer();
+        template = CompiledTemplate.parse("Train {TRAIN_TYPE} {TRAIN_NUMBER} is delayed due to {DELAY_REASON}.",
+            Set.of("TRAIN_TYPE", "TRAIN_NUMBER", "DELAY_REASON"));
+    }
+
+    @Test
+    void render_WithMap_FillsSlotsByName() {
+        String result = renderer.render(template,
+            Map.of("TRAIN_TYPE", "IC", "TRAIN_NUMBER", 27, "DELAY_REASON", "a track fault"));
+
+        assertEquals("Train IC 27 is delayed due to a track fault.", result);
+    }
+
+    @Test
+    void render_WithPositionalValues_FillsSlotsInParameterOrder() {
+        String result = renderer.render(template, "IC", "27", "a track fault");
+
+        assertEquals("Train IC 27 is delayed due to a track fault.", result);
+    }
+
+    @Test
+    void render_MissingValues_KeepsTokens() {
+        assertEquals("Train IC {TRAIN_NUMBER} is delayed due to {DELAY_REASON}.",
+            renderer.render(template, Map.of("TRAIN_TYPE", "IC")));
+        assertEquals("Train IC {TRAIN_NUMBER} is delayed due to {DELAY_REASON}.",
+            renderer.render(template, "IC"));
+    }
+
+    @Test
+    void render_RepeatedParameter_FillsEverySlot() {
+        CompiledTemplate repeated = CompiledTemplate.parse("{A}-{A}", Set.of("A"));
+
+        assertEquals("x-x", renderer.render(repeated, "x"));
+    }
+
+    @Test
+    void renderTo_ReusedCharBuffer() {
+        CharBuffer buffer = CharBuffer.allocate(128);
+        Object[] values = renderer.bind(template, Map.of("TRAIN_TYPE", "IC", "TRAIN_NUMBER", "27", "DELAY_REASON", "snow"));
+
+        for (int i = 0; i < 2; i++) {
+            buffer.clear();
+            renderer.renderTo(template, values, buffer).flip();
+            assertEquals("Train IC 27 is delayed due to snow.", buffer.toString());
+        }
+    }
+
+    @Test
+    void renderTo_CharBufferTooSmall_Throws() {
+        assertThrows(BufferOverflowException.class,
+            () -> renderer.renderTo(template, new Object[]{"IC", "27", "snow"}, CharBuffer.allocate(8)));
+    }
+
+    @Test
+    void renderTo_StringBuilder_Appends() {
+        StringBuilder out = new StringBuilder("> ");
+
+        renderer.renderTo(CompiledTemplate.empty(), new Object[0], out);
+        renderer.renderTo(template, new Object[]{"IC", "27", "snow"}, out);
+
+        assertEquals("> Train IC 27 is delayed due to snow.", out.toString());
+    }
+}
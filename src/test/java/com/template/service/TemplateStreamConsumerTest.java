@@ -0,0 +1,367 @@
+package com.template.service;
+
+import com.template.metrics.PipelineMetrics;
+import com.template.model.domain.MessageTemplate;
+import com.template.model.domain.TrafficType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DescribeStreamRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeStreamResponse;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetShardIteratorResponse;
+import software.amazon.awssdk.services.dynamodb.model.LimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.OperationType;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodb.model.Shard;
+import software.amazon.awssdk.services.dynamodb.model.ShardIteratorType;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TemplateStreamConsumerTest {
+
+    private static final String STREAM_ARN = "arn:aws:dynamodb:eu-west-1:000000000000:table/dynamodb-table/stream/1";
+
+    @Mock
+    private DynamoDbStreamsClient streamsClient;
+
+    @Mock
+    private DynamoDbClient dynamoDbClient;
+
+    @Mock
+    private DynamoDBService dynamoDBService;
+
+    @Mock
+    private TemplateCache templateCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PipelineMetrics metrics = new PipelineMetrics(meterRegistry);
+
+    private TemplateStreamConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new TemplateStreamConsumer(streamsClient, dynamoDbClient, dynamoDBService, templateCache,
+                metrics, "dynamodb-table", "", Duration.ofSeconds(1), 100, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void poll_ResolvesStreamFromTableAndReadsOpenShardsFromLatest() {
+        // Given
+        when(dynamoDbClient.describeTable(any(DescribeTableRequest.class))).thenReturn(DescribeTableResponse.builder()
+                .table(table -> table.latestStreamArn(STREAM_ARN))
+                .build());
+        stubShards(closedShard("shard-0", null), openShard("shard-1", "shard-0"));
+        when(streamsClient.getShardIterator(any(GetShardIteratorRequest.class)))
+                .thenReturn(GetShardIteratorResponse.builder().shardIterator("it-1").build());
+        Map<String, AttributeValue> image = item("TEMPLATE#t1", "METADATA");
+        MessageTemplate template = MessageTemplate.builder().id("t1").revision(2).build();
+        when(dynamoDBService.mapToTemplate(image)).thenReturn(template);
+        stubRecords("it-1", "it-2", record(OperationType.MODIFY, image));
+
+        // When
+        consumer.poll();
+
+        // Then
+        ArgumentCaptor<GetShardIteratorRequest> iterator = ArgumentCaptor.forClass(GetShardIteratorRequest.class);
+        verify(streamsClient).getShardIterator(iterator.capture());
+        assertEquals("shard-1", iterator.getValue().shardId());
+        assertEquals(ShardIteratorType.LATEST, iterator.getValue().shardIteratorType());
+        assertEquals(STREAM_ARN, iterator.getValue().streamArn());
+        verify(templateCache).replace(template);
+        assertEquals(1, consumer.openShards());
+    }
+
+    @Test
+    void poll_FollowsNextShardIterator() {
+        // Given
+        stubShards(openShard("shard-1", null));
+        when(streamsClient.getShardIterator(any(GetShardIteratorRequest.class)))
+                .thenReturn(GetShardIteratorResponse.builder().shardIterator("it-1").build());
+        stubRecords("it-1", "it-2");
+        stubRecords("it-2", "it-3");
+
+        // When
+        consumer = consumerWithArn();
+        consumer.poll();
+        consumer.poll();
+
+        // Then
+        verify(streamsClient).getRecords(GetRecordsRequest.builder().shardIterator("it-2").limit(100).build());
+        verify(streamsClient, times(1)).describeStream(any(DescribeStreamRequest.class));
+        verifyNoInteractions(dynamoDbClient);
+    }
+
+    @Test
+    void poll_ClosedShard_ReadsChildFromTrimHorizon() {
+        // Given
+        when(streamsClient.describeStream(any(DescribeStreamRequest.class)))
+                .thenReturn(describe(openShard("shard-1", null)))
+                .thenReturn(describe(closedShard("shard-1", null), openShard("shard-2", "shard-1")));
+        when(streamsClient.getShardIterator(any(GetShardIteratorRequest.class)))
+                .thenReturn(GetShardIteratorResponse.builder().shardIterator("it-1").build())
+                .thenReturn(GetShardIteratorResponse.builder().shardIterator("child-1").build());
+        stubRecords("it-1", null);
+
+        // When
+        consumer = consumerWithArn();
+        consumer.poll();
+
+        // Then
+        ArgumentCaptor<GetShardIteratorRequest> iterators = ArgumentCaptor.forClass(GetShardIteratorRequest.class);
+        verify(streamsClient, times(2)).getShardIterator(iterators.capture());
+        assertEquals("shard-2", iterators.getAllValues().get(1).shardId());
+        assertEquals(ShardIteratorType.TRIM_HORIZON, iterators.getAllValues().get(1).shardIteratorType());
+        assertEquals(1, consumer.openShards());
+    }
+
+    @Test
+    void poll_ExpiredIterator_InvalidatesCacheAndRestarts() {
+        // Given
+        stubShards(openShard("shard-1", null));
+        when(streamsClient.getShardIterator(any(GetShardIteratorRequest.class)))
+                .thenReturn(GetShardIteratorResponse.builder().shardIterator("it-1").build());
+        when(streamsClient.getRecords(any(GetRecordsRequest.class)))
+                .thenThrow(ExpiredIteratorException.builder().message("Iterator expired").build());
+
+        // When
+        consumer = consumerWithArn();
+        consumer.poll();
+
+        // Then
+        verify(templateCache).invalidateAll();
+        assertEquals(0, consumer.openShards());
+    }
+
+    @Test
+    void poll_OtherFailure_KeepsPosition() {
+        // Given
+        stubShards(openShard("shard-1", null));
+        when(streamsClient.getShardIterator(any(GetShardIteratorRequest.class)))
+                .thenReturn(GetShardIteratorResponse.builder().shardIterator("it-1").build());
+        when(streamsClient.getRecords(any(GetRecordsRequest.class)))
+                .thenThrow(new IllegalStateException("Connection reset"));
+
+        // When
+        consumer = consumerWithArn();
+        consumer.poll();
+
+        // Then
+        verify(templateCache, never()).invalidateAll();
+        assertEquals(1, consumer.openShards());
+        assertEquals(1.0, meterRegistry.get(PipelineMetrics.STREAM_POLLS_FAILED)
+                .tag("reason", "error").counter().count());
+    }
+
+    @Test
+    void apply_RemovedTemplate_InvalidatesIt() {
+        // When
+        consumer.apply(record(OperationType.REMOVE, item("TEMPLATE#t1", "METADATA")));
+
+        // Then
+        ArgumentCaptor<MessageTemplate> invalidated = ArgumentCaptor.forClass(MessageTemplate.class);
+        verify(templateCache).invalidate(invalidated.capture());
+        assertEquals("t1", invalidated.getValue().getId());
+        verifyNoInteractions(dynamoDBService);
+    }
+
+    @Test
+    void apply_LegacySortKey_InvalidatesTemplate() {
+        // When
+        consumer.apply(record(OperationType.INSERT, item("TEMPLATE#t1", "METADATA#LONG_DISTANCE")));
+
+        // Then
+        verify(templateCache).invalidate(any(MessageTemplate.class));
+        verify(templateCache, never()).replace(any());
+    }
+
+    @Test
+    void apply_UnmappableImage_InvalidatesTemplate() {
+        // Given
+        Map<String, AttributeValue> image = item("TEMPLATE#t1", "METADATA");
+        when(dynamoDBService.mapToTemplate(image)).thenThrow(new NumberFormatException("revision"));
+
+        // When
+        consumer.apply(record(OperationType.MODIFY, image));
+
+        // Then
+        verify(templateCache).invalidate(any(MessageTemplate.class));
+    }
+
+    @Test
+    void apply_TemplateMovedWhileOnlyListIsCached_DropsOldTrafficTypeList() {
+        // Given
+        TemplateCache cache = new TemplateCache(dynamoDBService, new PipelineMetrics(new SimpleMeterRegistry()),
+                100, Duration.ofMinutes(5));
+        consumer = new TemplateStreamConsumer(streamsClient, dynamoDbClient, dynamoDBService, cache,
+                metrics, "dynamodb-table", STREAM_ARN, Duration.ofSeconds(1), 100, Duration.ofSeconds(30));
+        MessageTemplate moved = MessageTemplate.builder()
+                .id("t1")
+                .trafficType(TrafficType.builder().key("LONG_DISTANCE").name("Long Distance").build())
+                .revision(2)
+                .build();
+        when(dynamoDBService.findTemplatesByTrafficType("COMMUTER")).thenReturn(List.of(moved));
+        cache.findTemplatesByTrafficType("COMMUTER");
+        Map<String, AttributeValue> oldImage = withTrafficType(item("TEMPLATE#t1", "METADATA"), "COMMUTER");
+        Map<String, AttributeValue> newImage = withTrafficType(item("TEMPLATE#t1", "METADATA"), "LONG_DISTANCE");
+        when(dynamoDBService.mapToTemplate(newImage)).thenReturn(moved);
+
+        // When
+        consumer.apply(record(OperationType.MODIFY, oldImage, newImage));
+        cache.findTemplatesByTrafficType("COMMUTER");
+
+        // Then
+        verify(dynamoDBService, times(2)).findTemplatesByTrafficType("COMMUTER");
+    }
+
+    @Test
+    void apply_RemovedTemplateWithOldImage_DropsItsTrafficTypeList() {
+        // When
+        consumer.apply(record(OperationType.REMOVE, withTrafficType(item("TEMPLATE#t1", "METADATA"), "COMMUTER"), null));
+
+        // Then
+        verify(templateCache).invalidateTrafficType("COMMUTER");
+        verify(templateCache, never()).invalidateTrafficTypes();
+        verify(templateCache).invalidate(any(MessageTemplate.class));
+    }
+
+    @Test
+    void poll_Throttled_BacksOffAndCountsFailedPoll() {
+        // Given
+        stubShards(openShard("shard-1", null));
+        when(streamsClient.getShardIterator(any(GetShardIteratorRequest.class)))
+                .thenReturn(GetShardIteratorResponse.builder().shardIterator("it-1").build());
+        when(streamsClient.getRecords(any(GetRecordsRequest.class)))
+                .thenThrow(LimitExceededException.builder().message("Rate exceeded for shard").build())
+                .thenReturn(GetRecordsResponse.builder().nextShardIterator("it-2").build());
+
+        // When
+        consumer = consumerWithArn();
+        consumer.poll();
+        consumer.poll();
+
+        // Then
+        verify(streamsClient, times(1)).getRecords(any(GetRecordsRequest.class));
+        assertEquals(1.0, meterRegistry.get(PipelineMetrics.STREAM_POLLS_FAILED)
+                .tag("reason", "throttled").counter().count());
+
+        // When
+        consumer.poll();
+
+        // Then
+        verify(streamsClient, times(2)).getRecords(GetRecordsRequest.builder().shardIterator("it-1").limit(100).build());
+        verifyNoInteractions(templateCache);
+    }
+
+    @Test
+    void apply_UpdateWithoutOldImage_DropsAllTrafficTypeLists() {
+        // Given
+        Map<String, AttributeValue> image = item("TEMPLATE#t1", "METADATA");
+        when(dynamoDBService.mapToTemplate(image)).thenReturn(MessageTemplate.builder().id("t1").build());
+
+        // When
+        consumer.apply(record(OperationType.MODIFY, image));
+
+        // Then
+        verify(templateCache).invalidateTrafficTypes();
+    }
+
+    @Test
+    void apply_NonTemplateItem_IsIgnored() {
+        // When
+        consumer.apply(record(OperationType.INSERT, item("PROCESSED#s3-bucket/a.json", "VERSION#v1#etag")));
+
+        // Then
+        verifyNoInteractions(templateCache, dynamoDBService);
+    }
+
+    private TemplateStreamConsumer consumerWithArn() {
+        return new TemplateStreamConsumer(streamsClient, dynamoDbClient, dynamoDBService, templateCache,
+                metrics, "dynamodb-table", STREAM_ARN, Duration.ofSeconds(1), 100, Duration.ofSeconds(30));
+    }
+
+    private void stubShards(Shard... shards) {
+        when(streamsClient.describeStream(any(DescribeStreamRequest.class))).thenReturn(describe(shards));
+    }
+
+    private void stubRecords(String iterator, String next, Record... records) {
+        when(streamsClient.getRecords(GetRecordsRequest.builder().shardIterator(iterator).limit(100).build()))
+                .thenReturn(GetRecordsResponse.builder().records(records).nextShardIterator(next).build());
+    }
+
+    private static DescribeStreamResponse describe(Shard... shards) {
+        return DescribeStreamResponse.builder()
+                .streamDescription(description -> description.streamArn(STREAM_ARN).shards(shards))
+                .build();
+    }
+
+    private static Shard openShard(String shardId, String parentShardId) {
+        return Shard.builder()
+                .shardId(shardId)
+                .parentShardId(parentShardId)
+                .sequenceNumberRange(range -> range.startingSequenceNumber("100"))
+                .build();
+    }
+
+    private static Shard closedShard(String shardId, String parentShardId) {
+        return Shard.builder()
+                .shardId(shardId)
+                .parentShardId(parentShardId)
+                .sequenceNumberRange(range -> range.startingSequenceNumber("1").endingSequenceNumber("99"))
+                .build();
+    }
+
+    private static Record record(OperationType operation, Map<String, AttributeValue> item) {
+        return Record.builder()
+                .eventName(operation)
+                .dynamodb(data -> {
+                    data.keys(Map.of("PK", item.get("PK"), "SK", item.get("SK")));
+                    if (operation != OperationType.REMOVE) {
+                        data.newImage(item);
+                    }
+                })
+                .build();
+    }
+
+    private static Record record(OperationType operation, Map<String, AttributeValue> oldImage,
+                                 Map<String, AttributeValue> newImage) {
+        return Record.builder()
+                .eventName(operation)
+                .dynamodb(data -> data.keys(Map.of("PK", oldImage.get("PK"), "SK", oldImage.get("SK")))
+                        .oldImage(oldImage)
+                        .newImage(newImage))
+                .build();
+    }
+
+    private static Map<String, AttributeValue> withTrafficType(Map<String, AttributeValue> item, String trafficType) {
+        Map<String, AttributeValue> image = new HashMap<>(item);
+        image.put("trafficTypeKey", AttributeValue.builder().s(trafficType).build());
+        return image;
+    }
+
+    private static Map<String, AttributeValue> item(String pk, String sk) {
+        return Map.of(
+                "PK", AttributeValue.builder().s(pk).build(),
+                "SK", AttributeValue.builder().s(sk).build());
+    }
+}
@@ -1,11 +1,22 @@
 package com.template.service;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.template.metrics.PipelineMetrics;
 import com.template.model.cms.*;
+import com.template.model.domain.ContentHash;
 import com.template.model.domain.MessageTemplate;
 import com.template.model.domain.TrafficType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Collections;
@@ -20,7 +31,7 @@ class TemplateTransformerTest {
 
     @BeforeEach
     void setUp() {
-        transformer = new TemplateTransformer();
+        transformer = new TemplateTransformer(new PipelineMetrics(new SimpleMeterRegistry()));
     }
 
     @Test
@@ -51,10 +62,187 @@ class TemplateTransformerTest {
                             "We apologise for the inconvenience. We will update you on the situation as soon as possible.";
         assertEquals(expectedBody, result.getBody());
         
+        // Check compiled forms
+        assertEquals(expectedSubject, result.getCompiledSubject().toSource());
+        assertEquals(expectedBody, result.getCompiledBody().toSource());
+        assertEquals(List.of("TRAIN_TYPE", "TRAIN_NUMBER", "DELAY_REASON"), result.getCompiledBody().getParameters());
+        assertEquals(2, result.getCompiledSubject().getSlotCount());
+
         // Check parameters
         List<String> expectedParams = List.of("TRAIN_TYPE", "TRAIN_NUMBER", "DELAY_REASON");
         assertTrue(result.getParameters().containsAll(expectedParams));
         assertEquals(expectedParams.size(), result.getParameters().size());
+
+        // Check versioning attributes
+        assertEquals(4, result.getRevision());
+        assertEquals("2025-01-02T00:00:00.000Z", result.getUpdatedAt());
+        assertEquals(ContentHash.of(expectedSubject, expectedBody, result.getParameters()), result.getContentHash());
+    }
+
+    @Test
+    void transformStream_SampleTemplate_MatchesTreeTransform() throws IOException {
+        // Given
+        ObjectMapper objectMapper = lenientMapper();
+        CmsResponse response;
+        try (InputStream input = new ClassPathResource("samples/template.json").getInputStream()) {
+            response = objectMapper.readValue(input, CmsResponse.class);
+        }
+
+        // When
+        MessageTemplate streamed;
+        try (InputStream input = new ClassPathResource("samples/template.json").getInputStream()) {
+            streamed = transformer.transform(input);
+        }
+
+        // Then
+        MessageTemplate expected = transformer.transform(response);
+        assertEquals("111-111-111", streamed.getId());
+        assertEquals(1, streamed.getRevision());
+        assertEquals(expected.getSubject(), streamed.getSubject());
+        assertEquals(expected.getBody(), streamed.getBody());
+        assertEquals(expected.getParameters(), streamed.getParameters());
+        assertEquals(expected.getContentHash(), streamed.getContentHash());
+        assertEquals(expected.getCompiledSubject(), streamed.getCompiledSubject());
+        assertEquals(expected.getCompiledBody(), streamed.getCompiledBody());
+
+        // The sample links its traffic type in CMS link form, which only the streaming parser resolves
+        assertNotNull(streamed.getTrafficType());
+        assertEquals("LONG_DISTANCE", streamed.getTrafficType().getKey());
+    }
+
+    @Test
+    void transformStream_IncludesBeforeItems_ResolvesReferences() throws IOException {
+        // Given
+        ObjectMapper objectMapper = lenientMapper();
+        ObjectNode sample = (ObjectNode) objectMapper.readTree(new ClassPathResource("samples/template.json").getInputStream());
+        ObjectNode reordered = objectMapper.createObjectNode();
+        reordered.set("includes", sample.get("includes"));
+        reordered.set("items", sample.get("items"));
+
+        // When
+        MessageTemplate result = transformer.transform(toStream(objectMapper.writeValueAsString(reordered)));
+
+        // Then
+        MessageTemplate expected;
+        try (InputStream input = new ClassPathResource("samples/template.json").getInputStream()) {
+            expected = transformer.transform(input);
+        }
+        assertEquals(expected, result);
+        assertFalse(result.getParameters().isEmpty());
+    }
+
+    @Test
+    void transformStream_NoItems_ReturnsNull() throws IOException {
+        assertNull(transformer.transform(toStream("{\"items\": [], \"includes\": {\"Entry\": []}}")));
+        assertNull(transformer.transform(toStream("{\"total\": 0}")));
+    }
+
+    @Test
+    void transformStream_UnresolvedReferences_AreSkipped() throws IOException {
+        // Given
+        String json = """
+            {
+              "items": [{
+                "sys": {"id": "t1", "revision": 3, "extra": {"nested": [1, 2]}},
+                "fields": {
+                  "key": "KEY",
+                  "name": "Name",
+                  "trafficType": {"sys": {"id": "missing"}},
+                  "subject": {"content": [{"content": [
+                    {"nodeType": "text", "value": "Hello "},
+                    {"nodeType": "embedded-entry-inline", "data": {"target": {"sys": {"id": "p1"}}}},
+                    {"nodeType": "embedded-entry-inline", "data": {"target": {"sys": {"id": "unknown"}}}},
+                    {"nodeType": "hyperlink", "content": [{"nodeType": "text", "value": "ignored"}]}
+                  ]}]}
+                }
+              }],
+              "includes": {"Entry": [{"sys": {"id": "p1"}, "fields": {"key": "NAME"}}]}
+            }
+            """;
+
+        // When
+        MessageTemplate result = transformer.transform(toStream(json));
+
+        // Then
+        assertEquals("t1", result.getId());
+        assertEquals(3, result.getRevision());
+        assertNull(result.getTrafficType());
+        assertEquals("Hello {NAME}", result.getSubject());
+        assertEquals("", result.getBody());
+        assertEquals(List.of("NAME"), result.getParameters());
+    }
+
+    @Test
+    void transformStream_InvalidJson_ThrowsIOException() {
+        assertThrows(IOException.class, () -> transformer.transform(toStream("[1, 2]")));
+        assertThrows(IOException.class, () -> transformer.transform(toStream("{\"items\": [")));
+    }
+
+    @Test
+    void transform_SameContentDifferentRevision_SameContentHash() {
+        // Given
+        CmsResponse first = createFullResponse();
+        CmsResponse second = createFullResponse();
+        second.getItems().get(0).getSys().setRevision(5);
+
+        // When
+        MessageTemplate firstResult = transformer.transform(first);
+        MessageTemplate secondResult = transformer.transform(second);
+
+        // Then
+        assertNotEquals(firstResult.getRevision(), secondResult.getRevision());
+        assertEquals(firstResult.getContentHash(), secondResult.getContentHash());
+    }
+
+    @Test
+    void transformAll_LargeExport_TransformsEveryEntryInOrder() {
+        // Given
+        CmsResponse response = createFullResponse();
+        CmsEntry original = response.getItems().get(0);
+        int count = TemplateTransformer.PARALLEL_THRESHOLD * 4;
+        List<CmsEntry> entries = new java.util.ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CmsEntry entry = new CmsEntry();
+            Sys sys = new Sys();
+            sys.setId("template-" + i);
+            entry.setSys(sys);
+            entry.setFields(original.getFields());
+            entries.add(entry);
+        }
+        response.setItems(entries);
+        MessageTemplate single = transformer.transform(createFullResponse());
+
+        // When
+        List<MessageTemplate> results = transformer.transformAll(response);
+
+        // Then
+        assertEquals(count, results.size());
+        for (int i = 0; i < count; i++) {
+            MessageTemplate result = results.get(i);
+            assertEquals("template-" + i, result.getId());
+            assertEquals(single.getSubject(), result.getSubject());
+            assertEquals(single.getBody(), result.getBody());
+            assertEquals(single.getParameters(), result.getParameters());
+            assertEquals("LONG_DISTANCE", result.getTrafficType().getKey());
+        }
+    }
+
+    @Test
+    void transformAll_SmallExport_MatchesSingleTransform() {
+        // Given
+        CmsResponse response = createFullResponse();
+
+        // When
+        List<MessageTemplate> results = transformer.transformAll(response);
+
+        // Then
+        assertEquals(List.of(transformer.transform(createFullResponse()).getContentHash()),
+                results.stream().map(MessageTemplate::getContentHash).toList());
+    }
+
+    @Test
+    void transformAll_EmptyResponse_ReturnsEmptyList() {
+        assertTrue(transformer.transformAll(new CmsResponse()).isEmpty());
     }
 
     @Test
@@ -127,10 +315,10 @@ class TemplateTransformerTest {
         
         // Create document with invalid parameter node
         Document document = new Document();
-        document.setNodeType("document");
+        document.setNodeType(NodeType.DOCUMENT);
         
         Node invalidNode = new Node();
-        invalidNode.setNodeType("invalid");
+        invalidNode.setNodeType(NodeType.UNKNOWN);
         
         document.setContent(List.of(createParagraph(List.of(invalidNode))));
         fields.setBody(document);
@@ -179,6 +367,8 @@ class TemplateTransformerTest {
         CmsEntry templateEntry = new CmsEntry();
         Sys templateSys = new Sys();
         templateSys.setId("111-111-111");
+        templateSys.setRevision(4);
+        templateSys.setUpdatedAt("2025-01-02T00:00:00.000Z");
         templateEntry.setSys(templateSys);
         
         Fields fields = new Fields();
@@ -252,25 +442,37 @@ class TemplateTransformerTest {
 
     private Node createParagraph(List<Node> content) {
         Node node = new Node();
-        node.setNodeType("paragraph");
+        node.setNodeType(NodeType.PARAGRAPH);
         node.setContent(content);
         return node;
     }
 
     private Node createTextNode(String value) {
         Node node = new Node();
-        node.setNodeType("text");
+        node.setNodeType(NodeType.TEXT);
         node.setValue(value);
         return node;
     }
 
     private Node createParameterNode(String id) {
         Node node = new Node();
-        node.setNodeType("embedded-entry-inline");
-        node.setData(Map.of("target", Map.of("sys", Map.of("id", id))));
+        node.setNodeType(NodeType.EMBEDDED_ENTRY_INLINE);
+        Sys sys = new Sys();
+        sys.setId(id);
+        Target target = new Target();
+        target.setSys(sys);
+        node.setData(NodeData.of(target, null));
         return node;
     }
 
+    private ObjectMapper lenientMapper() {
+        return new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    private InputStream toStream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
     private CmsEntry createIncludedEntry(String id, String key, String name) {
         CmsEntry entry = new CmsEntry();
         Sys sys = new Sys();
@@ -287,14 +489,14 @@ class TemplateTransformerTest {
 
     private Document createDocument(List<Node> content) {
         Document document = new Document();
-        document.setNodeType("document");
+        document.setNodeType(NodeType.DOCUMENT);
         document.setContent(content);
         return document;
     }
 
     private Document createTestDocument() {
         Document document = new Document();
-        document.setNodeType("document");
+        document.setNodeType(NodeType.DOCUMENT);
         document.setContent(Collections.emptyList());
         return document;
     }
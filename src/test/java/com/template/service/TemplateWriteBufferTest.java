@@ -0,0 +1,237 @@
+package com.template.service;
+
+import com.template.exception.TemplatePersistenceException;
+import com.template.metrics.PipelineMetrics;
+import com.template.model.domain.MessageTemplate;
+import com.template.model.domain.WriteOutcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TemplateWriteBufferTest {
+
+    private static final String TABLE = "dynamodb-table";
+
+    @Mock
+    private DynamoDbClient dynamoDbClient;
+
+    private TemplateWriteBuffer buffer;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        buffer = buffer(null);
+    }
+
+    private TemplateWriteBuffer buffer(AdaptiveWriteLimiter writeLimiter) {
+        return new TemplateWriteBuffer(dynamoDbClient, TABLE, Duration.ofHours(1), 3, Duration.ofMillis(1),
+                writeLimiter, new PipelineMetrics(meterRegistry)) {
+            @Override
+            void sleep(long millis) {
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.close();
+    }
+
+    @Test
+    void flush_CoalescesSavesOfSameItem() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(BatchWriteItemResponse.builder().build());
+
+        CompletableFuture<WriteOutcome> first = buffer.submit(template("t1", 1), item("t1", "v1"));
+        CompletableFuture<WriteOutcome> second = buffer.submit(template("t1", 2), item("t1", "v2"));
+        buffer.flush();
+
+        assertEquals(WriteOutcome.SUPERSEDED, first.join());
+        assertEquals(WriteOutcome.WRITTEN, second.join());
+
+        ArgumentCaptor<BatchWriteItemRequest> captor = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+        verify(dynamoDbClient).batchWriteItem(captor.capture());
+        List<WriteRequest> writes = captor.getValue().requestItems().get(TABLE);
+        assertEquals(1, writes.size());
+        assertEquals("v2", writes.get(0).putRequest().item().get("body").s());
+    }
+
+    @Test
+    void submit_OlderRevisionThanBuffered_IsSkipped() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(BatchWriteItemResponse.builder().build());
+
+        CompletableFuture<WriteOutcome> newer = buffer.submit(template("t1", 5), item("t1", "v5"));
+        CompletableFuture<WriteOutcome> older = buffer.submit(template("t1", 4), item("t1", "v4"));
+
+        assertEquals(WriteOutcome.SKIPPED, older.join());
+        buffer.flush();
+        assertEquals(WriteOutcome.WRITTEN, newer.join());
+    }
+
+    @Test
+    void flush_SplitsIntoBatchesOf25() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(BatchWriteItemResponse.builder().build());
+
+        List<CompletableFuture<WriteOutcome>> futures = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            futures.add(buffer.submit(template("t" + i, 1), item("t" + i, "v")));
+        }
+        buffer.flush();
+        futures.forEach(f -> assertEquals(WriteOutcome.WRITTEN, f.join()));
+
+        ArgumentCaptor<BatchWriteItemRequest> captor = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+        verify(dynamoDbClient, atLeast(2)).batchWriteItem(captor.capture());
+        int total = captor.getAllValues().stream()
+                .mapToInt(request -> request.requestItems().get(TABLE).size())
+                .peek(size -> assertTrue(size <= TemplateWriteBuffer.MAX_BATCH_SIZE))
+                .sum();
+        assertEquals(30, total);
+    }
+
+    @Test
+    void submit_FullBatch_FlushesWithoutWaitingForDeadline() throws Exception {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(BatchWriteItemResponse.builder().build());
+
+        List<CompletableFuture<WriteOutcome>> futures = new ArrayList<>();
+        for (int i = 0; i < TemplateWriteBuffer.MAX_BATCH_SIZE; i++) {
+            futures.add(buffer.submit(template("t" + i, 1), item("t" + i, "v")));
+        }
+
+        for (CompletableFuture<WriteOutcome> future : futures) {
+            assertEquals(WriteOutcome.WRITTEN, future.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void flush_RetriesUnprocessedItems() {
+        WriteRequest unprocessed = WriteRequest.builder()
+                .putRequest(PutRequest.builder().item(item("t2", "v")).build())
+                .build();
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(BatchWriteItemResponse.builder()
+                        .unprocessedItems(Map.of(TABLE, List.of(unprocessed)))
+                        .consumedCapacity(ConsumedCapacity.builder().tableName(TABLE).capacityUnits(1.0).build())
+                        .build())
+                .thenReturn(BatchWriteItemResponse.builder()
+                        .consumedCapacity(ConsumedCapacity.builder().tableName(TABLE).capacityUnits(1.0).build())
+                        .build());
+
+        CompletableFuture<WriteOutcome> first = buffer.submit(template("t1", 1), item("t1", "v"));
+        CompletableFuture<WriteOutcome> second = buffer.submit(template("t2", 1), item("t2", "v"));
+        buffer.flush();
+
+        assertEquals(WriteOutcome.WRITTEN, first.join());
+        assertEquals(WriteOutcome.WRITTEN, second.join());
+
+        ArgumentCaptor<BatchWriteItemRequest> captor = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+        verify(dynamoDbClient, times(2)).batchWriteItem(captor.capture());
+        assertEquals(1, captor.getAllValues().get(1).requestItems().get(TABLE).size());
+        assertEquals(1, meterRegistry.get(PipelineMetrics.RETRIES).tag("operation", "BatchWriteItem").counter().count());
+        assertEquals(2.0, meterRegistry.get(PipelineMetrics.DYNAMODB_CONSUMED_CAPACITY)
+                .tag("operation", "BatchWriteItem").summary().totalAmount());
+    }
+
+    @Test
+    void flush_UnprocessedAfterMaxAttempts_FailsRemainingItems() {
+        WriteRequest unprocessed = WriteRequest.builder()
+                .putRequest(PutRequest.builder().item(item("t1", "v")).build())
+                .build();
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(BatchWriteItemResponse.builder()
+                        .unprocessedItems(Map.of(TABLE, List.of(unprocessed)))
+                        .build());
+
+        CompletableFuture<WriteOutcome> future = buffer.submit(template("t1", 1), item("t1", "v"));
+        buffer.flush();
+
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(TemplatePersistenceException.class, exception.getCause());
+        verify(dynamoDbClient, times(3)).batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+    @Test
+    void flush_BatchWriteFails_FailsAllItemsIncludingSuperseded() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenThrow(new RuntimeException("DynamoDB error"));
+
+        CompletableFuture<WriteOutcome> first = buffer.submit(template("t1", 1), item("t1", "v1"));
+        CompletableFuture<WriteOutcome> second = buffer.submit(template("t1", 2), item("t1", "v2"));
+        buffer.flush();
+
+        assertInstanceOf(TemplatePersistenceException.class,
+                assertThrows(CompletionException.class, first::join).getCause());
+        assertInstanceOf(TemplatePersistenceException.class,
+                assertThrows(CompletionException.class, second::join).getCause());
+    }
+
+    @Test
+    void flush_WithWriteLimiter_RetriesThrottledBatchBeyondMaxAttempts() {
+        AtomicLong clock = new AtomicLong();
+        AdaptiveWriteLimiter limiter = new AdaptiveWriteLimiter(100, 5, 1000, 10, 0.5,
+                Duration.ofSeconds(1), Duration.ofSeconds(20), clock::get) {
+            @Override
+            void pause(long nanos) {
+                clock.addAndGet(nanos);
+            }
+        };
+        TemplateWriteBuffer limited = buffer(limiter);
+        ProvisionedThroughputExceededException throttled = ProvisionedThroughputExceededException.builder()
+                .message("Throughput exceeds the provisioned capacity").build();
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenThrow(throttled, throttled, throttled)
+                .thenReturn(BatchWriteItemResponse.builder().build());
+
+        CompletableFuture<WriteOutcome> future = limited.submit(template("t1", 1), item("t1", "v"));
+        limited.flush();
+        limited.close();
+
+        assertEquals(WriteOutcome.WRITTEN, future.join());
+        verify(dynamoDbClient, times(4)).batchWriteItem(any(BatchWriteItemRequest.class));
+        assertEquals(3, meterRegistry.get(PipelineMetrics.DYNAMODB_THROTTLED)
+                .tag("operation", "BatchWriteItem").counter().count());
+        assertTrue(limiter.rate() < 100);
+    }
+
+    private MessageTemplate template(String id, int revision) {
+        return MessageTemplate.builder().id(id).revision(revision).build();
+    }
+
+    private Map<String, AttributeValue> item(String id, String body) {
+        return Map.of(
+                "PK", AttributeValue.builder().s("TEMPLATE#" + id).build(),
+                "SK", AttributeValue.builder().s("METADATA#DEFAULT").build(),
+                "body", AttributeValue.builder().s(body).build());
+    }
+}
@@ -0,0 +1,141 @@
+package com.template.service;
+
+import com.template.model.aws.S3ObjectVersion;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpdateCoalescerTest {
+
+    private final List<S3ObjectVersion> superseded = new CopyOnWriteArrayList<>();
+    private final List<Runnable> scheduled = new CopyOnWriteArrayList<>();
+    // Holds the window open until the test runs the scheduled flushes
+    private final Executor manual = scheduled::add;
+
+    @Test
+    void runAsync_UpdatesWithinWindow_ProcessesLatestVersionOnce() {
+        UpdateCoalescer coalescer = new UpdateCoalescer(Duration.ofMillis(1), superseded::add);
+        List<S3ObjectVersion> processed = new ArrayList<>();
+        S3ObjectVersion v1 = version("key", "v1", "0055AED6DCD90281E5");
+        S3ObjectVersion v3 = version("key", "v3", "0055AED6DCD90281F0");
+        S3ObjectVersion v2 = version("key", "v2", "0055AED6DCD90281E6");
+
+        CompletableFuture<Void> first = coalescer.runAsync(v1, manual, processor(processed));
+        CompletableFuture<Void> third = coalescer.runAsync(v3, manual, processor(processed));
+        CompletableFuture<Void> second = coalescer.runAsync(v2, manual, processor(processed));
+        assertFalse(first.isDone());
+
+        flush();
+
+        assertEquals(List.of(v3), processed);
+        assertEquals(List.of(v1, v2), superseded);
+        assertTrue(first.isDone() && second.isDone() && third.isDone());
+        assertEquals(0, coalescer.pendingKeys());
+    }
+
+    @Test
+    void runAsync_LatestVersionFails_OnlyItsMessageFails() {
+        UpdateCoalescer coalescer = new UpdateCoalescer(Duration.ofMillis(1), superseded::add);
+        CompletableFuture<Void> older = coalescer.runAsync(version("key", "v1", "01"), manual,
+                version -> CompletableFuture.failedFuture(new IllegalStateException("DynamoDB unavailable")));
+        CompletableFuture<Void> latest = coalescer.runAsync(version("key", "v2", "02"), manual,
+                version -> CompletableFuture.failedFuture(new IllegalStateException("DynamoDB unavailable")));
+
+        flush();
+
+        older.join();
+        CompletionException exception = assertThrows(CompletionException.class, latest::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    void runAsync_DifferentKeysAndClosedWindows_AreProcessedSeparately() {
+        UpdateCoalescer coalescer = new UpdateCoalescer(Duration.ofMillis(1), superseded::add);
+        List<S3ObjectVersion> processed = new ArrayList<>();
+
+        coalescer.runAsync(version("a", "v1", "01"), manual, processor(processed));
+        coalescer.runAsync(version("b", "v1", "01"), manual, processor(processed));
+        flush(2);
+        coalescer.runAsync(version("a", "v2", "02"), manual, processor(processed));
+        flush();
+
+        assertEquals(3, processed.size());
+        assertTrue(superseded.isEmpty());
+    }
+
+    @Test
+    void run_ConcurrentUpdates_WaitForTheLatestVersion() throws Exception {
+        UpdateCoalescer coalescer = new UpdateCoalescer(Duration.ofMillis(200), superseded::add);
+        List<S3ObjectVersion> processed = new CopyOnWriteArrayList<>();
+        S3ObjectVersion v2 = version("key", "v2", "02");
+
+        Thread leader = new Thread(() -> {
+            try {
+                coalescer.run(version("key", "v1", "01"), processed::add);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        leader.start();
+        Thread.sleep(50);
+        coalescer.run(v2, processed::add);
+        leader.join();
+
+        assertEquals(List.of(v2), processed);
+        assertEquals(1, superseded.size());
+    }
+
+    @Test
+    void isNewer_ComparesRightPaddedSequencers() {
+        assertTrue(UpdateCoalescer.isNewer(version("key", null, "0055AED6DCD90281F0"),
+                version("key", null, "0055AED6DCD90281E5")));
+        assertTrue(UpdateCoalescer.isNewer(version("key", null, "0055AED6DCD90281E5"),
+                version("key", null, "0055AED6DCD90281E")));
+        assertFalse(UpdateCoalescer.isNewer(version("key", null, "0055AED6DCD90281E"),
+                version("key", null, "0055AED6DCD90281E0")));
+        assertTrue(UpdateCoalescer.isNewer(version("key", null, null), version("key", null, "01")));
+    }
+
+    private void flush() {
+        flush(1);
+    }
+
+    /**
+     * Waits for the delayed executor to hand over the expected flushes, then runs them
+     */
+    private void flush(int expected) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (scheduled.size() < expected && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(expected, scheduled.size());
+        List<Runnable> tasks = new ArrayList<>(scheduled);
+        scheduled.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private static Function<S3ObjectVersion, CompletableFuture<Void>> processor(List<S3ObjectVersion> processed) {
+        return version -> {
+            processed.add(version);
+            return CompletableFuture.completedFuture(null);
+        };
+    }
+
+    private static S3ObjectVersion version(String key, String versionId, String sequencer) {
+        return S3ObjectVersion.builder()
+                .bucket("bucket")
+                .key(key)
+                .versionId(versionId)
+                .sequencer(sequencer)
+                .build();
+    }
+}